@@ -0,0 +1,153 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.karaf.cellar.bundle.BundleState;
+import org.apache.karaf.cellar.bundle.ClusterBundleEvent;
+import org.apache.karaf.cellar.config.ClusterConfigurationEvent;
+import org.apache.karaf.cellar.config.shell.ConfigurationAction;
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.dosgi.RemoteServiceCall;
+import org.apache.karaf.cellar.dosgi.RemoteServiceResult;
+import org.apache.karaf.cellar.features.ClusterFeaturesEvent;
+import org.apache.karaf.cellar.hazelcast.HazelcastNode;
+import org.apache.karaf.features.FeatureEvent;
+import org.osgi.framework.Bundle;
+
+/**
+ * Representative values of the Cellar wire types.
+ */
+public enum Payload {
+
+    BUNDLE_EVENT {
+        @Override
+        public Object create() {
+            return withEnvelope(new ClusterBundleEvent("org.apache.karaf.cellar.bundle", "3.0.0.SNAPSHOT",
+                    "mvn:org.apache.karaf.cellar/org.apache.karaf.cellar.bundle/3.0.0-SNAPSHOT", Bundle.ACTIVE));
+        }
+    },
+    CONFIGURATION_EVENT {
+        @Override
+        public Object create() {
+            ClusterConfigurationEvent event = new ClusterConfigurationEvent("org.ops4j.pax.web");
+            event.setType(ConfigurationAction.PROP_SET);
+            event.setPropertyName("org.osgi.service.http.port");
+            event.setPropertyValue("8181");
+            return withEnvelope(event);
+        }
+    },
+    CONFIGURATION_PROPERTIES {
+        @Override
+        public Object create() {
+            return configuration(60);
+        }
+    },
+    FEATURES_EVENT {
+        @Override
+        public Object create() {
+            return withEnvelope(new ClusterFeaturesEvent("cellar-config", "3.0.0-SNAPSHOT", false, true, FeatureEvent.EventType.FeatureInstalled));
+        }
+    },
+    REMOTE_SERVICE_CALL {
+        @Override
+        public Object create() {
+            RemoteServiceCall call = new RemoteServiceCall(UUID.randomUUID().toString());
+            call.setEndpointId("org.apache.karaf.cellar.samples.dosgi.greeter.api.GreeterService@" + UUID.randomUUID());
+            call.setServiceClass("org.apache.karaf.cellar.samples.dosgi.greeter.api.GreeterService");
+            call.setMethod("greet");
+            call.setArguments(new ArrayList<Object>(Arrays.asList("Hello from the benchmarks", 42, Boolean.TRUE)));
+            return withEnvelope(call);
+        }
+    },
+    REMOTE_SERVICE_RESULT {
+        @Override
+        public Object create() {
+            RemoteServiceResult result = new RemoteServiceResult(UUID.randomUUID().toString());
+            result.setResult("Hello from the benchmarks, greeting number 42");
+            return result;
+        }
+    },
+    BUNDLE_STATE {
+        @Override
+        public Object create() {
+            BundleState state = new BundleState();
+            state.setName("org.apache.karaf.cellar.bundle/3.0.0.SNAPSHOT");
+            state.setLocation("mvn:org.apache.karaf.cellar/org.apache.karaf.cellar.bundle/3.0.0-SNAPSHOT");
+            state.setStatus(Bundle.ACTIVE);
+            return state;
+        }
+    };
+
+    /**
+     * @return a new value of the payload.
+     */
+    public abstract Object create();
+
+    /**
+     * Create a group of the given size.
+     *
+     * @param nodes the number of nodes of the group.
+     * @return the group.
+     */
+    public static Group group(int nodes) {
+        Group group = new Group("default");
+        for (int i = 0; i < nodes; i++) {
+            group.addNode(node(i));
+        }
+        return group;
+    }
+
+    /**
+     * Create a configuration of the given size, with properties like the ones of the Karaf configurations.
+     *
+     * @param size the number of properties.
+     * @return the configuration.
+     */
+    public static Properties configuration(int size) {
+        Properties properties = new Properties();
+        properties.put("service.pid", "org.apache.karaf.cellar.benchmarks");
+        for (int i = 0; i < size; i++) {
+            properties.put("org.apache.karaf.cellar.benchmarks.property" + i, "value of the property " + i + " of the benchmark configuration");
+        }
+        return properties;
+    }
+
+    private static Node node(int index) {
+        HazelcastNode node = new HazelcastNode();
+        node.setId(UUID.randomUUID().toString());
+        node.setHost("10.0.0." + (index % 250 + 1));
+        node.setPort(5701 + index / 250);
+        node.setName(node.getHost() + ":" + node.getPort());
+        return node;
+    }
+
+    private static Event withEnvelope(Event event) {
+        Group group = group(3);
+        Set<Node> destination = new HashSet<Node>(group.getNodes());
+        List<Node> nodes = new ArrayList<Node>(destination);
+        event.setSourceNode(nodes.get(0));
+        event.setSourceGroup(group);
+        event.setDestination(destination);
+        return event;
+    }
+}
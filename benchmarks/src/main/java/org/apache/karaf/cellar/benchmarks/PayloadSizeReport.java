@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the encoded size in bytes of the Cellar wire types in each wire format.
+ */
+public class PayloadSizeReport {
+
+    public static void main(String[] args) {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for (Payload payload : Payload.values()) {
+            values.put(payload.name(), payload.create());
+        }
+        for (int nodes : new int[]{1, 10, 100}) {
+            values.put("GROUP_" + nodes, Payload.group(nodes));
+        }
+        StringBuilder header = new StringBuilder(String.format("%-26s", "payload"));
+        for (WireFormat format : WireFormat.values()) {
+            header.append(String.format("%10s", format));
+        }
+        System.out.println(header);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            StringBuilder line = new StringBuilder(String.format("%-26s", entry.getKey()));
+            for (WireFormat format : WireFormat.values()) {
+                line.append(String.format("%10s", size(format, entry.getValue())));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static String size(WireFormat format, Object value) {
+        try {
+            WireFormat.Codec codec = format.createCodec(value.getClass());
+            return String.valueOf(codec.size(codec.encode(value)));
+        } catch (Exception e) {
+            // the format doesn't support the type
+            return "n/a";
+        }
+    }
+}
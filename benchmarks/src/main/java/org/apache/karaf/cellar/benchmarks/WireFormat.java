@@ -0,0 +1,171 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.benchmarks;
+
+import com.hazelcast.config.SerializationConfig;
+import com.hazelcast.config.SerializerConfig;
+import com.hazelcast.nio.serialization.Data;
+import com.hazelcast.nio.serialization.SerializationService;
+import com.hazelcast.nio.serialization.SerializationServiceBuilder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Properties;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+import org.apache.karaf.cellar.hazelcast.HazelcastNode;
+import org.apache.karaf.cellar.hazelcast.serialization.CellarCodec;
+import org.apache.karaf.cellar.hazelcast.serialization.CellarStreamSerializer;
+import org.apache.karaf.cellar.hazelcast.serialization.GenericCellarSerializer;
+import org.apache.karaf.cellar.hazelcast.serialization.HazelcastNodeSerializer;
+import org.apache.karaf.cellar.hazelcast.serialization.PropertiesSerializer;
+
+/**
+ * Wire formats compared by the benchmarks.
+ */
+public enum WireFormat {
+
+    /**
+     * Plain Java serialization, as used by Hazelcast when no serializer is registered.
+     */
+    JAVA {
+        @Override
+        public Codec createCodec(Class<?> type) {
+            return new JavaCodec();
+        }
+    },
+    /**
+     * The {@link GenericCellarSerializer} with the JSON codec.
+     */
+    JSON {
+        @Override
+        public Codec createCodec(Class<?> type) {
+            return jacksonCodec(type, CellarCodec.JSON);
+        }
+    },
+    /**
+     * The {@link GenericCellarSerializer} with the SMILE codec.
+     */
+    SMILE {
+        @Override
+        public Codec createCodec(Class<?> type) {
+            return jacksonCodec(type, CellarCodec.SMILE);
+        }
+    },
+    /**
+     * The Cellar binary format, as registered by the Hazelcast configuration manager.
+     */
+    CELLAR {
+        @Override
+        public Codec createCodec(Class<?> type) {
+            SerializationConfig config = new SerializationConfig();
+            config.addSerializerConfig(new SerializerConfig().setTypeClass(CellarSerializable.class).setImplementation(new CellarStreamSerializer()));
+            config.addSerializerConfig(new SerializerConfig().setTypeClass(HazelcastNode.class).setImplementation(new HazelcastNodeSerializer()));
+            config.addSerializerConfig(new SerializerConfig().setTypeClass(Properties.class).setImplementation(new PropertiesSerializer()));
+            return new HazelcastCodec(config);
+        }
+    };
+
+    private static final int JACKSON_TYPE_ID = 200;
+
+    /**
+     * Create a codec of the given type.
+     *
+     * @param type the type of the encoded values.
+     * @return the codec.
+     */
+    public abstract Codec createCodec(Class<?> type);
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Codec jacksonCodec(Class<?> type, CellarCodec codec) {
+        SerializationConfig config = new SerializationConfig();
+        config.addSerializerConfig(new SerializerConfig().setTypeClass(type).setImplementation(new GenericCellarSerializer(JACKSON_TYPE_ID, type, codec)));
+        return new HazelcastCodec(config);
+    }
+
+    /**
+     * Encodes and decodes values of a type.
+     */
+    public interface Codec {
+
+        /**
+         * @return the encoded value.
+         */
+        Object encode(Object value) throws IOException;
+
+        /**
+         * @return the decoded value.
+         */
+        Object decode(Object encoded) throws IOException;
+
+        /**
+         * @return the size in bytes of an encoded value.
+         */
+        int size(Object encoded);
+    }
+
+    private static class JavaCodec implements Codec {
+
+        @Override
+        public Object encode(Object value) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(value);
+            out.close();
+            return bytes.toByteArray();
+        }
+
+        @Override
+        public Object decode(Object encoded) throws IOException {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream((byte[]) encoded));
+            try {
+                return in.readObject();
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            } finally {
+                in.close();
+            }
+        }
+
+        @Override
+        public int size(Object encoded) {
+            return ((byte[]) encoded).length;
+        }
+    }
+
+    private static class HazelcastCodec implements Codec {
+
+        private final SerializationService serializationService;
+
+        public HazelcastCodec(SerializationConfig config) {
+            this.serializationService = new SerializationServiceBuilder().setConfig(config).build();
+        }
+
+        @Override
+        public Object encode(Object value) {
+            return serializationService.toData(value);
+        }
+
+        @Override
+        public Object decode(Object encoded) {
+            return serializationService.toObject((Data) encoded);
+        }
+
+        @Override
+        public int size(Object encoded) {
+            return ((Data) encoded).getBuffer().length;
+        }
+    }
+}
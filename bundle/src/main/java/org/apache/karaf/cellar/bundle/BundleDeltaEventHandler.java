@@ -0,0 +1,248 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.karaf.cellar.bundle;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.karaf.cellar.core.GroupConfiguration;
+import org.apache.karaf.cellar.core.command.CommandHandler;
+import org.apache.karaf.cellar.core.control.BasicSwitch;
+import org.apache.karaf.cellar.core.control.Switch;
+import org.apache.karaf.cellar.core.control.SwitchStatus;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.event.EventTracker;
+import org.apache.karaf.cellar.core.exception.CommandExecutionException;
+import org.apache.karaf.features.Feature;
+import org.apache.karaf.features.FeaturesService;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The BundleDeltaEventHandler applies the bundle states pushed by a node. The stopped and uninstalled bundles go down
+ * first in reverse start level order, so a bundle is stopped before the bundles it depends on. The other bundles are
+ * then installed, and started in start level order, so a bundle is started after the bundles it depends on.
+ */
+public class BundleDeltaEventHandler extends CommandHandler<ClusterBundleDeltaEvent, BundleEventResponse> {
+
+    private static final transient Logger LOGGER = LoggerFactory.getLogger(BundleDeltaEventHandler.class);
+
+    public static final String SWITCH_ID = "org.apache.karaf.cellar.bundle.delta.handler";
+
+    private static final Comparator<Map.Entry<String, BundleState>> START_LEVEL_ORDER = new Comparator<Map.Entry<String, BundleState>>() {
+        @Override
+        public int compare(Map.Entry<String, BundleState> e1, Map.Entry<String, BundleState> e2) {
+            int l1 = e1.getValue().getStartLevel();
+            int l2 = e2.getValue().getStartLevel();
+            return l1 < l2 ? -1 : (l1 == l2 ? e1.getKey().compareTo(e2.getKey()) : 1);
+        }
+    };
+
+    private final Switch eventSwitch = new BasicSwitch(SWITCH_ID);
+    private final BundleSupport bundleSupport = new BundleSupport();
+    private BundleContext bundleContext;
+    private FeaturesService featuresService;
+    private EventTracker<Event> eventTracker;
+
+    /**
+     * Handle received bundle delta cluster events.
+     *
+     * @param command the received bundle delta cluster command.
+     * @return
+     */
+    @Override
+    public BundleEventResponse execute(ClusterBundleDeltaEvent command) {
+        BundleEventResponse result = new BundleEventResponse();
+        // check if the handler switch is ON
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
+            result.setThrowable(new CommandExecutionException(MessageFormat.format("CELLAR BUNDLE: {0} switch is OFF, cluster event is not handled", SWITCH_ID)));
+            LOGGER.debug("CELLAR BUNDLE: {} switch is OFF, cluster event is not handled", SWITCH_ID);
+            result.setSuccessful(false);
+            return result;
+        }
+
+        String sourceGroupName = command.getSourceGroupName();
+        if (!groupManager.isLocalGroup(sourceGroupName)) {
+            result.setThrowable(new CommandExecutionException(MessageFormat.format("Node is not part of cluster group {0}, command will be ignored.", sourceGroupName)));
+            LOGGER.warn("Node is not part of cluster group {}, command will be ignored.", sourceGroupName);
+            result.setSuccessful(false);
+            return result;
+        }
+
+        GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(sourceGroupName);
+        List<Map.Entry<String, BundleState>> bundles = new ArrayList<Map.Entry<String, BundleState>>();
+        for (Map.Entry<String, BundleState> entry : command.getBundles().entrySet()) {
+            if (isAllowed(entry.getValue().getLocation(), groupConfig, sourceGroupName)) {
+                bundles.add(entry);
+            }
+        }
+        Collections.sort(bundles, START_LEVEL_ORDER);
+
+        result.setSuccessful(true);
+        // stop and uninstall in reverse order so the dependents go down before their providers
+        for (int i = bundles.size() - 1; i >= 0; i--) {
+            Map.Entry<String, BundleState> entry = bundles.get(i);
+            int status = entry.getValue().getStatus();
+            if (status == BundleEvent.STOPPED || status == BundleEvent.UNINSTALLED) {
+                apply(command, entry, status, result);
+            }
+        }
+        // install first so the bundles started afterwards find their dependencies
+        for (Map.Entry<String, BundleState> entry : bundles) {
+            int status = entry.getValue().getStatus();
+            if (status == BundleEvent.INSTALLED || status == BundleEvent.RESOLVED || status == BundleEvent.STARTED || status == BundleEvent.STARTING) {
+                apply(command, entry, BundleEvent.INSTALLED, result);
+            }
+        }
+        for (Map.Entry<String, BundleState> entry : bundles) {
+            int status = entry.getValue().getStatus();
+            if (status == BundleEvent.STARTED || status == BundleEvent.STARTING) {
+                apply(command, entry, BundleEvent.STARTED, result);
+            }
+        }
+        return result;
+    }
+
+    private boolean isAllowed(String location, GroupConfiguration groupConfig, String groupName) {
+        Set<String> bundleWhitelist = groupConfig.getInboundBundleWhitelist();
+        Set<String> bundleBlacklist = groupConfig.getInboundBundleBlacklist();
+        if (!bundleSupport.isAllowed(location, groupConfig, bundleWhitelist, bundleBlacklist)) {
+            LOGGER.warn("CELLAR BUNDLE: bundle {} is marked BLOCKED INBOUND in cluster group {}", location, groupName);
+            return false;
+        }
+        Set<String> featuresWhitelist = groupConfig.getInboundFeatureWhitelist();
+        Set<String> featuresBlacklist = groupConfig.getInboundFeatureBlacklist();
+        try {
+            for (Feature feature : bundleSupport.retrieveFeature(location)) {
+                if (!bundleSupport.isAllowed(feature.getName(), groupConfig, featuresWhitelist, featuresBlacklist)) {
+                    LOGGER.warn("CELLAR BUNDLE: bundle {} is contained in feature {} marked BLOCKED INBOUND for cluster group {}", new Object[]{location, feature.getName(), groupName});
+                    return false;
+                }
+            }
+        } catch (Exception ex) {
+            LOGGER.error("CELLAR BUNDLE: failed to retrieve the features of bundle {}", location, ex);
+            return false;
+        }
+        return true;
+    }
+
+    private void apply(ClusterBundleDeltaEvent command, Map.Entry<String, BundleState> entry, int type, BundleEventResponse result) {
+        String[] tokens = entry.getKey().split("/");
+        if (tokens.length != 2) {
+            LOGGER.warn("CELLAR BUNDLE: invalid bundle id {}", entry.getKey());
+            return;
+        }
+        String symbolicName = tokens[0];
+        String version = tokens[1];
+        String location = entry.getValue().getLocation();
+        // the local bundle listener must not broadcast back the change
+        ClusterBundleEvent tracked = new ClusterBundleEvent(symbolicName, version, location, type);
+        tracked.setSourceGroup(command.getSourceGroup());
+        for (Integer expected : bundleSupport.getExpectedEvents(symbolicName, version, type)) {
+            eventTracker.start(tracked, expected);
+        }
+        try {
+            if (type == BundleEvent.INSTALLED) {
+                LOGGER.debug("CELLAR BUNDLE: installing bundle {}", location);
+                bundleSupport.installBundleFromLocation(location);
+            } else if (type == BundleEvent.UNINSTALLED) {
+                LOGGER.debug("CELLAR BUNDLE: un-installing bundle {}", location);
+                bundleSupport.uninstallBundle(symbolicName, version);
+            } else if (type == BundleEvent.STARTED) {
+                LOGGER.debug("CELLAR BUNDLE: starting bundle {}", location);
+                bundleSupport.startBundle(symbolicName, version);
+            } else if (type == BundleEvent.STOPPED) {
+                LOGGER.debug("CELLAR BUNDLE: stopping bundle {}", location);
+                bundleSupport.stopBundle(symbolicName, version);
+            }
+        } catch (Exception ex) {
+            LOGGER.error("CELLAR BUNDLE: failed to apply the state of bundle {}", entry.getKey(), ex);
+            eventTracker.stop(tracked);
+            result.setThrowable(ex);
+            result.setSuccessful(false);
+        }
+    }
+
+    public void init() {
+        bundleSupport.setBundleContext(bundleContext);
+        bundleSupport.setFeaturesService(featuresService);
+    }
+
+    public void destroy() {
+        // nothing to do
+    }
+
+    /**
+     * Get the handler switch, on when the bundle cluster events are enabled.
+     *
+     * @return the handler switch.
+     */
+    @Override
+    public Switch getSwitch() {
+        // load the switch status from the config
+        boolean status = nodeConfiguration.getEnabledEvents().contains(ClusterBundleEvent.class.getName());
+        if (status) {
+            eventSwitch.turnOn();
+        } else {
+            eventSwitch.turnOff();
+        }
+        return eventSwitch;
+    }
+
+    /**
+     * Get the cluster event type.
+     *
+     * @return the cluster bundle delta event type.
+     */
+    @Override
+    public Class<ClusterBundleDeltaEvent> getType() {
+        return ClusterBundleDeltaEvent.class;
+    }
+
+    public BundleContext getBundleContext() {
+        return this.bundleContext;
+    }
+
+    public void setBundleContext(BundleContext bundleContext) {
+        this.bundleContext = bundleContext;
+    }
+
+    public FeaturesService getFeaturesService() {
+        return featuresService;
+    }
+
+    public void setFeaturesService(FeaturesService featureService) {
+        this.featuresService = featureService;
+    }
+
+    /**
+     * @return the eventTracker
+     */
+    public EventTracker<Event> getEventTracker() {
+        return eventTracker;
+    }
+
+    /**
+     * @param eventTracker the eventTracker to set
+     */
+    public void setEventTracker(EventTracker<Event> eventTracker) {
+        this.eventTracker = eventTracker;
+    }
+}
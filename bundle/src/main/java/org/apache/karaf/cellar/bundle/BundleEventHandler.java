@@ -26,6 +26,8 @@ import org.apache.karaf.cellar.core.command.CommandHandler;
 import org.apache.karaf.cellar.core.control.BasicSwitch;
 import org.apache.karaf.cellar.core.control.Switch;
 import org.apache.karaf.cellar.core.control.SwitchStatus;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.event.EventTracker;
 import org.apache.karaf.cellar.core.exception.CommandExecutionException;
 import org.apache.karaf.features.FeaturesService;
 import org.osgi.framework.BundleContext;
@@ -43,6 +45,7 @@ public class BundleEventHandler extends CommandHandler<ClusterBundleEvent, Bundl
     private final BundleSupport bundleSupport = new BundleSupport();
     private BundleContext bundleContext;
     private FeaturesService featuresService;
+    private EventTracker<Event> eventTracker;
 
     /**
      * Handle received bundle cluster events.
@@ -54,14 +57,14 @@ public class BundleEventHandler extends CommandHandler<ClusterBundleEvent, Bundl
     public BundleEventResponse execute(ClusterBundleEvent command) {
         BundleEventResponse result = new BundleEventResponse();
         // check if the handler switch is ON
-        if (this.getSwitch().getStatus().equals(SwitchStatus.OFF)) {
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
             result.setThrowable(new CommandExecutionException(MessageFormat.format("CELLAR BUNDLE: {0} switch is OFF, cluster event is not handled", SWITCH_ID)));
             LOGGER.debug("CELLAR BUNDLE: {} switch is OFF, cluster event is not handled", SWITCH_ID);
             result.setSuccessful(false);
             return result;
         }
 
-        String sourceGroupName = command.getSourceGroup().getName();
+        String sourceGroupName = command.getSourceGroupName();
         // check if the node is local
         if (!groupManager.isLocalGroup(sourceGroupName)) {
             result.setThrowable(new CommandExecutionException(MessageFormat.format("Node is not part of thiscluster group {}, commend will be ignored.", sourceGroupName)));
@@ -77,13 +80,13 @@ public class BundleEventHandler extends CommandHandler<ClusterBundleEvent, Bundl
             Set<String> bundleWhitelist = groupConfig.getInboundBundleWhitelist();
             Set<String> bundleBlacklist = groupConfig.getInboundBundleBlacklist();
 
-            if (bundleSupport.isAllowed(location, bundleWhitelist, bundleBlacklist)) {
+            if (bundleSupport.isAllowed(location, groupConfig, bundleWhitelist, bundleBlacklist)) {
                 // check the features first
                 Set<String> featuresWhitelist = groupConfig.getInboundFeatureWhitelist();
                 Set<String> featuresBlacklist = groupConfig.getInboundFeatureBlacklist();
                 List<Feature> matchingFeatures = bundleSupport.retrieveFeature(location);
                 for (Feature feature : matchingFeatures) {
-                    if (!bundleSupport.isAllowed(feature.getName(), featuresWhitelist, featuresBlacklist)) {
+                    if (!bundleSupport.isAllowed(feature.getName(), groupConfig, featuresWhitelist, featuresBlacklist)) {
                         LOGGER.warn("CELLAR BUNDLE: bundle {} is contained in feature {} marked BLOCKED INBOUND for cluster group {}", location, symbolicName, sourceGroupName);
                         result.setSuccessful(false);
                         result.setThrowable(new IllegalStateException("CELLAR BUNDLE: bundle " + location + " is contained in feature " + symbolicName + " marked BLOCKED INBOUND for cluster group " + sourceGroupName));
@@ -92,6 +95,10 @@ public class BundleEventHandler extends CommandHandler<ClusterBundleEvent, Bundl
                 }
                 final int type = command.getType();
                 final String version = command.getVersion();
+                // the local bundle listener must not broadcast back the change
+                for (Integer expected : bundleSupport.getExpectedEvents(symbolicName, version, type)) {
+                    eventTracker.start(command, expected);
+                }
                 if (type == BundleEvent.INSTALLED) {
                     LOGGER.debug("CELLAR BUNDLE: installing bundle {}", command);
                     bundleSupport.installBundleFromLocation(location);
@@ -115,6 +122,7 @@ public class BundleEventHandler extends CommandHandler<ClusterBundleEvent, Bundl
             }
         } catch (Exception ex) {
             LOGGER.error("CELLAR BUNDLE: failed to handle bundle event", ex);
+            eventTracker.stop(command);
             result.setThrowable(ex);
             result.setSuccessful(false);
         }
@@ -172,4 +180,18 @@ public class BundleEventHandler extends CommandHandler<ClusterBundleEvent, Bundl
     public void setFeaturesService(FeaturesService featureService) {
         this.featuresService = featureService;
     }
+
+    /**
+     * @return the eventTracker
+     */
+    public EventTracker<Event> getEventTracker() {
+        return eventTracker;
+    }
+
+    /**
+     * @param eventTracker the eventTracker to set
+     */
+    public void setEventTracker(EventTracker<Event> eventTracker) {
+        this.eventTracker = eventTracker;
+    }
 }
@@ -23,6 +23,8 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class BundleEventResponse extends Result {
 
+    private static final long serialVersionUID = -3216684901714763954L;
+
     public BundleEventResponse() {
     }
 
@@ -13,19 +13,25 @@
  */
 package org.apache.karaf.cellar.bundle;
 
-import java.io.Serializable;
+import java.io.IOException;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
 
 /**
  * Serializable wrapper to store and transport bundle state.
  */
-public class BundleState implements Serializable {
+public class BundleState implements CellarSerializable {
 
     private static final long serialVersionUID = 5933673686648413918L;
 
+    private static final int FIELDS_VERSION = 2;
+
     private String name;
     private String location;
     private int status;
     private byte[] data;
+    private int startLevel;
 
     public String getName() {
         return name;
@@ -59,4 +65,75 @@ public class BundleState implements Serializable {
         this.data = data.clone();
     }
 
+    /**
+     * @return the start level of the bundle, 0 if unknown.
+     */
+    public int getStartLevel() {
+        return startLevel;
+    }
+
+    /**
+     * @param startLevel the startLevel to set
+     */
+    public void setStartLevel(int startLevel) {
+        this.startLevel = startLevel;
+    }
+
+    /**
+     * Bundle states are equal when they have the same location and status, the fields compared by the sync.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        BundleState state = (BundleState) o;
+
+        if (status != state.status) return false;
+        if (location != null ? !location.equals(state.location) : state.location != null) return false;
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = location != null ? location.hashCode() : 0;
+        result = 31 * result + status;
+        return result;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeString(name);
+        out.writeString(location);
+        out.writeInt(status);
+        if (data == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+        out.writeInt(startLevel);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        int version = in.startFields();
+        name = in.readString();
+        location = in.readString();
+        status = in.readInt();
+        int length = in.readInt();
+        if (length < 0) {
+            data = null;
+        } else {
+            data = new byte[length];
+            in.readFully(data);
+        }
+        if (version >= 2) {
+            startLevel = in.readInt();
+        }
+        in.endFields();
+    }
 }
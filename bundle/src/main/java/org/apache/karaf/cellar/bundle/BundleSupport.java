@@ -19,7 +19,9 @@ import org.apache.karaf.features.Feature;
 import org.apache.karaf.features.FeaturesService;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleException;
+import org.osgi.framework.startlevel.BundleStartLevel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -117,6 +119,63 @@ public class BundleSupport extends CellarSupport {
         }
     }
 
+    /**
+     * Get the local bundle events, other than the transitional ones, caused by applying a bundle change. Uninstalling
+     * or updating an active bundle stops it first, and an updated bundle is started again.
+     *
+     * @param symbolicName the bundle symbolic name.
+     * @param version the bundle version.
+     * @param type the bundle event type applied.
+     * @return the expected local bundle event types.
+     */
+    public List<Integer> getExpectedEvents(String symbolicName, String version, int type) {
+        List<Integer> events = new ArrayList<Integer>(3);
+        if ((type == BundleEvent.UNINSTALLED || type == BundleEvent.UPDATED) && isActive(symbolicName, version)) {
+            events.add(BundleEvent.STOPPED);
+            events.add(type);
+            if (type == BundleEvent.UPDATED) {
+                events.add(BundleEvent.STARTED);
+            }
+        } else {
+            events.add(type);
+        }
+        return events;
+    }
+
+    /**
+     * Check if a bundle event is a transitional step of a bundle change, such as a bundle starting or being resolved.
+     *
+     * @param type the bundle event type.
+     * @return true if the event is transitional, false else.
+     */
+    public static boolean isTransitional(int type) {
+        return type == BundleEvent.RESOLVED || type == BundleEvent.UNRESOLVED || type == BundleEvent.STARTING
+                || type == BundleEvent.STOPPING || type == BundleEvent.LAZY_ACTIVATION;
+    }
+
+    private boolean isActive(String symbolicName, String version) {
+        Bundle[] bundles = getBundleContext().getBundles();
+        if (bundles != null) {
+            for (Bundle bundle : bundles) {
+                if (bundle.getSymbolicName().equals(symbolicName) && bundle.getVersion().toString().equals(version)) {
+                    return bundle.getState() == Bundle.ACTIVE;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the start level of a bundle.
+     *
+     * @param bundle the bundle.
+     * @return the bundle start level, 0 if it isn't available.
+     */
+    protected int getStartLevel(Bundle bundle) {
+        BundleStartLevel bundleStartLevel = bundle.adapt(BundleStartLevel.class);
+        return bundleStartLevel != null ? bundleStartLevel.getStartLevel() : 0;
+    }
+
     /**
      * Get the list of features where the bundle is belonging.
      *
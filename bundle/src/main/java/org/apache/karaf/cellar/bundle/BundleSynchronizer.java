@@ -15,6 +15,7 @@ package org.apache.karaf.cellar.bundle;
 
 import org.apache.karaf.cellar.core.Configurations;
 import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.StateDigest;
 import org.apache.karaf.cellar.core.Synchronizer;
 import org.apache.karaf.cellar.core.control.SwitchStatus;
 import org.apache.karaf.cellar.core.CellarCluster;
@@ -27,6 +28,8 @@ import org.osgi.framework.BundleException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
@@ -62,7 +65,8 @@ public class BundleSynchronizer extends BundleSupport implements Synchronizer {
     }
 
     /**
-     * Pull the bundles states from a cluster group.
+     * Pull the bundles states from a cluster group. Only the bundles whose digest bucket differs from the local states
+     * are read from the cluster group.
      *
      * @param group the cluster group where to get the bundles states.
      */
@@ -71,21 +75,27 @@ public class BundleSynchronizer extends BundleSupport implements Synchronizer {
         if (group != null) {
             String groupName = group.getName();
             LOGGER.debug("CELLAR BUNDLE: pulling bundles from cluster group {}", groupName);
-            Map<String, BundleState> clusterBundles = masterCluster.getMap(Constants.BUNDLE_MAP + Configurations.SEPARATOR + groupName);
+            String mapName = Constants.BUNDLE_MAP + Configurations.SEPARATOR + groupName;
+            GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
+            BitSet buckets = diff(mapName, getLocalStates(groupConfig, groupName));
+            if (buckets.isEmpty()) {
+                LOGGER.debug("CELLAR BUNDLE: bundles are in sync with cluster group {}", groupName);
+                return;
+            }
+            Map<String, BundleState> clusterBundles = masterCluster.getEntries(mapName, buckets);
+            Set<String> whitelist = groupConfig.getInboundBundleWhitelist();
+            Set<String> blacklist = groupConfig.getInboundBundleBlacklist();
 
             for (Map.Entry<String, BundleState> entry : clusterBundles.entrySet()) {
                 String id = entry.getKey();
                 BundleState state = entry.getValue();
 
                 String[] tokens = id.split("/");
-                String symbolicName = tokens[0];
-                String version = tokens[1];
-                if (tokens != null && tokens.length == 2) {
+                if (tokens.length == 2) {
+                    String symbolicName = tokens[0];
+                    String version = tokens[1];
                     if (state != null) {
-                        GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
-                        Set<String> whitelist = groupConfig.getInboundBundleWhitelist();
-                        Set<String> blacklist = groupConfig.getInboundBundleBlacklist();
-                        if (this.isAllowed(symbolicName, whitelist, blacklist)) {
+                        if (this.isAllowed(symbolicName, groupConfig, whitelist, blacklist)) {
                             try {
                                 if (state.getStatus() == BundleEvent.INSTALLED) {
                                     this.installBundleFromLocation(state.getLocation());
@@ -106,7 +116,8 @@ public class BundleSynchronizer extends BundleSupport implements Synchronizer {
     }
 
     /**
-     * Push local bundles states to a cluster group.
+     * Push local bundles states to a cluster group. The changes are computed in one pass against the cluster states of
+     * the digest buckets which differ, written with a single putAll and broadcast as one delta command.
      *
      */
     @Override
@@ -119,65 +130,114 @@ public class BundleSynchronizer extends BundleSupport implements Synchronizer {
         if (group != null) {
             String groupName = group.getName();
             LOGGER.debug("CELLAR BUNDLE: pushing bundles to cluster group {}", groupName);
-            Map<String, BundleState> clusterBundles = masterCluster.getMap(Constants.BUNDLE_MAP + Configurations.SEPARATOR + groupName);
-
-            Bundle[] bundles = this.bundleContext.getBundles();
-            for (Bundle bundle : bundles) {
-                String symbolicName = bundle.getSymbolicName();
-                String version = bundle.getVersion().toString();
-                String bundleLocation = bundle.getLocation();
-                int status = bundle.getState();
-                String id = symbolicName + "/" + version;
-
-                // check if the pid is marked as local.
-                GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(group.getName());
-                Set<String> whitelist = groupConfig.getOutboundBundleWhitelist();
-                Set<String> blacklist = groupConfig.getOutboundBundleBlacklist();
-                if (this.isAllowed(bundleLocation, whitelist, blacklist)) {
-                    BundleState bundleState = new BundleState();
-                    // get the bundle name or location.
-                    String name = (String) bundle.getHeaders().get(org.osgi.framework.Constants.BUNDLE_NAME);
-                    // if there is no name, then default to symbolic name.
-                    name = (name == null) ? bundle.getSymbolicName() : name;
-                    // if there is no symbolic name, resort to location.
-                    name = (name == null) ? bundle.getLocation() : name;
-                    bundleState.setName(name);
-                    bundleState.setLocation(bundleLocation);
-
-                    if (status == Bundle.ACTIVE) {
-                        status = BundleEvent.STARTED;
-                    } else if (status == Bundle.INSTALLED) {
-                        status = BundleEvent.INSTALLED;
-                    } else if (status == Bundle.RESOLVED) {
-                        status = BundleEvent.RESOLVED;
-                    } else if (status == Bundle.STARTING) {
-                        status = BundleEvent.STARTING;
-                    } else if (status == Bundle.UNINSTALLED) {
-                        status = BundleEvent.UNINSTALLED;
-                    } else if (status == Bundle.STOPPING) {
-                        status = BundleEvent.STARTED;
-                    }
+            String mapName = Constants.BUNDLE_MAP + Configurations.SEPARATOR + groupName;
+            GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
+            Map<String, BundleState> localStates = getLocalStates(groupConfig, groupName);
+            BitSet buckets = diff(mapName, localStates);
+            if (buckets.isEmpty()) {
+                LOGGER.debug("CELLAR BUNDLE: bundles are in sync with cluster group {}", groupName);
+                return;
+            }
+            Map<String, BundleState> existingStates = masterCluster.getEntries(mapName, buckets);
 
-                    bundleState.setStatus(status);
+            Map<String, BundleState> delta = new LinkedHashMap<String, BundleState>();
+            for (Map.Entry<String, BundleState> entry : localStates.entrySet()) {
+                String id = entry.getKey();
+                if (!buckets.get(StateDigest.bucketOf(id))) {
+                    continue;
+                }
+                BundleState bundleState = entry.getValue();
+                BundleState existingState = existingStates.get(id);
 
-                    BundleState existingState = clusterBundles.get(id);
+                if (existingState == null || !existingState.getLocation().equals(bundleState.getLocation())
+                        || existingState.getStatus() != bundleState.getStatus()) {
+                    delta.put(id, bundleState);
+                }
+            }
 
-                    if (existingState == null || !existingState.getLocation().equals(bundleState.getLocation())
-                            || existingState.getStatus() != bundleState.getStatus()) {
-                        // update the distributed map
-                        clusterBundles.put(id, bundleState);
+            if (!delta.isEmpty()) {
+                LOGGER.debug("CELLAR BUNDLE: pushing {} bundle changes to cluster group {}", delta.size(), groupName);
+                // update the distributed map
+                Map<String, BundleState> clusterBundles = masterCluster.getMap(mapName);
+                clusterBundles.putAll(delta);
 
-                        // broadcast the event
-                        ClusterBundleEvent event = new ClusterBundleEvent(symbolicName, version, bundleLocation, status);
-                        event.setSourceGroup(group);
-                        executionContext.executeAndWait(event, group.getNodesExcluding(this.groupManager.getNode()));
-                    }
+                // broadcast the changes
+                ClusterBundleDeltaEvent event = new ClusterBundleDeltaEvent(groupName + "/" + groupManager.getNode().getId(), delta);
+                event.setSourceGroup(group);
+                executionContext.executeAndWait(event, group.getNodesExcluding(this.groupManager.getNode()));
+            }
+        }
+    }
 
-                } else {
-                    LOGGER.warn("CELLAR BUNDLE: bundle {} is marked BLOCKED OUTBOUND for cluster group {}", bundleLocation, groupName);
+    /**
+     * Compare the digest of the local bundles states with the digest of the cluster group bundles states.
+     *
+     * @param mapName the cluster group bundles map name.
+     * @param localStates the local bundles states.
+     * @return the digest buckets which differ.
+     */
+    private BitSet diff(String mapName, Map<String, BundleState> localStates) {
+        StateDigest digest = new StateDigest();
+        for (Map.Entry<String, BundleState> entry : localStates.entrySet()) {
+            digest.add(entry.getKey(), entry.getValue());
+        }
+        return digest.diff(masterCluster.getDigest(mapName));
+    }
+
+    /**
+     * Get the states of the local bundles allowed outbound for a cluster group.
+     *
+     * @param groupConfig the cluster group configuration.
+     * @param groupName the cluster group name.
+     * @return the bundles states by symbolic name/version.
+     */
+    private Map<String, BundleState> getLocalStates(GroupConfiguration groupConfig, String groupName) {
+        // check if the pid is marked as local.
+        Set<String> whitelist = groupConfig.getOutboundBundleWhitelist();
+        Set<String> blacklist = groupConfig.getOutboundBundleBlacklist();
+
+        Map<String, BundleState> localStates = new LinkedHashMap<String, BundleState>();
+        Bundle[] bundles = this.bundleContext.getBundles();
+        for (Bundle bundle : bundles) {
+            String symbolicName = bundle.getSymbolicName();
+            String version = bundle.getVersion().toString();
+            String bundleLocation = bundle.getLocation();
+            int status = bundle.getState();
+            String id = symbolicName + "/" + version;
+
+            if (this.isAllowed(bundleLocation, groupConfig, whitelist, blacklist)) {
+                BundleState bundleState = new BundleState();
+                // get the bundle name or location.
+                String name = (String) bundle.getHeaders().get(org.osgi.framework.Constants.BUNDLE_NAME);
+                // if there is no name, then default to symbolic name.
+                name = (name == null) ? bundle.getSymbolicName() : name;
+                // if there is no symbolic name, resort to location.
+                name = (name == null) ? bundle.getLocation() : name;
+                bundleState.setName(name);
+                bundleState.setLocation(bundleLocation);
+                bundleState.setStartLevel(getStartLevel(bundle));
+
+                if (status == Bundle.ACTIVE) {
+                    status = BundleEvent.STARTED;
+                } else if (status == Bundle.INSTALLED) {
+                    status = BundleEvent.INSTALLED;
+                } else if (status == Bundle.RESOLVED) {
+                    status = BundleEvent.RESOLVED;
+                } else if (status == Bundle.STARTING) {
+                    status = BundleEvent.STARTING;
+                } else if (status == Bundle.UNINSTALLED) {
+                    status = BundleEvent.UNINSTALLED;
+                } else if (status == Bundle.STOPPING) {
+                    status = BundleEvent.STARTED;
                 }
+
+                bundleState.setStatus(status);
+                localStates.put(id, bundleState);
+            } else {
+                LOGGER.debug("CELLAR BUNDLE: bundle {} is marked BLOCKED OUTBOUND for cluster group {}", bundleLocation, groupName);
             }
         }
+        return localStates;
     }
 
     /**
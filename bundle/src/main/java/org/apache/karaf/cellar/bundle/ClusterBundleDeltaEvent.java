@@ -0,0 +1,123 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *        http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.apache.karaf.cellar.bundle;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.DeliveryPolicy;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+
+/**
+ * The ClusterBundleDeltaEvent carries all the bundle states a node changed in a cluster group while pushing its
+ * bundles, so the other nodes apply them with a single command. As a node installs and starts every bundle of the delta
+ * before answering, the timeout grows with the number of bundles.
+ */
+public class ClusterBundleDeltaEvent extends Command<BundleEventResponse> {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    /**
+     * Time allowed to apply a single bundle state, in milliseconds.
+     */
+    public static final long TIMEOUT_PER_BUNDLE = 2000;
+    /**
+     * Maximum timeout of a delta, in milliseconds.
+     */
+    public static final long MAX_TIMEOUT = 300000;
+    /**
+     * A delta is retried a couple of times only, with backoffs long enough for a node to finish applying a previous
+     * delta, the next bundle sync brings a node which missed it up to date anyway.
+     */
+    private static final DeliveryPolicy DELIVERY_POLICY = new DeliveryPolicy(2, 5000, 30000);
+
+    private Map<String, BundleState> bundles = new LinkedHashMap<String, BundleState>();
+
+    public ClusterBundleDeltaEvent() {
+    }
+
+    /**
+     * @param id the event id.
+     * @param bundles the changed bundle states by symbolic name/version.
+     */
+    public ClusterBundleDeltaEvent(String id, Map<String, BundleState> bundles) {
+        super(id);
+        this.bundles = new LinkedHashMap<String, BundleState>(bundles);
+        this.timeout = getTimeout(this.bundles.size());
+    }
+
+    /**
+     * Get the timeout of a delta: the default command timeout plus the time to apply each bundle state.
+     *
+     * @param size the number of bundle states in the delta.
+     * @return the timeout in milliseconds.
+     */
+    public static long getTimeout(int size) {
+        return Math.min(MAX_TIMEOUT, DEFAULT_TIMEOUT + size * TIMEOUT_PER_BUNDLE);
+    }
+
+    /**
+     * @return the changed bundle states by symbolic name/version.
+     */
+    public Map<String, BundleState> getBundles() {
+        return bundles;
+    }
+
+    /**
+     * @param bundles the bundles to set
+     */
+    public void setBundles(Map<String, BundleState> bundles) {
+        this.bundles = bundles;
+    }
+
+    @Override
+    public DeliveryPolicy getDeliveryPolicy() {
+        return DELIVERY_POLICY;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "\nClusterBundleDeltaEvent{" + "bundles=" + bundles.keySet() + '}';
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeInt(bundles.size());
+        for (Map.Entry<String, BundleState> entry : bundles.entrySet()) {
+            out.writeString(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        int size = in.readInt();
+        bundles = new LinkedHashMap<String, BundleState>(Math.max(16, (int) (size / .75f) + 1));
+        for (int i = 0; i < size; i++) {
+            String id = in.readString();
+            BundleState state = in.readObject();
+            bundles.put(id, state);
+        }
+        in.endFields();
+    }
+}
@@ -13,13 +13,20 @@
  */
 package org.apache.karaf.cellar.bundle;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
 
 /**
  * The ClusterBundleEvent represents a cluster event for bundles.
  */
 public class ClusterBundleEvent extends Command<BundleEventResponse> {
 
+    private static final long serialVersionUID = -6761235738726501317L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private String symbolicName;
     private String version;
     private String location;
@@ -72,4 +79,26 @@ public class ClusterBundleEvent extends Command<BundleEventResponse> {
     public String toString() {
         return super.toString() + "\nClusterBundleEvent{" + "symbolicName=" + symbolicName + ", version=" + version + ", location=" + location + ", type=" + type + '}';
     }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(symbolicName);
+        out.writeString(version);
+        out.writeString(location);
+        out.writeInt(type);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        symbolicName = in.readString();
+        version = in.readString();
+        location = in.readString();
+        type = in.readInt();
+        in.endFields();
+    }
 }
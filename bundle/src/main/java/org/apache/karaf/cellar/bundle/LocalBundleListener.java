@@ -29,6 +29,8 @@ import org.apache.karaf.cellar.core.GroupConfiguration;
 import org.apache.karaf.cellar.core.GroupManager;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
 import org.apache.karaf.cellar.core.control.SwitchStatus;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.event.EventTracker;
 
 /**
  * LocalBundleListener is listening for local bundles changes. When a local bundle change occurs, this listener updates
@@ -40,6 +42,7 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
     private GroupManager groupManager;
     private CellarCluster masterCluster;
     private DistributedExecutionContext executionContext;
+    private EventTracker<Event> eventTracker;
 
     /**
      * Callback method called when a local bundle status change.
@@ -84,10 +87,14 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
                     String version = event.getBundle().getVersion().toString();
                     String bundleLocation = event.getBundle().getLocation();
                     int type = event.getType();
+                    if (isEcho(symbolicName + "/" + version, group.getName(), type)) {
+                        LOGGER.debug("CELLAR BUNDLE: bundle {} has been changed by a cluster event from cluster group {}, not broadcast back", bundleLocation, group.getName());
+                        continue;
+                    }
                     GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(group.getName());
                     Set<String> whitelist = groupConfig.getOutboundBundleWhitelist();
                     Set<String> blacklist = groupConfig.getOutboundBundleBlacklist();
-                    if (isAllowed(bundleLocation, whitelist, blacklist)) {
+                    if (isAllowed(bundleLocation, groupConfig, whitelist, blacklist)) {
                         try {
                             // update bundles in the cluster group
                             Map<String, BundleState> clusterBundles = masterCluster.getMap(Constants.BUNDLE_MAP + Configurations.SEPARATOR + group.getName());
@@ -101,6 +108,7 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
                                 state.setName(name);
                                 state.setStatus(type);
                                 state.setLocation(bundleLocation);
+                                state.setStartLevel(getStartLevel(event.getBundle()));
                                 clusterBundles.put(symbolicName + "/" + version, state);
                             }
 
@@ -109,7 +117,7 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
                             Set<String> featuresWhitelist = groupConfig.getOutboundFeatureWhitelist();
                             Set<String> featuresBlacklist = groupConfig.getOutboundFeatureBlacklist();
                             for (Feature feature : matchingFeatures) {
-                                if (!isAllowed(feature.getName(), featuresWhitelist, featuresBlacklist)) {
+                                if (!isAllowed(feature.getName(), groupConfig, featuresWhitelist, featuresBlacklist)) {
                                     LOGGER.debug("CELLAR BUNDLE: bundle {} is contained in feature {} marked BLOCKED OUTBOUND for cluster group {}", bundleLocation, feature.getName(), group.getName());
                                     return;
                                 }
@@ -118,7 +126,7 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
                             // broadcast the cluster event
                             ClusterBundleEvent bundleEventTask = new ClusterBundleEvent(symbolicName, version, bundleLocation, type);
                             bundleEventTask.setSourceGroup(group);
-                            executionContext.executeAndWait(bundleEventTask, group.getNodesExcluding(groupManager.getNode()));
+                            executionContext.executeBatched(bundleEventTask, group.getNodesExcluding(groupManager.getNode()));
                         } catch (Exception e) {
                             LOGGER.error("CELLAR BUNDLE: failed to create bundle event", e);
                         }
@@ -131,6 +139,20 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
         }
     }
 
+    /**
+     * Check if a local bundle event is caused by a cluster event. The transitional events are echoes while the
+     * cluster event is pending, the other events only if the cluster event is expected to cause them.
+     */
+    private boolean isEcho(String id, String groupName, int type) {
+        if (eventTracker == null) {
+            return false;
+        }
+        if (isTransitional(type)) {
+            return eventTracker.isPending(id, groupName);
+        }
+        return eventTracker.isEcho(id, groupName, type);
+    }
+
     public void init() {
         bundleContext.addBundleListener(this);
     }
@@ -180,4 +202,18 @@ public class LocalBundleListener extends BundleSupport implements SynchronousBun
     public void setExecutionContext(DistributedExecutionContext executionContext) {
         this.executionContext = executionContext;
     }
+
+    /**
+     * @return the eventTracker
+     */
+    public EventTracker<Event> getEventTracker() {
+        return eventTracker;
+    }
+
+    /**
+     * @param eventTracker the eventTracker to set
+     */
+    public void setEventTracker(EventTracker<Event> eventTracker) {
+        this.eventTracker = eventTracker;
+    }
 }
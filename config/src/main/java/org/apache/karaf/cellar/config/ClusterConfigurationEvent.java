@@ -25,14 +25,22 @@
  */
 package org.apache.karaf.cellar.config;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.config.shell.ConfigurationAction;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Cluster configuration event.
  */
 public class ClusterConfigurationEvent extends Command<ConfigurationTaskResult> {
 
+    private static final long serialVersionUID = -9146012166251537305L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private ConfigurationAction type;
     private String propertyName;
     private Object propertyValue;
@@ -55,7 +63,7 @@ public class ClusterConfigurationEvent extends Command<ConfigurationTaskResult>
     @Override
     public String toString() {
         return "ClusterConfigurationEvent [type=" + type + ", id=" + id
-                + ", sourceNode=" + sourceNode + ", sourceGroup=" + sourceGroup
+                + ", sourceNode=" + sourceNode + ", sourceGroup=" + getSourceGroupName()
                 + ", destination=" + destination + ", force=" + force
                 + ", postPublish=" + postPublish + "]";
     }
@@ -88,4 +96,23 @@ public class ClusterConfigurationEvent extends Command<ConfigurationTaskResult>
         this.propertyValue = propertyValue;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeEnum(out, type);
+        out.writeString(propertyName);
+        out.writeObject(propertyValue);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        type = SerializationSupport.readEnum(in, ConfigurationAction.class);
+        propertyName = in.readString();
+        propertyValue = in.readObject();
+        in.endFields();
+    }
 }
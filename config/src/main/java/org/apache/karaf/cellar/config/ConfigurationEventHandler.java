@@ -20,6 +20,8 @@ import org.apache.karaf.cellar.core.Configurations;
 import org.apache.karaf.cellar.core.control.BasicSwitch;
 import org.apache.karaf.cellar.core.control.Switch;
 import org.apache.karaf.cellar.core.control.SwitchStatus;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.event.EventTracker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,7 +30,6 @@ import java.util.HashSet;
 import java.util.Properties;
 import java.util.Set;
 import org.apache.karaf.cellar.config.shell.ConfigurationAction;
-import org.apache.karaf.cellar.core.Group;
 import org.apache.karaf.cellar.core.GroupConfiguration;
 import org.apache.karaf.cellar.core.command.CommandHandler;
 import org.apache.karaf.cellar.core.exception.CommandExecutionException;
@@ -47,6 +48,7 @@ public class ConfigurationEventHandler extends CommandHandler<ClusterConfigurati
     private final Switch eventSwitch = new BasicSwitch(SWITCH_ID);
     private ConfigurationSupport configurationSupport;
     private ConfigurationAdmin configAdmin;
+    private EventTracker<Event> eventTracker;
 
     @Override
     public ConfigurationTaskResult execute(ClusterConfigurationEvent command) {
@@ -54,13 +56,12 @@ public class ConfigurationEventHandler extends CommandHandler<ClusterConfigurati
         ConfigurationTaskResult result = new ConfigurationTaskResult(command.getId());
 
         // check if the handler is ON
-        if (this.getSwitch().getStatus().equals(SwitchStatus.OFF)) {
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
             LOGGER.debug("CELLAR CONFIG: {} switch is OFF, cluster event not handled", SWITCH_ID);
             return result;
         }
 
-        Group group = command.getSourceGroup();
-        String sourceGroupName = group.getName();
+        String sourceGroupName = command.getSourceGroupName();
         String pid = command.getId();
 
         // check if the node is local
@@ -75,11 +76,14 @@ public class ConfigurationEventHandler extends CommandHandler<ClusterConfigurati
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(sourceGroupName);
             Set<String> configWhitelist = groupConfig.getInboundConfigurationWhitelist();
             Set<String> configBlacklist = groupConfig.getInboundConfigurationBlacklist();
-            if (configurationSupport.isAllowed(pid, configWhitelist, configBlacklist)) {
+            if (configurationSupport.isAllowed(pid, groupConfig, configWhitelist, configBlacklist)) {
+                // the local configuration listener must not broadcast back the changes, recognized by the properties
+                // they result in
                 ConfigurationAction commandType = command.getType();
                 if (ConfigurationAction.DELETE.equals(commandType)) {
                     Configuration[] localConfigurations = configAdmin.listConfigurations("(service.pid=" + pid + ")");
                     if (localConfigurations != null && localConfigurations.length > 0) {
+                        eventTracker.start(command, null);
                         localConfigurations[0].delete();
                     }
                 } else {
@@ -111,14 +115,17 @@ public class ConfigurationEventHandler extends CommandHandler<ClusterConfigurati
                     } else if (ConfigurationAction.PROP_SET.equals(commandType)) {
                         localDictionary.put(key, value);
                     } else if (ConfigurationAction.SYNC.equals(commandType)) {
-                        IMap<String, Properties> clusterConfigurations = (IMap<String, Properties>) clusterManager.getMap(Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + group.getName());
+                        IMap<String, Properties> clusterConfigurations = (IMap<String, Properties>) clusterManager.getMap(Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + sourceGroupName);
                         Properties clusterProperties = clusterConfigurations.get(pid);
-                        conf.update(configurationSupport.propertiesToDictionary(clusterProperties));
+                        Dictionary clusterDictionary = configurationSupport.propertiesToDictionary(clusterProperties);
+                        eventTracker.start(command, configurationSupport.digest(clusterDictionary));
+                        conf.update(clusterDictionary);
                     } else {
                         LOGGER.debug("CELLAR CONFIG: configuration PID {} is marked BLOCKED INBOUND for cluster group {}", pid, sourceGroupName);
                         result.setSuccessful(false);
                         result.setThrowable(new IllegalStateException("CELLAR CONFIG: Unrecognized configuration event type: " + commandType));
                     }
+                    eventTracker.start(command, configurationSupport.digest(localDictionary));
                     conf.update((Dictionary) localDictionary);
                 }
             } else {
@@ -128,6 +135,7 @@ public class ConfigurationEventHandler extends CommandHandler<ClusterConfigurati
             }
         } catch (Exception ex) {
             LOGGER.error("CELLAR CONFIG: failed to execute cluster configuration command event", ex);
+            eventTracker.stop(command);
             result.setThrowable(ex);
             result.setSuccessful(false);
         }
@@ -196,4 +204,18 @@ public class ConfigurationEventHandler extends CommandHandler<ClusterConfigurati
     public void setConfigurationSupport(ConfigurationSupport configurationSupport) {
         this.configurationSupport = configurationSupport;
     }
+
+    /**
+     * @return the eventTracker
+     */
+    public EventTracker<Event> getEventTracker() {
+        return eventTracker;
+    }
+
+    /**
+     * @param eventTracker the eventTracker to set
+     */
+    public void setEventTracker(EventTracker<Event> eventTracker) {
+        this.eventTracker = eventTracker;
+    }
 }
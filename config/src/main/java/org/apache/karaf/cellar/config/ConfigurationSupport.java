@@ -22,6 +22,7 @@ import java.net.URI;
 import java.net.URL;
 import java.util.*;
 import org.apache.karaf.cellar.core.CellarSupport;
+import org.apache.karaf.cellar.core.StateDigest;
 import org.osgi.framework.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -139,6 +140,26 @@ public class ConfigurationSupport extends CellarSupport {
         }
         return result;
     }
+    /**
+     * Get the digest of the properties of a configuration, excluding the default excluded properties.
+     *
+     * @param dictionary the configuration properties, null if the configuration is deleted.
+     * @return the digest of the properties, null if the configuration is deleted.
+     */
+    public StateDigest digest(Dictionary dictionary) {
+        if (dictionary == null) {
+            return null;
+        }
+        Dictionary filtered = filter(dictionary);
+        StateDigest digest = new StateDigest();
+        Enumeration keys = filtered.keys();
+        while (keys.hasMoreElements()) {
+            Object key = keys.nextElement();
+            digest.add(key, filtered.get(key));
+        }
+        return digest;
+    }
+
     /**
      * Check if a property is in the default excluded list.
      *
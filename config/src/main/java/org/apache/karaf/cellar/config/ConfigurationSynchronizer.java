@@ -23,7 +23,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.Dictionary;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -32,6 +34,7 @@ import org.apache.karaf.cellar.core.ClusterManager;
 import org.apache.karaf.cellar.core.GroupConfiguration;
 import org.apache.karaf.cellar.core.GroupManager;
 import org.apache.karaf.cellar.core.NodeConfiguration;
+import org.apache.karaf.cellar.core.StateDigest;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
 import org.osgi.service.cm.ConfigurationAdmin;
 
@@ -68,7 +71,8 @@ public class ConfigurationSynchronizer extends ConfigurationSupport implements S
     }
 
     /**
-     * Pull the configuration from a cluster group to update the local ones.
+     * Pull the configuration from a cluster group to update the local ones. Only the configurations whose digest bucket
+     * differs from the local configurations are read from the cluster group.
      *
      * @param group the cluster group where to get the configurations.
      */
@@ -78,12 +82,27 @@ public class ConfigurationSynchronizer extends ConfigurationSupport implements S
             String groupName = group.getName();
             LOGGER.debug("CELLAR CONFIG: pulling configurations from cluster group {}", groupName);
 
-            Map<String, Properties> clusterConfigurations = clusterManager.getMap(Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + groupName);
+            String mapName = Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + groupName;
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
+            BitSet buckets;
+            try {
+                buckets = diff(mapName, getLocalConfigurations(groupConfig, groupName));
+            } catch (IOException ex) {
+                LOGGER.error("CELLAR CONFIG: failed to read configuration (IO error)", ex);
+                return;
+            } catch (InvalidSyntaxException ex) {
+                LOGGER.error("CELLAR CONFIG: failed to read configuration (invalid filter syntax)", ex);
+                return;
+            }
+            if (buckets.isEmpty()) {
+                LOGGER.debug("CELLAR CONFIG: configurations are in sync with cluster group {}", groupName);
+                return;
+            }
+            Map<String, Properties> clusterConfigurations = clusterManager.getEntries(mapName, buckets);
             Set<String> configWhitelist = groupConfig.getInboundConfigurationWhitelist();
             Set<String> configBlacklist = groupConfig.getInboundConfigurationBlacklist();
             for (String pid : clusterConfigurations.keySet()) {
-                if (cellarSupport.isAllowed(pid, configWhitelist, configBlacklist)) {
+                if (cellarSupport.isAllowed(pid, groupConfig, configWhitelist, configBlacklist)) {
                     Dictionary clusterDictionary = clusterConfigurations.get(pid);
                     try {
                         // update the local configuration if needed
@@ -107,7 +126,8 @@ public class ConfigurationSynchronizer extends ConfigurationSupport implements S
     }
 
     /**
-     * Push local configurations to a cluster group.
+     * Push local configurations to a cluster group. Only the configurations whose digest bucket differs from the
+     * cluster group configurations are pushed.
      *
      * @param group the cluster group where to update the configurations.
      */
@@ -121,31 +141,28 @@ public class ConfigurationSynchronizer extends ConfigurationSupport implements S
         if (group != null) {
             String groupName = group.getName();
             LOGGER.debug("CELLAR CONFIG: pushing configurations to cluster group {}", groupName);
-            Map<String, Properties> clusterConfigurations = clusterManager.getMap(Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + groupName);
+            String mapName = Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + groupName;
+            Map<String, Properties> clusterConfigurations = clusterManager.getMap(mapName);
 
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
-            Configuration[] localConfigurations;
             try {
-                localConfigurations = configAdmin.listConfigurations(null);
-                for (Configuration localConfiguration : localConfigurations) {
-                    String pid = localConfiguration.getPid();
-                    // check if the pid is marked as local.
-                    Set<String> bundleWhitelist = groupConfig.getOutboundConfigurationWhitelist();
-                    Set<String> bundleBlacklist = groupConfig.getOutboundConfigurationBlacklist();
-
-                    if (cellarSupport.isAllowed(pid, bundleWhitelist, bundleBlacklist)) {
-                        Dictionary localDictionary = localConfiguration.getProperties();
-						localDictionary = filter(localDictionary);
+                Map<String, Properties> localConfigurations = getLocalConfigurations(groupConfig, groupName);
+                BitSet buckets = diff(mapName, localConfigurations);
+                if (buckets.isEmpty()) {
+                    LOGGER.debug("CELLAR CONFIG: configurations are in sync with cluster group {}", groupName);
+                    return;
+                }
+                for (Map.Entry<String, Properties> entry : localConfigurations.entrySet()) {
+                    String pid = entry.getKey();
+                    if (buckets.get(StateDigest.bucketOf(pid))) {
                         // update the configurations in the cluster group
-                        clusterConfigurations.put(pid, dictionaryToProperties(localDictionary));
+                        clusterConfigurations.put(pid, entry.getValue());
                         // broadcast the cluster event
                         ClusterConfigurationEvent event = new ClusterConfigurationEvent(pid);
                         event.setSourceGroup(group);
                         event.setSourceNode(groupManager.getNode());
                         event.setType(event.getType());
                         executionContext.execute(event, group.getNodes());
-                    } else {
-                        LOGGER.debug("CELLAR CONFIG: configuration with PID {} is marked BLOCKED OUTBOUND for cluster group {}", pid, groupName);
                     }
                 }
             } catch (IOException ex) {
@@ -156,6 +173,49 @@ public class ConfigurationSynchronizer extends ConfigurationSupport implements S
         }
     }
 
+    /**
+     * Compare the digest of the local configurations with the digest of the cluster group configurations.
+     *
+     * @param mapName the cluster group configurations map name.
+     * @param localConfigurations the local configurations.
+     * @return the digest buckets which differ.
+     */
+    private BitSet diff(String mapName, Map<String, Properties> localConfigurations) {
+        StateDigest digest = new StateDigest();
+        for (Map.Entry<String, Properties> entry : localConfigurations.entrySet()) {
+            digest.add(entry.getKey(), entry.getValue());
+        }
+        return digest.diff(clusterManager.getDigest(mapName));
+    }
+
+    /**
+     * Get the local configurations allowed outbound for a cluster group, as they are stored in the cluster group.
+     *
+     * @param groupConfig the cluster group configuration.
+     * @param groupName the cluster group name.
+     * @return the filtered configurations by PID.
+     */
+    private Map<String, Properties> getLocalConfigurations(GroupConfiguration groupConfig, String groupName) throws IOException, InvalidSyntaxException {
+        Map<String, Properties> configurations = new LinkedHashMap<String, Properties>();
+        Configuration[] localConfigurations = configAdmin.listConfigurations(null);
+        if (localConfigurations != null) {
+            // check if the pid is marked as local.
+            Set<String> bundleWhitelist = groupConfig.getOutboundConfigurationWhitelist();
+            Set<String> bundleBlacklist = groupConfig.getOutboundConfigurationBlacklist();
+            for (Configuration localConfiguration : localConfigurations) {
+                String pid = localConfiguration.getPid();
+                if (cellarSupport.isAllowed(pid, groupConfig, bundleWhitelist, bundleBlacklist)) {
+                    Dictionary localDictionary = localConfiguration.getProperties();
+                    localDictionary = filter(localDictionary);
+                    configurations.put(pid, dictionaryToProperties(localDictionary));
+                } else {
+                    LOGGER.debug("CELLAR CONFIG: configuration with PID {} is marked BLOCKED OUTBOUND for cluster group {}", pid, groupName);
+                }
+            }
+        }
+        return configurations;
+    }
+
     /**
      * Check if configuration sync flag is enabled for a cluster group.
      *
@@ -23,6 +23,8 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class ConfigurationTaskResult extends Result {
 
+    private static final long serialVersionUID = 4958998954206689125L;
+
     public ConfigurationTaskResult() {
     }
 
@@ -28,7 +28,10 @@ import org.apache.karaf.cellar.config.shell.ConfigurationAction;
 import org.apache.karaf.cellar.core.ClusterManager;
 import org.apache.karaf.cellar.core.GroupConfiguration;
 import org.apache.karaf.cellar.core.GroupManager;
+import org.apache.karaf.cellar.core.StateDigest;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.event.EventTracker;
 import org.osgi.service.cm.ConfigurationAdmin;
 
 /**
@@ -42,6 +45,7 @@ public class LocalConfigurationListener extends ConfigurationSupport implements
     private GroupManager groupManager;
     private ClusterManager clusterManager;
     private DistributedExecutionContext executionContext;
+    private EventTracker<Event> eventTracker;
 
     /**
      * Callback method called when a local configuration changes.
@@ -59,14 +63,19 @@ public class LocalConfigurationListener extends ConfigurationSupport implements
 
         Set<Group> groups = groupManager.listLocalGroups();
         if (groups != null && !groups.isEmpty()) {
+            StateDigest state = getState(event);
             for (Group group : groups) {
+                if (eventTracker != null && eventTracker.isEcho(pid, group.getName(), state)) {
+                    LOGGER.debug("CELLAR CONFIG: configuration with PID {} has been changed by a cluster event from cluster group {}, not broadcast back", pid, group.getName());
+                    continue;
+                }
                 try {
                     LOGGER.info("In LocalConfiguration listener process event {} for group: {}", event, group);
                     GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(group.getName());
                     Set<String> bundleWhitelist = groupConfig.getOutboundConfigurationWhitelist();
                     Set<String> bundleBlacklist = groupConfig.getOutboundConfigurationBlacklist();
                     // check if the pid is allowed for outbound.
-                    if (this.isAllowed(pid, bundleWhitelist, bundleBlacklist)) {
+                    if (this.isAllowed(pid, groupConfig, bundleWhitelist, bundleBlacklist)) {
                         IMap<String, Properties> clusterConfigurations = (IMap<String, Properties>) clusterManager.getMap(Constants.CONFIGURATION_MAP + Configurations.SEPARATOR + group.getName());
                         if (event.getType() == ConfigurationEvent.CM_DELETED) {
                             if (clusterConfigurations.containsKey(pid)) {
@@ -79,7 +88,7 @@ public class LocalConfigurationListener extends ConfigurationSupport implements
                                 clusterConfigurationEvent.setType(ConfigurationAction.DELETE);
                                 clusterConfigurationEvent.setSourceNode(clusterManager.getMasterCluster().getLocalNode());
                                 clusterConfigurationEvent.setSourceGroup(group);
-                                executionContext.execute(clusterConfigurationEvent, group.getNodesExcluding(groupManager.getNode()));
+                                executionContext.executeBatched(clusterConfigurationEvent, group.getNodesExcluding(groupManager.getNode()));
                             }
                         } else {
                             Configuration conf = configAdmin.getConfiguration(pid, "?");
@@ -109,7 +118,7 @@ public class LocalConfigurationListener extends ConfigurationSupport implements
                                 clusterConfigurationEvent.setType(ConfigurationAction.SYNC);
                                 clusterConfigurationEvent.setSourceGroup(group);
                                 clusterConfigurationEvent.setSourceNode(clusterManager.getMasterCluster().getLocalNode());
-                                executionContext.execute(clusterConfigurationEvent, group.getNodesExcluding(groupManager.getNode()));
+                                executionContext.executeBatched(clusterConfigurationEvent, group.getNodesExcluding(groupManager.getNode()));
                             }
                         }
                     } else {
@@ -122,6 +131,24 @@ public class LocalConfigurationListener extends ConfigurationSupport implements
         }
     }
 
+    /**
+     * Get the local state resulting from a configuration event, as expected by the cluster events applied locally.
+     *
+     * @param event the local configuration event.
+     * @return the digest of the configuration properties, null if the configuration is deleted.
+     */
+    private StateDigest getState(ConfigurationEvent event) {
+        if (eventTracker == null || event.getType() == ConfigurationEvent.CM_DELETED) {
+            return null;
+        }
+        try {
+            return digest(configAdmin.getConfiguration(event.getPid(), "?").getProperties());
+        } catch (Exception e) {
+            LOGGER.warn("CELLAR CONFIG: failed to read the configuration with PID {}", event.getPid(), e);
+            return null;
+        }
+    }
+
     public void init() {
         // nothing to do
     }
@@ -185,4 +212,18 @@ public class LocalConfigurationListener extends ConfigurationSupport implements
     public void setExecutionContext(DistributedExecutionContext executionContext) {
         this.executionContext = executionContext;
     }
+
+    /**
+     * @return the eventTracker
+     */
+    public EventTracker<Event> getEventTracker() {
+        return eventTracker;
+    }
+
+    /**
+     * @param eventTracker the eventTracker to set
+     */
+    public void setEventTracker(EventTracker<Event> eventTracker) {
+        this.eventTracker = eventTracker;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package org.apache.karaf.cellar.core;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -43,6 +44,23 @@ public interface CellarCluster {
      */
     public Map getMap(String mapName);
 
+    /**
+     * Get the digest of a map in the cluster, computed by the nodes owning its entries.
+     *
+     * @param mapName the map name in the cluster.
+     * @return the digest of the map, null if a node failed to compute its part or did not answer in time.
+     */
+    public StateDigest getDigest(String mapName);
+
+    /**
+     * Get the entries of a map in the cluster whose key falls in the given digest buckets.
+     *
+     * @param mapName the map name in the cluster.
+     * @param buckets the digest buckets to get.
+     * @return a copy of the selected entries.
+     */
+    public Map getEntries(String mapName, BitSet buckets);
+
     /**
      * Get a list in the cluster.
      *
@@ -13,9 +13,12 @@
  */
 package org.apache.karaf.cellar.core;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.apache.karaf.cellar.core.utils.WildcardFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,6 +28,7 @@ import org.slf4j.LoggerFactory;
 public class CellarSupport {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CellarSupport.class);
+    private static final Map<String, GroupFilters> FILTERS = new ConcurrentHashMap<String, GroupFilters>();
 
     /**
      * Check if a resource is allowed for a type of cluster event.
@@ -35,47 +39,81 @@ public class CellarSupport {
      * @return
      */
     public boolean isAllowed(String resource, Set<String> whiteList, Set<String> blackList) {
-        boolean result = true;
+        return isAllowed(resource, new WildcardFilter(whiteList, blackList));
+    }
 
-        // if no white listed items we assume all are accepted.
-        if (whiteList != null && !whiteList.isEmpty()) {
-            result = false;
-            for (String whiteListItem : whiteList) {
-                if (wildCardMatch(resource, whiteListItem)) {
-                    LOGGER.debug("Resource {} matched whitelisted resource item {}.", resource, whiteListItem);
-                    result = true;
-                    break;
-                }
-            }
-        }
+    /**
+     * Check if a resource is allowed by lists of a cluster group configuration, the compiled filter is reused as long
+     * as the configuration doesn't change.
+     *
+     * @param resource the resource name.
+     * @param groupConfig the cluster group configuration holding the lists.
+     * @param whiteList the whitelisted items for a particular event.
+     * @param blackList the blacklisted items for a particular event.
+     * @return true if the resource is allowed.
+     */
+    public boolean isAllowed(String resource, GroupConfiguration groupConfig, Set<String> whiteList, Set<String> blackList) {
+        return isAllowed(resource, getFilter(groupConfig, whiteList, blackList));
+    }
 
-        // if any blackList item matched, then false is returned.
-        if (blackList != null && !blackList.isEmpty()) {
-            for (String blackListItem : blackList) {
-                if (wildCardMatch(resource, blackListItem)) {
-                    LOGGER.debug("Resource {} matched whitelisted resource item {}.", resource, blackListItem);
-                    result = false;
-                    break;
-                }
-            }
+    private boolean isAllowed(String resource, WildcardFilter filter) {
+        boolean result = filter.isAllowed(resource);
+        if (!result) {
+            LOGGER.debug("Resource {} is filtered out by the whitelist {} or the blacklist {}.", new Object[]{resource, filter.getWhiteList(), filter.getBlackList()});
         }
-
         return result;
     }
 
     /**
-     * Check if a string match a regex.
+     * Get the compiled filter of a whitelist and a blacklist of a cluster group configuration. Filters are cached per
+     * configuration version and dropped when the configuration is updated, the lists of a version are immutable so
+     * they are looked up by identity instead of by content.
      *
-     * @param item the string to check.
-     * @param pattern the regex pattern.
-     * @return true if the item string matches the pattern, false else.
+     * @param groupConfig the cluster group configuration holding the lists.
+     * @param whiteList the whitelisted items.
+     * @param blackList the blacklisted items.
+     * @return the compiled filter.
      */
-    protected boolean wildCardMatch(String item, String pattern) {
-        // update the pattern to have a valid regex pattern
-        pattern = pattern.replace("*", ".*");
-        // use the regex
-        Pattern p = Pattern.compile(pattern);
-        Matcher m = p.matcher(item);
-        return m.matches();
+    public WildcardFilter getFilter(GroupConfiguration groupConfig, Set<String> whiteList, Set<String> blackList) {
+        long version = groupConfig.getVersion();
+        GroupFilters filters = FILTERS.get(groupConfig.getName());
+        if (filters == null || filters.version != version) {
+            filters = new GroupFilters(version);
+            FILTERS.put(groupConfig.getName(), filters);
+        }
+        for (CachedFilter cached : filters.filters) {
+            if (cached.whiteList == whiteList && cached.blackList == blackList) {
+                return cached.filter;
+            }
+        }
+        WildcardFilter filter = new WildcardFilter(whiteList, blackList);
+        filters.filters.add(new CachedFilter(whiteList, blackList, filter));
+        return filter;
+    }
+
+    /**
+     * Filters compiled from a version of a cluster group configuration.
+     */
+    private static final class GroupFilters {
+
+        private final long version;
+        private final List<CachedFilter> filters = new CopyOnWriteArrayList<CachedFilter>();
+
+        GroupFilters(long version) {
+            this.version = version;
+        }
+    }
+
+    private static final class CachedFilter {
+
+        private final Set<String> whiteList;
+        private final Set<String> blackList;
+        private final WildcardFilter filter;
+
+        CachedFilter(Set<String> whiteList, Set<String> blackList, WildcardFilter filter) {
+            this.whiteList = whiteList;
+            this.blackList = blackList;
+            this.filter = filter;
+        }
     }
 }
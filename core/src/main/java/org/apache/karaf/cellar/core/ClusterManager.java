@@ -13,6 +13,7 @@
  */
 package org.apache.karaf.cellar.core;
 
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,23 @@ public interface ClusterManager {
      */
     public Map getMap(String mapName);
 
+    /**
+     * Get the digest of a Map in the main administrative cluster.
+     *
+     * @param mapName the Map name.
+     * @return the digest of the Map, null if it can't be computed.
+     */
+    public StateDigest getDigest(String mapName);
+
+    /**
+     * Get the entries of a Map in the main administrative cluster whose key falls in the given digest buckets.
+     *
+     * @param mapName the Map name.
+     * @param buckets the digest buckets to get.
+     * @return a copy of the selected entries.
+     */
+    public Map getEntries(String mapName, BitSet buckets);
+
     /**
      * Get a List in the main administrative cluster.
      *
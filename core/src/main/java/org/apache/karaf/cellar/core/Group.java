@@ -13,13 +13,22 @@
  */
 package org.apache.karaf.cellar.core;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Cellar cluster group.
  */
-public class Group implements MultiNode {
+public class Group implements MultiNode, CellarSerializable {
+
+    private static final long serialVersionUID = 8658031345510529177L;
+
+    private static final int FIELDS_VERSION = 2;
 
     private String name;
     private Set<Node> nodes = new HashSet<Node>();
@@ -89,6 +98,33 @@ public class Group implements MultiNode {
         this.nodes = nodes;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeString(name);
+        out.writeInt(nodes.size());
+        for (Node node : nodes) {
+            out.writeNodeReference(node);
+        }
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        int version = in.startFields();
+        name = in.readString();
+        if (version < 2) {
+            nodes = SerializationSupport.readSet(in);
+        } else {
+            int size = in.readInt();
+            nodes = new HashSet<Node>(Math.max(16, (int) (size / .75f) + 1));
+            for (int i = 0; i < size; i++) {
+                nodes.add(in.readNodeReference());
+            }
+        }
+        in.endFields();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -25,6 +25,22 @@ public interface GroupConfiguration {
 
     String getName();
 
+    /**
+     * Get the version of the configuration, which increases every time the configuration is updated. Values derived
+     * from the configuration can be cached as long as the version doesn't change.
+     *
+     * @return the configuration version.
+     */
+    long getVersion();
+
+    /**
+     * Get an immutable view of the configuration at its current version, so values read one after the other, like a
+     * white list and its black list, belong to the same version.
+     *
+     * @return the configuration snapshot.
+     */
+    GroupConfiguration getSnapshot();
+
     boolean isSyncConfiguration();
 
     Set<String> getInboundConfigurationWhitelist();
@@ -50,7 +50,8 @@ public interface GroupManager {
      * Look for a cluster group's configuration with the given name.
      *
      * @param groupName the cluster group name to look for.
-     * @return the cluster group found, or null if no cluster group found.
+     * @return a snapshot of the cluster group configuration, whose values all belong to the same version, or null if
+     * no cluster group found.
      */
     public GroupConfiguration findGroupConfigurationByName(String groupName);
 
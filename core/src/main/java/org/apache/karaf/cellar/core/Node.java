@@ -17,7 +17,8 @@ package org.apache.karaf.cellar.core;
 import java.io.Serializable;
 
 /**
- * Generic cluster node interface.
+ * Generic cluster node interface. Nodes are equal when they have the same id, whatever their implementation, so a node
+ * read by reference matches the resolved node.
  */
 //@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "@class")
 public interface Node extends Serializable {
@@ -0,0 +1,227 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+
+/**
+ * Digest of the entries of a state map, split in buckets by key hash. The digest of a bucket is the sum of the hashes
+ * of its entries so entries can be added and removed in any order, and the digests computed separately on each node
+ * for the entries it owns can be merged.
+ * <p/>
+ * Two views of a state map are compared through their digests: only the entries of the buckets which differ have to
+ * be transferred. Hashes are computed from the content of the keys and values, so they must be strings, wrappers,
+ * arrays, collections, maps or types with a content based hashCode.
+ */
+public class StateDigest implements CellarSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    /**
+     * Number of buckets of a digest.
+     */
+    public static final int BUCKETS = 128;
+
+    private long[] buckets = new long[BUCKETS];
+    private int size;
+
+    /**
+     * Add an entry to the digest.
+     *
+     * @param key the entry key.
+     * @param value the entry value.
+     */
+    public void add(Object key, Object value) {
+        buckets[bucketOf(key)] += hashEntry(key, value);
+        size++;
+    }
+
+    /**
+     * Remove an entry previously added to the digest.
+     *
+     * @param key the entry key.
+     * @param value the entry value.
+     */
+    public void remove(Object key, Object value) {
+        buckets[bucketOf(key)] -= hashEntry(key, value);
+        size--;
+    }
+
+    /**
+     * Add the entries of another digest, computed on a distinct set of entries, to this digest.
+     *
+     * @param digest the digest to merge.
+     */
+    public void merge(StateDigest digest) {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] += digest.buckets[i];
+        }
+        size += digest.size;
+    }
+
+    /**
+     * Compare this digest with another one.
+     *
+     * @param digest the digest to compare with.
+     * @return the buckets which differ, empty if both digests match.
+     */
+    public BitSet diff(StateDigest digest) {
+        BitSet diff = new BitSet(BUCKETS);
+        for (int i = 0; i < BUCKETS; i++) {
+            if (digest == null || buckets[i] != digest.buckets[i]) {
+                diff.set(i);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * @return the number of entries in the digest.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the bucket of a key.
+     *
+     * @param key the key.
+     * @return the bucket index.
+     */
+    public static int bucketOf(Object key) {
+        int h = hash(key);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return (h & Integer.MAX_VALUE) % BUCKETS;
+    }
+
+    private static long hashEntry(Object key, Object value) {
+        long h = ((long) hash(key) << 32) ^ (hash(value) & 0xffffffffL);
+        // finalizer of murmur3, spreads the entry over the whole bucket value
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int hash(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value.getClass().isArray()) {
+            int h = 1;
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                h = 31 * h + hash(Array.get(value, i));
+            }
+            return h;
+        }
+        if (value instanceof Map) {
+            int h = 0;
+            for (Object o : ((Map) value).entrySet()) {
+                Map.Entry entry = (Map.Entry) o;
+                h += hash(entry.getKey()) ^ hash(entry.getValue());
+            }
+            return h;
+        }
+        if (value instanceof Dictionary) {
+            Dictionary dictionary = (Dictionary) value;
+            int h = 0;
+            for (Enumeration keys = dictionary.keys(); keys.hasMoreElements();) {
+                Object key = keys.nextElement();
+                h += hash(key) ^ hash(dictionary.get(key));
+            }
+            return h;
+        }
+        if (value instanceof List) {
+            int h = 1;
+            for (Object o : (List) value) {
+                h = 31 * h + hash(o);
+            }
+            return h;
+        }
+        if (value instanceof Collection) {
+            int h = 0;
+            for (Object o : (Collection) value) {
+                h += hash(o);
+            }
+            return h;
+        }
+        return value.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StateDigest digest = (StateDigest) o;
+        return size == digest.size && Arrays.equals(buckets, digest.buckets);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * size + Arrays.hashCode(buckets);
+    }
+
+    @Override
+    public String toString() {
+        return "StateDigest{" + "size=" + size + '}';
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeInt(size);
+        out.writeInt(buckets.length);
+        for (long bucket : buckets) {
+            out.writeLong(bucket);
+        }
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        size = in.readInt();
+        int length = in.readInt();
+        buckets = new long[BUCKETS];
+        for (int i = 0; i < length; i++) {
+            long bucket = in.readLong();
+            if (i < BUCKETS) {
+                buckets[i] = bucket;
+            }
+        }
+        in.endFields();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2013 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.command;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
+
+/**
+ * Results of a batch of events, in the order the events were dispatched. The batch is successful only if every event
+ * of the batch has been successfully handled.
+ *
+ * @author rmoquin
+ */
+public class BatchResult extends Result {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    private List<DistributedResult> results = new ArrayList<DistributedResult>();
+
+    public BatchResult() {
+    }
+
+    public BatchResult(String id) {
+        super(id);
+    }
+
+    public void add(DistributedResult result) {
+        results.add(result);
+        if (result == null || !result.isSuccessful()) {
+            successful = false;
+        }
+    }
+
+    /**
+     * @return the results
+     */
+    public List<DistributedResult> getResults() {
+        return results;
+    }
+
+    /**
+     * @param results the results to set
+     */
+    public void setResults(List<DistributedResult> results) {
+        this.results = results;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeCollection(out, results);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        results = SerializationSupport.readList(in);
+        in.endFields();
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult{" + "successful=" + successful + ", results=" + results + '}';
+    }
+}
@@ -13,7 +13,10 @@
  */
 package org.apache.karaf.cellar.core.command;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,9 +25,19 @@ import org.slf4j.LoggerFactory;
  */
 public class Command<R extends DistributedResult> extends Event {
 
+    private static final long serialVersionUID = 7248803598272102199L;
+
+    private static final int FIELDS_VERSION = 1;
+
     protected static final transient Logger LOGGER = LoggerFactory.getLogger(Command.class);
 
-    protected long timeout = 10000;
+    /**
+     * Default command timeout, in milliseconds.
+     */
+    public static final long DEFAULT_TIMEOUT = 10000;
+
+    protected long timeout = DEFAULT_TIMEOUT;
+    private transient long deadline;
 
     public Command() {
     }
@@ -41,6 +54,63 @@ public class Command<R extends DistributedResult> extends Event {
         this.timeout = timeout;
     }
 
+    /**
+     * Get the time after which the command result is no longer awaited, only known on the node executing the command.
+     *
+     * @return the deadline in milliseconds since the epoch, 0 if the command has no deadline because the sender does
+     * not wait for the result.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Check if the command deadline has passed, in which case nobody waits for the result anymore.
+     *
+     * @return true if the deadline has passed.
+     */
+    public boolean isExpired() {
+        return deadline > 0 && System.currentTimeMillis() >= deadline;
+    }
+
+    /**
+     * Get the executor lane the command is executed in.
+     *
+     * @return the lane, bulk by default.
+     */
+    public ExecutionLane getLane() {
+        return ExecutionLane.BULK;
+    }
+
+    /**
+     * Get the delivery policy of the command, applied when a node fails or does not answer in time.
+     *
+     * @return the policy or null to use the execution context policy, which only retries bulk commands.
+     */
+    public DeliveryPolicy getDeliveryPolicy() {
+        return null;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeLong(timeout);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        timeout = in.readLong();
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return super.toString() + "\nCommand{" + "timeout=" + timeout + '}';
@@ -0,0 +1,174 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.command;
+
+import java.io.Serializable;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.event.Event;
+
+/**
+ * A command which could not be delivered to a node once its delivery policy was exhausted. Dead letters are kept in
+ * the cluster, by node and cluster group, until they are replayed or drained.
+ */
+public class DeadLetter implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Node node;
+    private String groupName;
+    private Event command;
+    private int attempts;
+    private long failedAt;
+    private String cause;
+
+    public DeadLetter() {
+    }
+
+    public DeadLetter(Node node, String groupName, Event command, int attempts, Throwable cause) {
+        this.node = node;
+        this.groupName = groupName;
+        this.command = command;
+        this.attempts = attempts;
+        this.failedAt = System.currentTimeMillis();
+        this.cause = cause != null ? cause.toString() : null;
+    }
+
+    /**
+     * Get the prefix of the keys of the dead letters of a node and a cluster group in the dead letter store. Nodes are
+     * referenced by name as the node id changes when the node restarts.
+     *
+     * @param nodeName the node name.
+     * @param groupName the cluster group name.
+     * @return the key prefix.
+     */
+    public static String key(String nodeName, String groupName) {
+        return nodeName + "/" + groupName;
+    }
+
+    /**
+     * Get the key of a dead letter in the dead letter store, the keys of a node and a cluster group sort in failure
+     * order.
+     *
+     * @param nodeName the node name.
+     * @param groupName the cluster group name.
+     * @param failedAt the time of the failed delivery, in milliseconds since the epoch.
+     * @param sender the id of the node which stores the dead letter.
+     * @param sequence the sequence number of the dead letter on the sender.
+     * @return the key.
+     */
+    public static String key(String nodeName, String groupName, long failedAt, String sender, long sequence) {
+        return key(nodeName, groupName) + "/" + String.format("%013d/%s/%019d", failedAt, sender, sequence);
+    }
+
+    /**
+     * Check if the dead letter matches a node and a cluster group.
+     *
+     * @param nodeName the node name, null matches any node.
+     * @param groupName the cluster group name, null matches any cluster group.
+     * @return true if the dead letter matches.
+     */
+    public boolean matches(String nodeName, String groupName) {
+        return (nodeName == null || (node != null && nodeName.equals(node.getName())))
+                && (groupName == null || groupName.equals(this.groupName));
+    }
+
+    /**
+     * @return the node
+     */
+    public Node getNode() {
+        return node;
+    }
+
+    /**
+     * @param node the node to set
+     */
+    public void setNode(Node node) {
+        this.node = node;
+    }
+
+    /**
+     * @return the groupName
+     */
+    public String getGroupName() {
+        return groupName;
+    }
+
+    /**
+     * @param groupName the groupName to set
+     */
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+
+    /**
+     * @return the command
+     */
+    public Event getCommand() {
+        return command;
+    }
+
+    /**
+     * @param command the command to set
+     */
+    public void setCommand(Event command) {
+        this.command = command;
+    }
+
+    /**
+     * @return the number of deliveries attempted.
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    /**
+     * @param attempts the attempts to set
+     */
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    /**
+     * @return the time of the last failed delivery, in milliseconds since the epoch.
+     */
+    public long getFailedAt() {
+        return failedAt;
+    }
+
+    /**
+     * @param failedAt the failedAt to set
+     */
+    public void setFailedAt(long failedAt) {
+        this.failedAt = failedAt;
+    }
+
+    /**
+     * @return the cause of the last failed delivery.
+     */
+    public String getCause() {
+        return cause;
+    }
+
+    /**
+     * @param cause the cause to set
+     */
+    public void setCause(String cause) {
+        this.cause = cause;
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetter{" + "node=" + node + ", groupName=" + groupName + ", command=" + command + ", attempts=" + attempts + ", cause=" + cause + '}';
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.command;
+
+import java.util.Random;
+
+/**
+ * Delivery policy of a command: how many times the delivery to a node is retried when the command could not reach the
+ * node and how long to wait between the retries. A command which reached the node but failed or did not answer in
+ * time is never retried, it goes to the dead letter store at once. The wait doubles at each retry, up to a maximum,
+ * and is jittered so the retries of many commands don't hit a recovering node at the same time.
+ */
+public class DeliveryPolicy {
+
+    /**
+     * Policy of the commands which are never retried.
+     */
+    public static final DeliveryPolicy NONE = new DeliveryPolicy(0, 0, 0);
+    private static final Random RANDOM = new Random();
+
+    private final int maxRetries;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    /**
+     * @param maxRetries the number of retries after the first delivery.
+     * @param initialBackoff the wait before the first retry, in milliseconds.
+     * @param maxBackoff the maximum wait between two retries, in milliseconds.
+     */
+    public DeliveryPolicy(int maxRetries, long initialBackoff, long maxBackoff) {
+        this.maxRetries = maxRetries;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Get the wait before a retry, picked at random between half and the whole exponential backoff.
+     *
+     * @param retry the retry number, starting at 1.
+     * @return the wait in milliseconds.
+     */
+    public long getBackoff(int retry) {
+        long backoff = initialBackoff;
+        for (int i = 1; i < retry && backoff < maxBackoff; i++) {
+            backoff = backoff * 2;
+        }
+        backoff = Math.min(backoff, maxBackoff);
+        if (backoff <= 1) {
+            return backoff;
+        }
+        long half = backoff / 2;
+        synchronized (RANDOM) {
+            return half + (long) (RANDOM.nextDouble() * (backoff - half));
+        }
+    }
+
+    /**
+     * @return the maxRetries
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @return the initialBackoff
+     */
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * @return the maxBackoff
+     */
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    @Override
+    public String toString() {
+        return "DeliveryPolicy{" + "maxRetries=" + maxRetries + ", initialBackoff=" + initialBackoff + ", maxBackoff=" + maxBackoff + '}';
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.apache.karaf.cellar.core.command;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.karaf.cellar.core.Node;
@@ -49,6 +50,60 @@ public interface DistributedExecutionContext<T, R> {
 
     public void executeOnOneAsync(T command, Set<Node> destinations, DistributedCallback<R> callback);
 
+    /**
+     * Scatter the command to the destinations without waiting for the results.
+     *
+     * @param command the command to execute.
+     * @param destinations the destination nodes.
+     * @return a future gathering the results as they arrive, completed once all the nodes answered or the deadline
+     * has passed.
+     */
+    public DistributedFuture<R> submit(T command, Set<Node> destinations);
+
+    /**
+     * Send the command to the destination without waiting for the result.
+     *
+     * @param command the command to execute.
+     * @param destination the destination node.
+     * @return a future completed once the node answered or the deadline has passed.
+     */
+    public DistributedFuture<R> submit(T command, Node destination);
+
+    /**
+     * Queue the command to be sent to the destinations together with the other commands of the same cluster group
+     * queued during a short window. The commands are executed in the order they were queued.
+     *
+     * @param command the command to execute.
+     * @param destinations the destination nodes.
+     */
+    public void executeBatched(T command, Set<Node> destinations);
+
+    /**
+     * List the commands which could not be delivered once their delivery policy was exhausted.
+     *
+     * @return the dead letters.
+     */
+    public List<DeadLetter> getDeadLetters();
+
+    /**
+     * Deliver again the dead letters of a node and a cluster group, in the order they failed, and remove them from the
+     * dead letter store.
+     *
+     * @param nodeName the node name, null for all the nodes.
+     * @param groupName the cluster group name, null for all the cluster groups.
+     * @return the number of commands delivered again.
+     */
+    public int replayDeadLetters(String nodeName, String groupName);
+
+    /**
+     * Remove the dead letters of a node and a cluster group without delivering them.
+     *
+     * @param nodeName the node name, null for all the nodes.
+     * @param groupName the cluster group name, null for all the cluster groups.
+     * @return the number of commands removed.
+     */
+    public int drainDeadLetters(String nodeName, String groupName);
+
     /**
      * @param timeoutSeconds the timeoutSeconds to set
      */
@@ -59,6 +114,14 @@ public interface DistributedExecutionContext<T, R> {
      */
     int getTimeoutSeconds();
 
+    /**
+     * Get the execution statistics: tasks in flight, waiting for a credit and rejected per destination node, local
+     * executor queue depth, near cache hits and misses and handler timings.
+     *
+     * @return the statistics values by name.
+     */
+    Map<String, Long> getStatistics();
+
     Switch getSwitch();
 
     String getTopic();
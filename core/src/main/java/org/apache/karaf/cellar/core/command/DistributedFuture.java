@@ -0,0 +1,277 @@
+/*
+ * Copyright 2013 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.karaf.cellar.core.Node;
+
+/**
+ * Result of a command scattered to a set of nodes. Results are gathered as each node answers, callbacks are notified
+ * per node and once every node has answered, failed or the single deadline shared by all the nodes has passed.
+ * <p/>
+ * Callbacks are invoked on the thread delivering the response so they must not block.
+ *
+ * @author rmoquin
+ */
+public class DistributedFuture<R> implements Future<Map<Node, R>> {
+
+    private final long deadline;
+    private final Set<Node> pending;
+    private final Map<Node, R> results = new ConcurrentHashMap<Node, R>();
+    private final Map<Node, Throwable> failures = new ConcurrentHashMap<Node, Throwable>();
+    private final List<DistributedMultiCallback> callbacks = new ArrayList<DistributedMultiCallback>();
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile boolean done;
+    private volatile boolean cancelled;
+
+    /**
+     * @param destinations the nodes expected to answer.
+     * @param deadline the time, in milliseconds since the epoch, after which nodes that did not answer are failed.
+     */
+    public DistributedFuture(Set<Node> destinations, long deadline) {
+        this.deadline = deadline;
+        this.pending = Collections.newSetFromMap(new ConcurrentHashMap<Node, Boolean>());
+        if (destinations != null) {
+            this.pending.addAll(destinations);
+        }
+        if (this.pending.isEmpty()) {
+            complete();
+        }
+    }
+
+    /**
+     * Register a callback notified of every response and of the completion. Responses already received are replayed
+     * to the callback.
+     *
+     * @param callback the callback to register.
+     * @return this future.
+     */
+    public DistributedFuture<R> addCallback(DistributedMultiCallback callback) {
+        Map<Node, R> receivedResults;
+        Map<Node, Throwable> receivedFailures;
+        boolean completed;
+        synchronized (this) {
+            callbacks.add(callback);
+            receivedResults = new HashMap<Node, R>(results);
+            receivedFailures = new HashMap<Node, Throwable>(failures);
+            completed = done;
+        }
+        for (Map.Entry<Node, R> entry : receivedResults.entrySet()) {
+            callback.onResponse(entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<Node, Throwable> entry : receivedFailures.entrySet()) {
+            callback.onFailure(entry.getKey(), entry.getValue());
+        }
+        if (completed) {
+            callback.onComplete(new HashMap<Node, Object>(receivedResults));
+        }
+        return this;
+    }
+
+    /**
+     * Record the response of a node.
+     *
+     * @param node the node which answered.
+     * @param result the result returned by the node.
+     */
+    public void onResponse(Node node, R result) {
+        List<DistributedMultiCallback> listeners;
+        synchronized (this) {
+            if (!pending.remove(node)) {
+                return;
+            }
+            if (result != null) {
+                results.put(node, result);
+            }
+            listeners = new ArrayList<DistributedMultiCallback>(callbacks);
+        }
+        for (DistributedMultiCallback callback : listeners) {
+            callback.onResponse(node, result);
+        }
+        completeIfDone();
+    }
+
+    /**
+     * Record the failure of a node.
+     *
+     * @param node the node which failed.
+     * @param throwable the failure cause.
+     */
+    public void onFailure(Node node, Throwable throwable) {
+        List<DistributedMultiCallback> listeners;
+        synchronized (this) {
+            if (!pending.remove(node)) {
+                return;
+            }
+            failures.put(node, throwable);
+            listeners = new ArrayList<DistributedMultiCallback>(callbacks);
+        }
+        for (DistributedMultiCallback callback : listeners) {
+            callback.onFailure(node, throwable);
+        }
+        completeIfDone();
+    }
+
+    /**
+     * Fail all the nodes which did not answer yet if the deadline has passed.
+     *
+     * @return true if the future is done.
+     */
+    public boolean expire() {
+        if (!done && System.currentTimeMillis() >= deadline) {
+            failPending(new TimeoutException("No response received before the deadline"));
+        }
+        return done;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (done) {
+            return false;
+        }
+        cancelled = true;
+        failPending(new CancellationException("The command has been cancelled"));
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Wait until all the nodes answered or the deadline has passed.
+     *
+     * @return the results received, nodes that failed or did not answer in time are absent.
+     */
+    @Override
+    public Map<Node, R> get() throws InterruptedException, ExecutionException {
+        await(getRemainingTime());
+        return getResults();
+    }
+
+    /**
+     * Wait until all the nodes answered, the deadline has passed or the given timeout elapsed.
+     *
+     * @return the results received, nodes that failed or did not answer in time are absent.
+     * @throws TimeoutException if the timeout elapsed before the deadline.
+     */
+    @Override
+    public Map<Node, R> get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long wait = unit.toMillis(timeout);
+        long remaining = getRemainingTime();
+        if (wait < remaining) {
+            if (!latch.await(wait, TimeUnit.MILLISECONDS)) {
+                throw new TimeoutException("Timed out waiting for the command results");
+            }
+        } else {
+            await(remaining);
+        }
+        return getResults();
+    }
+
+    private void await(long remaining) throws InterruptedException {
+        if (!latch.await(remaining, TimeUnit.MILLISECONDS)) {
+            expire();
+        }
+    }
+
+    private void failPending(Throwable throwable) {
+        Set<Node> nodes;
+        synchronized (this) {
+            nodes = new HashSet<Node>(pending);
+        }
+        for (Node node : nodes) {
+            onFailure(node, throwable);
+        }
+    }
+
+    private void completeIfDone() {
+        if (pending.isEmpty()) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        List<DistributedMultiCallback> listeners;
+        Map<Node, Object> values;
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            listeners = new ArrayList<DistributedMultiCallback>(callbacks);
+            values = new HashMap<Node, Object>(results);
+        }
+        latch.countDown();
+        for (DistributedMultiCallback callback : listeners) {
+            callback.onComplete(values);
+        }
+    }
+
+    /**
+     * @return a snapshot of the results received so far.
+     */
+    public Map<Node, R> getResults() {
+        return new HashMap<Node, R>(results);
+    }
+
+    /**
+     * @return a snapshot of the failures received so far.
+     */
+    public Map<Node, Throwable> getFailures() {
+        return new HashMap<Node, Throwable>(failures);
+    }
+
+    /**
+     * @return the nodes which did not answer yet.
+     */
+    public Set<Node> getPendingNodes() {
+        return new HashSet<Node>(pending);
+    }
+
+    /**
+     * @return the deadline in milliseconds since the epoch.
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * @return the time left before the deadline in milliseconds.
+     */
+    public long getRemainingTime() {
+        return Math.max(0, deadline - System.currentTimeMillis());
+    }
+}
@@ -27,5 +27,7 @@ public interface DistributedMultiCallback {
     void onComplete(Map<Node, Object> values);
 
     void onResponse(Node member, Object value);
-    
+
+    void onFailure(Node member, Throwable t);
+
 }
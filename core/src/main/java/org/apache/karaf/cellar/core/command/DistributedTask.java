@@ -15,28 +15,35 @@
  */
 package org.apache.karaf.cellar.core.command;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.text.MessageFormat;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 import org.apache.karaf.cellar.core.event.Event;
 import org.apache.karaf.cellar.core.event.EventHandler;
-import org.apache.karaf.cellar.core.event.EventHandlerRegistry;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.FrameworkUtil;
+import org.apache.karaf.cellar.core.event.EventHandlerResolver;
+import org.apache.karaf.cellar.core.exception.CommandTimeoutException;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 import org.osgi.framework.ServiceException;
-import org.osgi.framework.ServiceReference;
 
 /**
  *
  * @author rmoquin
  */
-public class DistributedTask<T extends DistributedResult> implements Callable<T>, Serializable {
+public class DistributedTask<T extends DistributedResult> implements Callable<T>, CellarSerializable {
 
-    protected transient BundleContext bundleContext;
-    protected transient List<ServiceReference<?>> usedReferences;
+    private static final long serialVersionUID = -5021120895158928271L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    private transient long receivedAt;
     private Event event;
+    private List<Event> batch;
+    private long timeBudget;
 
     public DistributedTask() {
     }
@@ -45,62 +52,107 @@ public class DistributedTask<T extends DistributedResult> implements Callable<T>
         this.event = event;
     }
 
+    /**
+     * @param event the event to execute.
+     * @param timeBudget the time left, in milliseconds, before the sender stops waiting for the result.
+     */
+    public DistributedTask(Event event, long timeBudget) {
+        this.event = event;
+        this.timeBudget = timeBudget;
+    }
+
+    /**
+     * @param batch the events to execute, in order.
+     * @param timeBudget the time left, in milliseconds, before the sender stops waiting for the result.
+     */
+    public DistributedTask(List<Event> batch, long timeBudget) {
+        this.batch = batch;
+        this.timeBudget = timeBudget;
+    }
+
     @Override
     public T call() throws Exception {
-        try {
-            bundleContext = FrameworkUtil.getBundle(this.getClass()).getBundleContext();
-            EventHandlerRegistry handlerRegistry = this.getService(EventHandlerRegistry.class);
-            if (handlerRegistry == null) {
-                throw new ServiceException(MessageFormat.format("The handler registry isn't available, either system isn't fully started or is shuttig down {0}", event));
-            }
-            EventHandler<Event, T> handler = handlerRegistry.getHandler(event);
-            if (handler != null) {
-                return handler.execute(event);
-            } else {
-                throw new ServiceException(MessageFormat.format("The required command handler could not be looked up in the command registry for event type {0}", event));
-            }
-        } finally {
-            ungetServices();
+        if (batch == null) {
+            applyDeadline(event);
         }
-    }
-
-    protected <T> T getService(String clazz) {
-        ServiceReference<T> sr = (ServiceReference<T>) bundleContext.getServiceReference(clazz);
-        if (sr != null) {
-            return getService(sr);
-        } else {
-            return null;
+        EventHandlerResolver resolver = EventHandlerResolver.getInstance();
+        if (resolver == null) {
+            throw new ServiceException(MessageFormat.format("The handler registry isn't available, either system isn't fully started or is shuttig down {0}", batch != null ? batch : event));
+        }
+        if (batch != null) {
+            return (T) dispatchBatch(resolver);
         }
+        return dispatch(resolver, event);
     }
 
-    protected <T> T getService(Class<T> clazz) {
-        ServiceReference<T> sr = bundleContext.getServiceReference(clazz);
-        if (sr != null) {
-            return getService(sr);
+    private T dispatch(EventHandlerResolver resolver, Event event) {
+        EventHandler<Event, T> handler = resolver.resolve(event);
+        if (handler != null) {
+            return resolver.execute(handler, event);
         } else {
-            return null;
+            throw new ServiceException(MessageFormat.format("The required command handler could not be looked up in the command registry for event type {0}", event));
         }
     }
 
-    protected <T> T getService(ServiceReference<T> reference) {
-        T t = bundleContext.getService(reference);
-        if (t != null) {
-            if (usedReferences == null) {
-                usedReferences = new ArrayList<ServiceReference<?>>();
+    /**
+     * Dispatch the batched events in order, a failing event doesn't prevent the next ones to be dispatched.
+     */
+    private BatchResult dispatchBatch(EventHandlerResolver resolver) {
+        BatchResult results = new BatchResult();
+        for (Event batched : batch) {
+            try {
+                applyDeadline(batched);
+                results.add(dispatch(resolver, batched));
+            } catch (Exception ex) {
+                Result result = new Result(batched.getId());
+                result.setSuccessful(false);
+                result.setThrowable(ex);
+                results.add(result);
             }
-            usedReferences.add(reference);
         }
-        return t;
+        return results;
     }
 
-    protected void ungetServices() {
-        if (usedReferences != null) {
-            for (ServiceReference<?> ref : usedReferences) {
-                bundleContext.ungetService(ref);
-            }
+    /**
+     * Translate the time budget into a deadline on the local clock, counted from the task reception so the time
+     * spent in the executor queue is accounted for.
+     */
+    private void applyDeadline(Event event) throws CommandTimeoutException {
+        if (timeBudget <= 0 || !(event instanceof Command)) {
+            return;
+        }
+        Command command = (Command) event;
+        long start = receivedAt > 0 ? receivedAt : System.currentTimeMillis();
+        command.setDeadline(start + timeBudget);
+        if (command.isExpired()) {
+            throw new CommandTimeoutException(MessageFormat.format("The deadline of the command has passed, it will not be executed {0}", event));
         }
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeObject(event);
+        SerializationSupport.writeCollection(out, batch);
+        out.writeLong(timeBudget);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        event = in.readObject();
+        batch = SerializationSupport.readList(in);
+        timeBudget = in.readLong();
+        receivedAt = System.currentTimeMillis();
+        in.endFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        receivedAt = System.currentTimeMillis();
+    }
+
     /**
      * @return the event
      */
@@ -114,4 +166,32 @@ public class DistributedTask<T extends DistributedResult> implements Callable<T>
     public void setEvent(Event event) {
         this.event = event;
     }
+
+    /**
+     * @return the batched events, null if the task carries a single event.
+     */
+    public List<Event> getBatch() {
+        return batch;
+    }
+
+    /**
+     * @param batch the batch to set
+     */
+    public void setBatch(List<Event> batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * @return the time budget in milliseconds, 0 if the task has no deadline.
+     */
+    public long getTimeBudget() {
+        return timeBudget;
+    }
+
+    /**
+     * @param timeBudget the time budget to set
+     */
+    public void setTimeBudget(long timeBudget) {
+        this.timeBudget = timeBudget;
+    }
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.command;
+
+/**
+ * Executor lane of a command, each lane has its own threads and queue on every node so commands of a lane are never
+ * stuck behind the commands of another lane.
+ */
+public enum ExecutionLane {
+
+    /**
+     * Cluster control commands: ping, handlers, groups and node configuration.
+     */
+    CONTROL,
+    /**
+     * Remote service calls.
+     */
+    REMOTE,
+    /**
+     * Resource synchronization events.
+     */
+    BULK;
+
+    /**
+     * Get the name of the executor of this lane.
+     *
+     * @param executorName the name of the execution context executor.
+     * @return the lane executor name.
+     */
+    public String getExecutorName(String executorName) {
+        return executorName + "." + name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,31 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.command;
+
+/**
+ * What the execution context does when a destination node already has the maximum number of tasks in flight.
+ */
+public enum FlowControlPolicy {
+
+    /**
+     * Wait for a task to complete, at most until the command deadline. Only applies to the commands the caller waits
+     * for, the commands sent without waiting always fail fast.
+     */
+    BLOCK,
+    /**
+     * Fail the delivery to the node immediately.
+     */
+    FAIL_FAST
+
+}
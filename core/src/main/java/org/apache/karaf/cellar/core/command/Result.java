@@ -15,11 +15,20 @@
  */
 package org.apache.karaf.cellar.core.command;
 
+import java.io.IOException;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+
 /**
  *
  * @author Ryan
  */
-public class Result implements DistributedResult {
+public class Result implements DistributedResult, CellarSerializable {
+
+    private static final long serialVersionUID = 1500627013807582326L;
+
+    private static final int FIELDS_VERSION = 1;
 
     private String id;
     protected boolean successful = true;
@@ -32,6 +41,24 @@ public class Result implements DistributedResult {
         this.id = id;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeString(id);
+        out.writeBoolean(successful);
+        out.writeObject(throwable);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        id = in.readString();
+        successful = in.readBoolean();
+        throwable = in.readObject();
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return "Result{" + "id=" + id + ", successful=" + successful + ", throwable=" + throwable + '}';
@@ -13,13 +13,22 @@
  */
 package org.apache.karaf.cellar.core.control;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Manager group command.
  */
 public class ManageGroupCommand extends Command<ManageGroupResult> {
 
+    private static final long serialVersionUID = 1900582078189884819L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private ManageGroupAction action;
     private String destinationGroup;
 
@@ -30,6 +39,29 @@ public class ManageGroupCommand extends Command<ManageGroupResult> {
         super(id);
     }
 
+    @Override
+    public ExecutionLane getLane() {
+        return ExecutionLane.CONTROL;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeEnum(out, action);
+        out.writeString(destinationGroup);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        action = SerializationSupport.readEnum(in, ManageGroupAction.class);
+        destinationGroup = in.readString();
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return super.toString() + "ManageGroupCommand{" + "action=" + action + ", destinationGroup=" + destinationGroup + '}';
@@ -13,17 +13,24 @@
  */
 package org.apache.karaf.cellar.core.control;
 
-import org.apache.karaf.cellar.core.Group;
-import org.apache.karaf.cellar.core.command.Result;
-
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.Set;
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Manager group result.
  */
 public class ManageGroupResult extends Result {
 
+    private static final long serialVersionUID = -8695683396686055117L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private Set<Group> groups = new HashSet<Group>();
 
     public ManageGroupResult() {
@@ -33,6 +40,22 @@ public class ManageGroupResult extends Result {
         super(id);
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeCollection(out, groups);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        groups = SerializationSupport.readSet(in);
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return "ManageGroupResult{" + "groups=" + groups + '}';
@@ -13,13 +13,22 @@
  */
 package org.apache.karaf.cellar.core.control;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Manage handlers command.
  */
 public class ManageHandlersCommand extends Command<ManageHandlersResult> {
 
+    private static final long serialVersionUID = -7256724910987232875L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private String handlerName;
     private Boolean status = true;
 
@@ -30,6 +39,29 @@ public class ManageHandlersCommand extends Command<ManageHandlersResult> {
         super(id);
     }
 
+    @Override
+    public ExecutionLane getLane() {
+        return ExecutionLane.CONTROL;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(handlerName);
+        SerializationSupport.writeBoolean(out, status);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        handlerName = in.readString();
+        status = SerializationSupport.readBoolean(in);
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return super.toString() + "ManageHandlersCommand{" + "handlerName=" + handlerName + ", status=" + status + '}';
@@ -13,15 +13,23 @@
  */
 package org.apache.karaf.cellar.core.control;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Manage handlers result.
  */
 public class ManageHandlersResult extends Result {
 
+    private static final long serialVersionUID = 1623076617766864394L;
+
+    private static final int FIELDS_VERSION = 1;
+
     public Map<String, String> handlers = new HashMap<String, String>();
 
     public ManageHandlersResult() {
@@ -31,6 +39,22 @@ public class ManageHandlersResult extends Result {
         super(id);
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeMap(out, handlers);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        handlers = SerializationSupport.readMap(in);
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return super.toString() + "ManageHandlersResult{" + "handlers=" + handlers + '}';
@@ -15,7 +15,12 @@
  */
 package org.apache.karaf.cellar.core.control;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  *
@@ -23,6 +28,10 @@ import org.apache.karaf.cellar.core.command.Command;
  */
 public class NodeConfigurationCommand extends Command<NodeConfigurationResult> {
 
+    private static final long serialVersionUID = -3130126089102623829L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private SwitchStatus status = null;
     private SwitchType type = null;
 
@@ -39,6 +48,29 @@ public class NodeConfigurationCommand extends Command<NodeConfigurationResult> {
         this.type = type;
     }
 
+    @Override
+    public ExecutionLane getLane() {
+        return ExecutionLane.CONTROL;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeEnum(out, status);
+        SerializationSupport.writeEnum(out, type);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        status = SerializationSupport.readEnum(in, SwitchStatus.class);
+        type = SerializationSupport.readEnum(in, SwitchType.class);
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return super.toString() + "NodeConfigurationCommand{" + "status=" + status + ", type=" + type + '}';
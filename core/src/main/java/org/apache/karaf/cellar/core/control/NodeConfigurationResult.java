@@ -15,7 +15,11 @@
  */
 package org.apache.karaf.cellar.core.control;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  *
@@ -23,6 +27,10 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class NodeConfigurationResult extends Result {
 
+    private static final long serialVersionUID = -8068287663953818781L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private SwitchType switchType;
     private SwitchStatus switchStatus;
 
@@ -33,6 +41,24 @@ public class NodeConfigurationResult extends Result {
         super(id);
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeEnum(out, switchType);
+        SerializationSupport.writeEnum(out, switchStatus);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        switchType = SerializationSupport.readEnum(in, SwitchType.class);
+        switchStatus = SerializationSupport.readEnum(in, SwitchStatus.class);
+        in.endFields();
+    }
+
     @Override
     public String toString() {
         return super.toString() + "NodeConfigurationResult{" + "switchType=" + switchType + ", switchStatus=" + switchStatus + '}';
@@ -0,0 +1,245 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.event;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the cluster events applied by the local handlers so the local listeners don't broadcast back the changes
+ * they cause. An event is pending during a time window after its handling started, as the local changes may be
+ * notified asynchronously after the handler returned. Events are tracked by id and source cluster group, a change
+ * applied from a cluster group is still broadcast to the other cluster groups of the node.
+ * <p/>
+ * An event started with the local states it is expected to result in only suppresses the local changes resulting in
+ * these states, once each: a real local change made in the time window, or made after the echo, is still broadcast.
+ * <p/>
+ * The tracked events are spread over lock stripes, each stripe keeping a bounded number of events and dropping the
+ * oldest ones first.
+ */
+public class BasicEventTracker implements EventTracker<Event> {
+
+    private static final int STRIPES = 16;
+    /**
+     * Expected state of the events started without state, matching every local change until they expire.
+     */
+    private static final Object ANY_STATE = new Object();
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong suppressedCount = new AtomicLong();
+    private volatile long window = 10000;
+
+    public BasicEventTracker() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(256);
+        }
+    }
+
+    @Override
+    public void start(Event event) {
+        start(event, ANY_STATE);
+    }
+
+    @Override
+    public void start(Event event, Object expectedState) {
+        String key = key(event.getId(), groupName(event));
+        Stripe stripe = stripe(key);
+        long now = System.currentTimeMillis();
+        synchronized (stripe) {
+            Pending pending = stripe.remove(key);
+            if (pending == null || pending.expiresAt <= now) {
+                pending = new Pending();
+            }
+            pending.expiresAt = now + window;
+            pending.expectedStates.add(expectedState);
+            // re-inserted so the stripe stays ordered by expiration time
+            stripe.put(key, pending);
+            stripe.purge(now);
+        }
+    }
+
+    @Override
+    public void stop(Event event) {
+        String key = key(event.getId(), groupName(event));
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.remove(key);
+        }
+    }
+
+    @Override
+    public Boolean isPending(Event event) {
+        return isPending(key(event.getId(), groupName(event)));
+    }
+
+    /**
+     * Check if a local change is the echo of a cluster event received from a cluster group, every positive check is
+     * counted as a suppressed event.
+     *
+     * @param id the cluster event id.
+     * @param groupName the name of the cluster group the event has been received from.
+     * @return true if the cluster event is pending, in which case the local change must not be broadcast.
+     */
+    @Override
+    public Boolean isPending(String id, String groupName) {
+        boolean pending = isPending(key(id, groupName));
+        if (pending) {
+            suppressedCount.incrementAndGet();
+        }
+        return pending;
+    }
+
+    @Override
+    public Boolean isEcho(String id, String groupName, Object state) {
+        String key = key(id, groupName);
+        Stripe stripe = stripe(key);
+        boolean echo = false;
+        synchronized (stripe) {
+            Pending pending = stripe.get(key);
+            if (pending == null) {
+                return false;
+            }
+            if (pending.expiresAt <= System.currentTimeMillis()) {
+                stripe.remove(key);
+                return false;
+            }
+            if (pending.expectedStates.contains(ANY_STATE)) {
+                echo = true;
+            } else if (pending.expectedStates.remove(state)) {
+                echo = true;
+                if (pending.expectedStates.isEmpty()) {
+                    stripe.remove(key);
+                }
+            }
+        }
+        if (echo) {
+            suppressedCount.incrementAndGet();
+        }
+        return echo;
+    }
+
+    private boolean isPending(String key) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            Pending pending = stripe.get(key);
+            if (pending == null) {
+                return false;
+            }
+            if (pending.expiresAt <= System.currentTimeMillis()) {
+                stripe.remove(key);
+                return false;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    /**
+     * @return the number of events currently tracked, including the expired ones not purged yet.
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static String key(String id, String groupName) {
+        return id + "@" + (groupName != null ? groupName : "");
+    }
+
+    private static String groupName(Event event) {
+        return event.getSourceGroupName();
+    }
+
+    private Stripe stripe(String key) {
+        return stripes[(key.hashCode() & Integer.MAX_VALUE) % STRIPES];
+    }
+
+    /**
+     * @return the window
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * @param window the time, in milliseconds, an event stays pending after its handling started.
+     */
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    /**
+     * @param maxEntries the maximum number of events tracked.
+     */
+    public void setMaxEntries(int maxEntries) {
+        int stripeEntries = Math.max(1, maxEntries / STRIPES);
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.maxEntries = stripeEntries;
+            }
+        }
+    }
+
+    /**
+     * A tracked event, with its expiration time and the local states it is still expected to result in.
+     */
+    private static class Pending {
+
+        private long expiresAt;
+        private final List<Object> expectedStates = new ArrayList<Object>(2);
+    }
+
+    /**
+     * Events of a stripe, in insertion order so the oldest events are dropped first.
+     */
+    private static class Stripe extends LinkedHashMap<String, Pending> {
+
+        private int maxEntries;
+
+        public Stripe(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pending> eldest) {
+            return size() > maxEntries;
+        }
+
+        /**
+         * Remove the expired events from the oldest one until a pending one is found.
+         */
+        public void purge(long now) {
+            Iterator<Map.Entry<String, Pending>> iterator = entrySet().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().getValue().expiresAt > now) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+    }
+}
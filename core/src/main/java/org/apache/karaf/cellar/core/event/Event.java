@@ -13,24 +13,38 @@
  */
 package org.apache.karaf.cellar.core.event;
 
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 import org.apache.karaf.cellar.core.Group;
 import org.apache.karaf.cellar.core.Node;
-
-import java.io.Serializable;
-import java.util.Set;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+import org.apache.karaf.cellar.core.serialization.ReferenceResolver;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * This class represents an event that is broad-casted to the cluster. The event is always generated by a single node
  * (source) but can have none or multiple destinations.
+ * <p/>
+ * In the Cellar binary format the nodes are written by id and the source group by name. The receiving node resolves
+ * the nodes from its member index and the source group only when {@link #getSourceGroup()} is called.
  */
-public class Event implements Serializable {
+public class Event implements CellarSerializable {
+
+    private static final long serialVersionUID = -5042613416977825324L;
+
+    private static final int FIELDS_VERSION = 2;
 
     protected String id;
     protected Node sourceNode;
     protected Group sourceGroup;
+    protected String sourceGroupName;
     protected Set<Node> destination;
     protected Boolean force = Boolean.FALSE;
     protected Boolean postPublish = Boolean.FALSE;
+    private transient ReferenceResolver referenceResolver;
 
     public Event() {
     }
@@ -56,11 +70,28 @@ public class Event implements Serializable {
     }
 
     public Group getSourceGroup() {
+        if (sourceGroup == null && sourceGroupName != null) {
+            Group group = referenceResolver != null ? referenceResolver.resolveGroup(sourceGroupName) : null;
+            sourceGroup = group != null ? group : new Group(sourceGroupName);
+        }
         return sourceGroup;
     }
 
     public void setSourceGroup(Group sourceGroup) {
         this.sourceGroup = sourceGroup;
+        this.sourceGroupName = sourceGroup != null ? sourceGroup.getName() : null;
+    }
+
+    /**
+     * Get the name of the source group, without resolving the group.
+     *
+     * @return the source group name.
+     */
+    public String getSourceGroupName() {
+        if (sourceGroupName == null && sourceGroup != null) {
+            return sourceGroup.getName();
+        }
+        return sourceGroupName;
     }
 
     public Set<Node> getDestination() {
@@ -87,8 +118,55 @@ public class Event implements Serializable {
         this.postPublish = postPublish;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeString(id);
+        out.writeNodeReference(sourceNode);
+        out.writeString(getSourceGroupName());
+        if (destination == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(destination.size());
+            for (Node node : destination) {
+                out.writeNodeReference(node);
+            }
+        }
+        SerializationSupport.writeBoolean(out, force);
+        SerializationSupport.writeBoolean(out, postPublish);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        int version = in.startFields();
+        id = in.readString();
+        if (version < 2) {
+            sourceNode = in.readObject();
+            setSourceGroup(in.<Group>readObject());
+            destination = SerializationSupport.readSet(in);
+        } else {
+            sourceNode = in.readNodeReference();
+            sourceGroup = null;
+            sourceGroupName = in.readString();
+            referenceResolver = in.getReferenceResolver();
+            int size = in.readInt();
+            if (size < 0) {
+                destination = null;
+            } else {
+                destination = new HashSet<Node>(Math.max(16, (int) (size / .75f) + 1));
+                for (int i = 0; i < size; i++) {
+                    destination.add(in.readNodeReference());
+                }
+            }
+        }
+        force = SerializationSupport.readBoolean(in);
+        postPublish = SerializationSupport.readBoolean(in);
+        in.endFields();
+    }
+
     @Override
     public String toString() {
-        return "Event{" + "id=" + id + ", sourceNode=" + sourceNode + ", sourceGroup=" + sourceGroup + ", destination=" + destination + ", force=" + force + ", postPublish=" + postPublish + '}';
+        return "Event{" + "id=" + id + ", sourceNode=" + sourceNode + ", sourceGroup=" + getSourceGroupName() + ", destination=" + destination + ", force=" + force + ", postPublish=" + postPublish + '}';
     }
 }
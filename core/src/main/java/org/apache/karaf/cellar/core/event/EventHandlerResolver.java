@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.karaf.cellar.core.command.DistributedResult;
+import org.osgi.framework.BundleContext;
+import org.osgi.util.tracker.ServiceTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the handlers of the distributed tasks through a long lived tracker on the event handler registry, so
+ * executing a task doesn't go through the OSGi service registry. Also measures the time spent looking up and
+ * executing the handlers.
+ */
+public class EventHandlerResolver {
+
+    private static final transient Logger LOGGER = LoggerFactory.getLogger(EventHandlerResolver.class);
+    private static volatile EventHandlerResolver instance;
+
+    private BundleContext bundleContext;
+    private ServiceTracker<EventHandlerRegistry, EventHandlerRegistry> tracker;
+    private final AtomicLong lookupCount = new AtomicLong();
+    private final AtomicLong lookupTime = new AtomicLong();
+    private final AtomicLong executionCount = new AtomicLong();
+    private final AtomicLong executionTime = new AtomicLong();
+
+    public void init() {
+        tracker = new ServiceTracker<EventHandlerRegistry, EventHandlerRegistry>(bundleContext, EventHandlerRegistry.class, null);
+        tracker.open();
+        instance = this;
+    }
+
+    public void destroy() {
+        if (instance == this) {
+            instance = null;
+        }
+        if (tracker != null) {
+            tracker.close();
+        }
+    }
+
+    /**
+     * Get the active resolver.
+     *
+     * @return the resolver or null if the Cellar core isn't started.
+     */
+    public static EventHandlerResolver getInstance() {
+        return instance;
+    }
+
+    /**
+     * Look up the handler of a cluster event.
+     *
+     * @param event the cluster event.
+     * @return the handler or null if the registry isn't available or no handler is registered for the event.
+     */
+    public <E extends Event, R extends DistributedResult> EventHandler<E, R> resolve(E event) {
+        long start = System.nanoTime();
+        try {
+            EventHandlerRegistry<E, R> registry = tracker.getService();
+            if (registry == null) {
+                return null;
+            }
+            return registry.getHandler(event);
+        } finally {
+            lookupTime.addAndGet(System.nanoTime() - start);
+            lookupCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Execute a cluster event with its handler.
+     *
+     * @param handler the handler.
+     * @param event the cluster event.
+     * @return the handler result.
+     */
+    public <E extends Event, R extends DistributedResult> R execute(EventHandler<E, R> handler, E event) {
+        long start = System.nanoTime();
+        try {
+            return handler.execute(event);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            executionTime.addAndGet(elapsed);
+            executionCount.incrementAndGet();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("CELLAR: event {} handled by {} in {} ms", new Object[]{event.getId(), handler.getClass().getName(), TimeUnit.NANOSECONDS.toMillis(elapsed)});
+            }
+        }
+    }
+
+    /**
+     * @return the number of handler lookups.
+     */
+    public long getLookupCount() {
+        return lookupCount.get();
+    }
+
+    /**
+     * @return the total time spent looking up handlers, in nanoseconds.
+     */
+    public long getLookupTime() {
+        return lookupTime.get();
+    }
+
+    /**
+     * @return the number of handler executions.
+     */
+    public long getExecutionCount() {
+        return executionCount.get();
+    }
+
+    /**
+     * @return the total time spent executing handlers, in nanoseconds.
+     */
+    public long getExecutionTime() {
+        return executionTime.get();
+    }
+
+    /**
+     * @return the bundleContext
+     */
+    public BundleContext getBundleContext() {
+        return bundleContext;
+    }
+
+    /**
+     * @param bundleContext the bundleContext to set
+     */
+    public void setBundleContext(BundleContext bundleContext) {
+        this.bundleContext = bundleContext;
+    }
+}
@@ -13,19 +13,39 @@
  */
 package org.apache.karaf.cellar.core.event;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import org.apache.karaf.cellar.core.NodeConfiguration;
 import org.apache.karaf.cellar.core.command.DistributedResult;
+import org.apache.karaf.cellar.core.control.Switch;
+import org.apache.karaf.cellar.core.utils.CellarUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Event handler service registry.
+ * <p/>
+ * Handlers are registered by the event class they handle. Dispatching an event reads a table keyed by the event
+ * class which resolves handlers registered for a superclass of the event and holds whether the handler is switched
+ * on. The enabled state is computed once from the enabled events of the node configuration and applied to the handler
+ * switch when a handler enters the table, so neither the registry nor the handlers read the node configuration on
+ * dispatch. The table is rebuilt when handlers are bound or unbound, when the node configuration is bound and when its
+ * enabled events are updated.
  */
 public class EventHandlerServiceRegistry<E extends Event, R extends DistributedResult> implements EventHandlerRegistry<E, R> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EventHandlerServiceRegistry.class);
-    private final Map<String, EventHandler> eventHandlerMap = new ConcurrentHashMap<String, EventHandler>();
+    /**
+     * Node configuration property holding the enabled event types.
+     */
+    public static final String ENABLED_EVENTS_PROPERTY = "enabledEvents";
+    private static final Dispatch NO_HANDLER = new Dispatch(null, false);
+    private final Map<Class<?>, EventHandler> eventHandlerMap = new ConcurrentHashMap<Class<?>, EventHandler>();
+    private final Map<Class<?>, Dispatch> dispatchTable = new ConcurrentHashMap<Class<?>, Dispatch>();
+    private volatile Set<String> enabledEvents;
 
     /**
      * Return the appropriate cluster {@code EventHandler} found inside the cluster {@code HandlerRegistry}.
@@ -36,23 +56,138 @@ public class EventHandlerServiceRegistry<E extends Event, R extends DistributedR
     @Override
     public EventHandler<E, R> getHandler(E event) {
         if (event != null) {
-            Class clazz = event.getClass();
-            return eventHandlerMap.get(clazz.getCanonicalName());
+            Dispatch dispatch = lookup(event.getClass());
+            if (!dispatch.enabled && dispatch.handler != null && LOGGER.isDebugEnabled()) {
+                LOGGER.debug("CELLAR: handler {} of event {} is switched off", dispatch.handler.getClass().getName(), event.getId());
+            }
+            return dispatch.handler;
         } else {
             LOGGER.warn("Couldn't lookup handler for event: {}", eventHandlerMap);
         }
         return null;
     }
 
+    private Dispatch lookup(Class<?> eventClass) {
+        Dispatch dispatch = dispatchTable.get(eventClass);
+        if (dispatch == null) {
+            dispatch = resolve(eventClass);
+        }
+        return dispatch;
+    }
+
+    /**
+     * Look up the handler of an event class or of its closest superclass having one, and cache the result with the
+     * handler enabled state, applied to the handler switch.
+     */
+    private synchronized Dispatch resolve(Class<?> eventClass) {
+        Dispatch dispatch = dispatchTable.get(eventClass);
+        if (dispatch != null) {
+            return dispatch;
+        }
+        dispatch = NO_HANDLER;
+        for (Class<?> type = eventClass; type != null; type = type.getSuperclass()) {
+            EventHandler handler = eventHandlerMap.get(type);
+            if (handler != null) {
+                Set<String> events = enabledEvents;
+                boolean enabled = events != null && handler.getType() != null && events.contains(handler.getType().getName());
+                Switch handlerSwitch = handler.getSwitch();
+                if (handlerSwitch != null) {
+                    if (enabled) {
+                        handlerSwitch.turnOn();
+                    } else {
+                        handlerSwitch.turnOff();
+                    }
+                }
+                dispatch = new Dispatch(handler, enabled);
+                break;
+            }
+        }
+        dispatchTable.put(eventClass, dispatch);
+        return dispatch;
+    }
+
+    /**
+     * Clear the dispatch table, the handlers enabled state is computed again when the table is filled again.
+     */
+    public synchronized void refresh() {
+        dispatchTable.clear();
+    }
+
     public void bind(EventHandler handler) {
         if (handler != null && handler.getType() != null) {
-            eventHandlerMap.put(handler.getType().getCanonicalName(), handler);
+            eventHandlerMap.put(handler.getType(), handler);
+            refresh();
         }
     }
 
     public void unbind(EventHandler handler) {
         if (handler != null && handler.getType() != null) {
-            eventHandlerMap.remove(handler.getType().getCanonicalName());
+            eventHandlerMap.remove(handler.getType());
+            refresh();
+        }
+    }
+
+    public void bindNodeConfiguration(NodeConfiguration nodeConfiguration) {
+        if (nodeConfiguration != null) {
+            Set<String> events = nodeConfiguration.getEnabledEvents();
+            setEnabledEvents(events != null ? new HashSet<String>(events) : null);
+        }
+    }
+
+    public void unbindNodeConfiguration(NodeConfiguration nodeConfiguration) {
+        setEnabledEvents(null);
+    }
+
+    /**
+     * Called when the node configuration is updated, the dispatch table is rebuilt if the enabled events are part of
+     * the update.
+     *
+     * @param properties the node configuration properties.
+     */
+    public void nodeConfigurationUpdated(Map<String, ?> properties) {
+        if (properties != null && properties.containsKey(ENABLED_EVENTS_PROPERTY)) {
+            setEnabledEvents(toSet(properties.get(ENABLED_EVENTS_PROPERTY)));
+        }
+    }
+
+    private synchronized void setEnabledEvents(Set<String> enabledEvents) {
+        this.enabledEvents = enabledEvents;
+        refresh();
+    }
+
+    /**
+     * Convert a configuration value, a collection, an array or a comma separated string, to a set.
+     */
+    private static Set<String> toSet(Object value) {
+        if (value == null) {
+            return null;
+        }
+        Set<String> set = new HashSet<String>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                set.add(String.valueOf(item).trim());
+            }
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                set.add(String.valueOf(item).trim());
+            }
+        } else {
+            set.addAll(CellarUtils.createSetFromString(String.valueOf(value)));
+        }
+        return set;
+    }
+
+    /**
+     * Entry of the dispatch table.
+     */
+    private static class Dispatch {
+
+        private final EventHandler handler;
+        private final boolean enabled;
+
+        public Dispatch(EventHandler handler, boolean enabled) {
+            this.handler = handler;
+            this.enabled = enabled;
         }
     }
 
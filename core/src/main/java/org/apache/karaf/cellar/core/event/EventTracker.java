@@ -25,6 +25,16 @@ public interface EventTracker<E extends Event> {
      */
     public void start(E event);
 
+    /**
+     * Start to track the occurrence of a cluster {@code Event} expected to result in a given local state. The local
+     * change resulting in this state is the echo of the event, the other local changes are real changes. An event
+     * expecting several local changes is started once per expected state.
+     *
+     * @param event the cluster event to track.
+     * @param expectedState the local state the handling of the event results in, may be null.
+     */
+    public void start(E event, Object expectedState);
+
     /**
      * Stop to track the occurrence of a cluster {@code Event}.
      *
@@ -40,4 +50,32 @@ public interface EventTracker<E extends Event> {
      */
     public Boolean isPending(E event);
 
+    /**
+     * Check if a local change is the echo of a cluster event received from a cluster group.
+     *
+     * @param id the cluster event id.
+     * @param groupName the name of the cluster group the event has been received from.
+     * @return true if the cluster event is pending, false else.
+     */
+    public Boolean isPending(String id, String groupName);
+
+    /**
+     * Check if a local change is the echo of a cluster event received from a cluster group, that is if it results in
+     * a state expected by the pending event. The expected state is consumed by its echo, so a later local change
+     * resulting in the same state is a real change.
+     *
+     * @param id the cluster event id.
+     * @param groupName the name of the cluster group the event has been received from.
+     * @param state the local state resulting from the change, may be null.
+     * @return true if the local change is the echo of a pending cluster event, false else.
+     */
+    public Boolean isEcho(String id, String groupName, Object state);
+
+    /**
+     * Get the number of local changes found to be echoes of cluster events.
+     *
+     * @return the number of suppressed events.
+     */
+    public long getSuppressedCount();
+
 }
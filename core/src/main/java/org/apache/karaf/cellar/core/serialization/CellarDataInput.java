@@ -0,0 +1,73 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.DataInput;
+import java.io.IOException;
+import org.apache.karaf.cellar.core.Node;
+
+/**
+ * Input of the Cellar binary format.
+ */
+public interface CellarDataInput extends DataInput {
+
+    /**
+     * Start reading the fields of a class written between {@link CellarDataOutput#startFields(int)} and
+     * {@link CellarDataOutput#endFields()}.
+     *
+     * @return the layout version the fields of the class have been written with.
+     * @throws IOException in case of read failure.
+     */
+    int startFields() throws IOException;
+
+    /**
+     * End reading the fields of the class started by the last {@link #startFields()}, the fields appended by a newer
+     * layout of the class are skipped.
+     *
+     * @throws IOException in case of read failure.
+     */
+    void endFields() throws IOException;
+
+    /**
+     * Read a string written by {@link CellarDataOutput#writeString(String)}.
+     *
+     * @return the string, may be null.
+     * @throws IOException in case of read failure.
+     */
+    String readString() throws IOException;
+
+    /**
+     * Read an object written by {@link CellarDataOutput#writeObject(Object)}.
+     *
+     * @return the object, may be null.
+     * @throws IOException in case of read failure.
+     */
+    <T> T readObject() throws IOException;
+
+    /**
+     * Read a node written by {@link CellarDataOutput#writeNodeReference(Node)}.
+     *
+     * @return the node known by this node, may be null.
+     * @throws IOException in case of read failure.
+     */
+    Node readNodeReference() throws IOException;
+
+    /**
+     * Get the resolver of the groups referenced by name.
+     *
+     * @return the resolver, null if the references can't be resolved.
+     */
+    ReferenceResolver getReferenceResolver();
+
+}
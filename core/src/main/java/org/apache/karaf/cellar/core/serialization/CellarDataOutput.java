@@ -0,0 +1,67 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import org.apache.karaf.cellar.core.Node;
+
+/**
+ * Output of the Cellar binary format.
+ */
+public interface CellarDataOutput extends DataOutput {
+
+    /**
+     * Start the fields of a class of the object being written. Each class of a hierarchy writes its own fields
+     * between {@link #startFields(int)} and {@link #endFields()}, after the fields of its super class, so a reader
+     * knowing an older layout of any class of the hierarchy skips the fields appended to it.
+     *
+     * @param version the layout version of the fields of the class.
+     * @throws IOException in case of write failure.
+     */
+    void startFields(int version) throws IOException;
+
+    /**
+     * End the fields of the class started by the last {@link #startFields(int)}.
+     *
+     * @throws IOException in case of write failure.
+     */
+    void endFields() throws IOException;
+
+    /**
+     * Write a string which may be null.
+     *
+     * @param value the string to write.
+     * @throws IOException in case of write failure.
+     */
+    void writeString(String value) throws IOException;
+
+    /**
+     * Write an object which may be null, Cellar types are written in the Cellar binary format, strings and common
+     * wrappers with a tag, the other types with Java serialization.
+     *
+     * @param value the object to write.
+     * @throws IOException in case of write failure.
+     */
+    void writeObject(Object value) throws IOException;
+
+    /**
+     * Write a reference to a node which may be null, only its id is written.
+     *
+     * @param node the node to write.
+     * @throws IOException in case of write failure.
+     */
+    void writeNodeReference(Node node) throws IOException;
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.karaf.cellar.core.Node;
+
+/**
+ * Reads objects written by a {@link CellarObjectWriter}. Unregistered classes are loaded with the given class loader,
+ * nodes written by reference are resolved with the given resolver. Fields appended to a class by a newer layout than
+ * the one known by this node are skipped.
+ */
+public class CellarObjectReader implements CellarDataInput {
+
+    private final Input input;
+    private final DataInputStream in;
+    private final ClassLoader classLoader;
+    private final ReferenceResolver referenceResolver;
+    private final Map<String, Class<?>> classCache;
+    private final Deque<Integer> fieldEnds = new ArrayDeque<Integer>();
+
+    public CellarObjectReader(byte[] data, ClassLoader classLoader, ReferenceResolver referenceResolver) {
+        this(data, 0, data.length, classLoader, referenceResolver, new ConcurrentHashMap<String, Class<?>>());
+    }
+
+    /**
+     * @param data the buffer to read from.
+     * @param offset the offset of the first byte to read.
+     * @param length the number of bytes to read.
+     * @param classLoader the class loader of the types read, the loader of this class if null.
+     * @param referenceResolver the resolver of the nodes and groups written by reference, may be null.
+     * @param classCache the classes already loaded by name, shared by the readers using the same class loader.
+     */
+    public CellarObjectReader(byte[] data, int offset, int length, ClassLoader classLoader, ReferenceResolver referenceResolver, Map<String, Class<?>> classCache) {
+        this.input = new Input(data, offset, length);
+        this.in = new DataInputStream(input);
+        this.classLoader = classLoader != null ? classLoader : getClass().getClassLoader();
+        this.referenceResolver = referenceResolver;
+        this.classCache = classCache;
+    }
+
+    @Override
+    public int startFields() throws IOException {
+        int version = in.readUnsignedByte();
+        int length = in.readInt();
+        if (length < 0 || length > input.available()) {
+            throw new StreamCorruptedException("Invalid length " + length + " of Cellar fields");
+        }
+        fieldEnds.push(input.position() + length);
+        return version;
+    }
+
+    @Override
+    public void endFields() throws IOException {
+        if (fieldEnds.isEmpty()) {
+            throw new StreamCorruptedException("No Cellar fields started");
+        }
+        int remaining = fieldEnds.pop() - input.position();
+        if (remaining < 0) {
+            throw new StreamCorruptedException("Read past the end of Cellar fields");
+        }
+        // fields appended by a newer layout
+        in.skipBytes(remaining);
+    }
+
+    @Override
+    public String readString() throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, CellarObjectWriter.UTF8);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readObject() throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case CellarObjectWriter.NULL:
+                return null;
+            case CellarObjectWriter.CELLAR:
+                return (T) readCellarObject();
+            case CellarObjectWriter.STRING:
+                return (T) readString();
+            case CellarObjectWriter.INTEGER:
+                return (T) Integer.valueOf(in.readInt());
+            case CellarObjectWriter.LONG:
+                return (T) Long.valueOf(in.readLong());
+            case CellarObjectWriter.BOOLEAN:
+                return (T) Boolean.valueOf(in.readBoolean());
+            case CellarObjectWriter.JAVA:
+                return (T) readJavaObject();
+            default:
+                throw new StreamCorruptedException("Unknown Cellar value tag " + tag);
+        }
+    }
+
+    private CellarSerializable readCellarObject() throws IOException {
+        int typeId = in.readShort();
+        Class<?> type;
+        if (typeId == CellarTypes.UNKNOWN) {
+            String className = readString();
+            try {
+                type = loadClass(className);
+            } catch (ClassNotFoundException e) {
+                throw (IOException) new IOException("Unable to load the Cellar type " + className).initCause(e);
+            }
+        } else {
+            type = CellarTypes.getType(typeId);
+            if (type == null) {
+                throw new StreamCorruptedException("Unknown Cellar type id " + typeId);
+            }
+        }
+        CellarSerializable object = newInstance(type);
+        object.readData(this);
+        return object;
+    }
+
+    private CellarSerializable newInstance(Class<?> type) throws IOException {
+        if (!CellarSerializable.class.isAssignableFrom(type)) {
+            throw new StreamCorruptedException(type.getName() + " is not a Cellar type");
+        }
+        try {
+            return (CellarSerializable) type.newInstance();
+        } catch (InstantiationException e) {
+            throw (IOException) new IOException("Unable to create an instance of " + type.getName()).initCause(e);
+        } catch (IllegalAccessException e) {
+            throw (IOException) new IOException("Unable to create an instance of " + type.getName()).initCause(e);
+        }
+    }
+
+    private Class<?> loadClass(String className) throws ClassNotFoundException {
+        Class<?> type = classCache.get(className);
+        if (type == null) {
+            type = Class.forName(className, false, classLoader);
+            classCache.put(className, type);
+        }
+        return type;
+    }
+
+    private Object readJavaObject() throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        ObjectInputStream ois = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return ois.readObject();
+        } catch (ClassNotFoundException e) {
+            throw (IOException) new IOException("Unable to read a Java serialized value").initCause(e);
+        } finally {
+            ois.close();
+        }
+    }
+
+    @Override
+    public Node readNodeReference() throws IOException {
+        String id = readString();
+        if (id == null) {
+            return null;
+        }
+        if (referenceResolver != null) {
+            return referenceResolver.resolveNode(id);
+        }
+        return new UnresolvedNode(id);
+    }
+
+    @Override
+    public ReferenceResolver getReferenceResolver() {
+        return referenceResolver;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        in.readFully(b);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        in.readFully(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        return in.skipBytes(n);
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return in.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return in.readByte();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return in.readUnsignedByte();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return in.readShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return in.readUnsignedShort();
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return in.readChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return in.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return in.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return in.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return in.readDouble();
+    }
+
+    @Override
+    @Deprecated
+    public String readLine() throws IOException {
+        return in.readLine();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return in.readUTF();
+    }
+
+    /**
+     * Byte array input stream giving its position.
+     */
+    private static class Input extends ByteArrayInputStream {
+
+        public Input(byte[] data, int offset, int length) {
+            super(data, offset, length);
+        }
+
+        public int position() {
+            return pos;
+        }
+    }
+
+    /**
+     * Object input stream loading the classes with the reader class loader.
+     */
+    private class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        public ClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(desc.getName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+    }
+}
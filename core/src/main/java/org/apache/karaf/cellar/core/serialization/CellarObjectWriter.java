@@ -0,0 +1,265 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.apache.karaf.cellar.core.Node;
+
+/**
+ * Writes objects in the Cellar binary format to an in memory buffer. Cellar types are written with their type id and
+ * the fields of each class of their hierarchy, prefixed by the layout version and length of the fields. Strings and
+ * common wrappers are written with a tag, the other objects with Java serialization.
+ */
+public class CellarObjectWriter implements CellarDataOutput {
+
+    static final byte NULL = 0;
+    static final byte CELLAR = 1;
+    static final byte STRING = 2;
+    static final byte INTEGER = 3;
+    static final byte LONG = 4;
+    static final byte BOOLEAN = 5;
+    static final byte JAVA = 6;
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final Buffer buffer;
+    private final DataOutputStream out;
+    private final Deque<Integer> fieldStarts = new ArrayDeque<Integer>();
+
+    public CellarObjectWriter() {
+        this(256);
+    }
+
+    public CellarObjectWriter(int initialSize) {
+        this.buffer = new Buffer(initialSize);
+        this.out = new DataOutputStream(buffer);
+    }
+
+    /**
+     * Serialize an object in the Cellar binary format.
+     *
+     * @param value the object to serialize.
+     * @return the serialized object.
+     * @throws IOException in case of write failure.
+     */
+    public static byte[] toBytes(Object value) throws IOException {
+        CellarObjectWriter writer = new CellarObjectWriter();
+        writer.writeObject(value);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(UTF8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Override
+    public void writeObject(Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof CellarSerializable) {
+            out.writeByte(CELLAR);
+            writeCellarObject((CellarSerializable) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString((String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            out.writeByte(JAVA);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bytes);
+            oos.writeObject(value);
+            oos.close();
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    private void writeCellarObject(CellarSerializable value) throws IOException {
+        int typeId = CellarTypes.getTypeId(value.getClass());
+        out.writeShort(typeId);
+        if (typeId == CellarTypes.UNKNOWN) {
+            writeString(value.getClass().getName());
+        }
+        value.writeData(this);
+    }
+
+    @Override
+    public void startFields(int version) throws IOException {
+        out.writeByte(version);
+        fieldStarts.push(buffer.size());
+        // the fields are length prefixed so readers of an older layout can skip the fields they don't know
+        out.writeInt(0);
+    }
+
+    @Override
+    public void endFields() throws IOException {
+        int start = fieldStarts.pop();
+        buffer.writeIntAt(start, buffer.size() - start - 4);
+    }
+
+    @Override
+    public void writeNodeReference(Node node) throws IOException {
+        writeString(node != null ? node.getId() : null);
+    }
+
+    /**
+     * @return the number of bytes written.
+     */
+    public int size() {
+        return buffer.size();
+    }
+
+    /**
+     * Get the buffer holding the bytes written, only the first {@link #size()} bytes are valid.
+     *
+     * @return the buffer, without copy.
+     */
+    public byte[] getBuffer() {
+        return buffer.array();
+    }
+
+    /**
+     * @return a copy of the bytes written.
+     */
+    public byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    /**
+     * @return a stream writing to the buffer of this writer.
+     */
+    public OutputStream getOutputStream() {
+        return out;
+    }
+
+    /**
+     * Discard the bytes written to reuse the writer.
+     */
+    public void reset() {
+        buffer.reset();
+        fieldStarts.clear();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b) throws IOException {
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void writeBoolean(boolean v) throws IOException {
+        out.writeBoolean(v);
+    }
+
+    @Override
+    public void writeByte(int v) throws IOException {
+        out.writeByte(v);
+    }
+
+    @Override
+    public void writeShort(int v) throws IOException {
+        out.writeShort(v);
+    }
+
+    @Override
+    public void writeChar(int v) throws IOException {
+        out.writeChar(v);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        out.writeInt(v);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        out.writeLong(v);
+    }
+
+    @Override
+    public void writeFloat(float v) throws IOException {
+        out.writeFloat(v);
+    }
+
+    @Override
+    public void writeDouble(double v) throws IOException {
+        out.writeDouble(v);
+    }
+
+    @Override
+    public void writeBytes(String s) throws IOException {
+        out.writeBytes(s);
+    }
+
+    @Override
+    public void writeChars(String s) throws IOException {
+        out.writeChars(s);
+    }
+
+    @Override
+    public void writeUTF(String s) throws IOException {
+        out.writeUTF(s);
+    }
+
+    /**
+     * Byte array output stream giving access to its buffer.
+     */
+    private static class Buffer extends ByteArrayOutputStream {
+
+        public Buffer(int size) {
+            super(size);
+        }
+
+        public byte[] array() {
+            return buf;
+        }
+
+        public void writeIntAt(int position, int value) {
+            buf[position] = (byte) (value >>> 24);
+            buf[position + 1] = (byte) (value >>> 16);
+            buf[position + 2] = (byte) (value >>> 8);
+            buf[position + 3] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * A Cellar type written field by field in the Cellar binary format instead of with Java serialization. The type should
+ * be registered in {@link CellarTypes} and must have a public no argument constructor, unregistered types are written
+ * with their class name.
+ * <p/>
+ * Each class of a hierarchy writes its own fields between {@link CellarDataOutput#startFields(int)} and
+ * {@link CellarDataOutput#endFields()}, after the fields of its super class, with the layout version of its own fields.
+ * New fields are only appended, and read when the version returned by {@link CellarDataInput#startFields()} says they
+ * were written, so nodes running an older layout of a class skip them without affecting the other classes.
+ */
+public interface CellarSerializable extends Serializable {
+
+    /**
+     * Write the fields of the object.
+     *
+     * @param out the output to write to.
+     * @throws IOException in case of write failure.
+     */
+    void writeData(CellarDataOutput out) throws IOException;
+
+    /**
+     * Read the fields of the object, each class in the layout version given by {@link CellarDataInput#startFields()}.
+     *
+     * @param in the input to read from.
+     * @throws IOException in case of read failure.
+     */
+    void readData(CellarDataInput in) throws IOException;
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registers the Cellar types of a module in {@link CellarTypes} while the module is started. The types are given as
+ * classes, loaded by the module, so a renamed or removed type fails the module start instead of being written with its
+ * class name.
+ */
+public class CellarTypeRegistration {
+
+    private Map<Integer, Class<?>> types = new HashMap<Integer, Class<?>>();
+
+    public void init() {
+        for (Map.Entry<Integer, Class<?>> entry : types.entrySet()) {
+            CellarTypes.register(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void destroy() {
+        for (Map.Entry<Integer, Class<?>> entry : types.entrySet()) {
+            CellarTypes.unregister(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return the types by id.
+     */
+    public Map<Integer, Class<?>> getTypes() {
+        return types;
+    }
+
+    /**
+     * @param types the types to set
+     */
+    public void setTypes(Map<Integer, Class<?>> types) {
+        this.types = types;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.StateDigest;
+import org.apache.karaf.cellar.core.command.BatchResult;
+import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.DistributedTask;
+import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.control.ManageGroupCommand;
+import org.apache.karaf.cellar.core.control.ManageGroupResult;
+import org.apache.karaf.cellar.core.control.ManageHandlersCommand;
+import org.apache.karaf.cellar.core.control.ManageHandlersResult;
+import org.apache.karaf.cellar.core.control.NodeConfigurationCommand;
+import org.apache.karaf.cellar.core.control.NodeConfigurationResult;
+import org.apache.karaf.cellar.core.event.Event;
+
+/**
+ * Registry of the types written in the Cellar binary format. Each registered type is written with its id instead of
+ * its class name. The core types are registered here, each module registers its own types when it starts, with a
+ * {@link CellarTypeRegistration} declared in its blueprint.
+ * <p/>
+ * Ids are part of the wire format: never reuse or change the id of a type. Ids are allocated by module: 1 to 19 for
+ * core, 20 to 29 for bundle, 30 to 39 for config, 40 to 49 for features, 50 to 59 for obr, 60 to 69 for event, 70 to
+ * 79 for dosgi, 80 to 89 for utils and 90 to 99 for hazelcast.
+ */
+public final class CellarTypes {
+
+    /**
+     * Id written for the types which are not registered, followed by the class name.
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final Map<Integer, Class<?>> TYPES_BY_ID = new ConcurrentHashMap<Integer, Class<?>>();
+    private static final Map<Class<?>, Integer> IDS_BY_TYPE = new ConcurrentHashMap<Class<?>, Integer>();
+
+    static {
+        register(1, Event.class);
+        register(2, Command.class);
+        register(3, Result.class);
+        register(4, BatchResult.class);
+        register(5, DistributedTask.class);
+        register(6, Group.class);
+        register(7, ManageGroupCommand.class);
+        register(8, ManageGroupResult.class);
+        register(9, ManageHandlersCommand.class);
+        register(10, ManageHandlersResult.class);
+        register(11, NodeConfigurationCommand.class);
+        register(12, NodeConfigurationResult.class);
+        register(13, StateDigest.class);
+    }
+
+    private CellarTypes() {
+    }
+
+    /**
+     * Register a type. A type registered again with the same id replaces the previous registration, for instance when
+     * the bundle of the type is refreshed.
+     *
+     * @param id the type id.
+     * @param type the type class.
+     * @throws IllegalArgumentException if the type is not a Cellar type or if the id is registered by another type.
+     */
+    public static synchronized void register(int id, Class<?> type) {
+        if (!CellarSerializable.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException("Type " + type.getName() + " is not a Cellar serializable type");
+        }
+        if (id < 0 || id > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid id " + id + " for type " + type.getName());
+        }
+        Class<?> registered = TYPES_BY_ID.get(id);
+        if (registered != null) {
+            if (!registered.getName().equals(type.getName())) {
+                throw new IllegalArgumentException("Id " + id + " of type " + type.getName() + " is already registered by type " + registered.getName());
+            }
+            IDS_BY_TYPE.remove(registered);
+        }
+        TYPES_BY_ID.put(id, type);
+        IDS_BY_TYPE.put(type, id);
+    }
+
+    /**
+     * Unregister a type, nothing is done if the id has been registered again by another class since.
+     *
+     * @param id the type id.
+     * @param type the type class.
+     */
+    public static synchronized void unregister(int id, Class<?> type) {
+        if (TYPES_BY_ID.get(id) == type) {
+            TYPES_BY_ID.remove(id);
+            IDS_BY_TYPE.remove(type);
+        }
+    }
+
+    /**
+     * Get the id of a type.
+     *
+     * @param type the type class.
+     * @return the type id or {@link #UNKNOWN} if the type is not registered.
+     */
+    public static int getTypeId(Class<?> type) {
+        Integer id = IDS_BY_TYPE.get(type);
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * Get a type by id.
+     *
+     * @param id the type id.
+     * @return the type class or null if the type is not registered.
+     */
+    public static Class<?> getType(int id) {
+        return TYPES_BY_ID.get(id);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Frames of the Cellar binary format. A frame starts with a flag byte holding the frame format version in its high
+ * bits and whether the payload is compressed in its low bits, payloads larger than the compression threshold are
+ * deflated when it makes them smaller.
+ */
+public final class CompressionSupport {
+
+    /**
+     * Flag of the frames holding the payload as is.
+     */
+    public static final byte RAW = 0;
+    /**
+     * Flag of the frames holding the deflated payload.
+     */
+    public static final byte DEFLATED = 1;
+    /**
+     * Version of the frame format, frames written in a newer format are rejected.
+     */
+    public static final int FORMAT_VERSION = 2;
+
+    private CompressionSupport() {
+    }
+
+    /**
+     * Write a payload in a frame.
+     *
+     * @param out the output to write to.
+     * @param data the buffer holding the payload.
+     * @param length the payload length.
+     * @param threshold the payload length from which the payload is compressed, 0 or less to never compress.
+     * @param buffers the buffers and compressors of the serializer.
+     * @throws IOException in case of write failure.
+     */
+    public static void writeFrame(DataOutput out, byte[] data, int length, int threshold, SerializationBuffers buffers) throws IOException {
+        if (threshold > 0 && length >= threshold) {
+            byte[] deflated = deflate(data, length, buffers);
+            if (deflated != null) {
+                out.writeByte(FORMAT_VERSION << 4 | DEFLATED);
+                out.writeInt(length);
+                out.writeInt(deflated.length);
+                out.write(deflated);
+                return;
+            }
+        }
+        out.writeByte(FORMAT_VERSION << 4 | RAW);
+        out.writeInt(length);
+        out.write(data, 0, length);
+    }
+
+    /**
+     * Read the payload of a frame.
+     *
+     * @param in the input to read from.
+     * @param buffers the buffers and compressors of the serializer.
+     * @return the payload, inflated if it was compressed.
+     * @throws IOException in case of read failure.
+     */
+    public static byte[] readFrame(DataInput in, SerializationBuffers buffers) throws IOException {
+        int flags = in.readUnsignedByte();
+        int format = flags >>> 4;
+        if (format > FORMAT_VERSION) {
+            throw new StreamCorruptedException("Cellar frame written in format " + format + ", this node reads up to format " + FORMAT_VERSION);
+        }
+        int flag = flags & 0x0F;
+        int length = in.readInt();
+        if (length < 0) {
+            throw new StreamCorruptedException("Invalid Cellar frame length " + length);
+        }
+        if (flag == RAW) {
+            byte[] data = new byte[length];
+            in.readFully(data);
+            return data;
+        }
+        if (flag != DEFLATED) {
+            throw new StreamCorruptedException("Unknown Cellar frame flag " + flag);
+        }
+        int deflatedLength = in.readInt();
+        if (deflatedLength < 0) {
+            throw new StreamCorruptedException("Invalid Cellar frame length " + deflatedLength);
+        }
+        byte[] deflated = new byte[deflatedLength];
+        in.readFully(deflated);
+        return inflate(deflated, length, buffers);
+    }
+
+    /**
+     * @return the deflated data or null if deflating doesn't make the data smaller.
+     */
+    private static byte[] deflate(byte[] data, int length, SerializationBuffers buffers) {
+        Deflater deflater = buffers.acquireDeflater();
+        byte[] chunk = buffers.acquireBytes(length);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished() && size < length) {
+                size += deflater.deflate(chunk, size, length - size);
+            }
+            if (!deflater.finished()) {
+                return null;
+            }
+            byte[] deflated = new byte[size];
+            System.arraycopy(chunk, 0, deflated, 0, size);
+            return deflated;
+        } finally {
+            buffers.release(chunk);
+            buffers.release(deflater);
+        }
+    }
+
+    private static byte[] inflate(byte[] deflated, int length, SerializationBuffers buffers) throws IOException {
+        Inflater inflater = buffers.acquireInflater();
+        try {
+            inflater.setInput(deflated);
+            byte[] data = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int count = inflater.inflate(data, offset, length - offset);
+                if (count == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new StreamCorruptedException("Truncated Cellar frame");
+                }
+                offset += count;
+            }
+            return data;
+        } catch (DataFormatException e) {
+            throw (IOException) new StreamCorruptedException("Corrupted Cellar frame").initCause(e);
+        } finally {
+            buffers.release(inflater);
+        }
+    }
+}
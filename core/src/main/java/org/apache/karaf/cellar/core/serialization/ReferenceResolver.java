@@ -0,0 +1,41 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.Node;
+
+/**
+ * Resolves the nodes and groups referenced by id or name in the Cellar binary format to the instances known by the
+ * receiving node.
+ */
+public interface ReferenceResolver {
+
+    /**
+     * Resolve a node from its id.
+     *
+     * @param id the node id.
+     * @return the node, or a node carrying only the id if it isn't a member of the cluster anymore.
+     */
+    Node resolveNode(String id);
+
+    /**
+     * Resolve a group from its name.
+     *
+     * @param name the group name.
+     * @return the group or null if the group doesn't exist.
+     */
+    Group resolveGroup(String name);
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Buffers of a Cellar serializer, pooled so serializing an object doesn't allocate a new buffer, growing it as the
+ * object is written, nor a new compressor. Buffers which grew larger than {@link #MAX_RETAINED_SIZE} are dropped once
+ * released instead of being pooled. The pool belongs to its serializer and is emptied when the serializer is
+ * destroyed, ending the native resources of the pooled compressors.
+ */
+public class SerializationBuffers {
+
+    /**
+     * Largest buffer size kept in the pool.
+     */
+    public static final int MAX_RETAINED_SIZE = 1024 * 1024;
+    /**
+     * Default number of buffers and compressors of each kind kept in the pool.
+     */
+    public static final int DEFAULT_POOL_SIZE = 16;
+    private static final int INITIAL_SIZE = 4096;
+
+    private final BlockingQueue<CellarObjectWriter> writers;
+    private final BlockingQueue<byte[]> bytes;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+    private volatile boolean destroyed;
+
+    public SerializationBuffers() {
+        this(DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param poolSize the number of buffers and compressors of each kind kept in the pool.
+     */
+    public SerializationBuffers(int poolSize) {
+        this.writers = new ArrayBlockingQueue<CellarObjectWriter>(poolSize);
+        this.bytes = new ArrayBlockingQueue<byte[]>(poolSize);
+        this.deflaters = new ArrayBlockingQueue<Deflater>(poolSize);
+        this.inflaters = new ArrayBlockingQueue<Inflater>(poolSize);
+    }
+
+    /**
+     * Get a pooled writer, or a new writer if none is left.
+     *
+     * @return an empty writer, to release with {@link #release(CellarObjectWriter)}.
+     */
+    public CellarObjectWriter acquireWriter() {
+        CellarObjectWriter writer = writers.poll();
+        if (writer == null) {
+            return new CellarObjectWriter(INITIAL_SIZE);
+        }
+        return writer;
+    }
+
+    /**
+     * Release a writer acquired with {@link #acquireWriter()}.
+     *
+     * @param writer the writer to release.
+     */
+    public void release(CellarObjectWriter writer) {
+        if (destroyed || writer.getBuffer().length > MAX_RETAINED_SIZE) {
+            return;
+        }
+        writer.reset();
+        writers.offer(writer);
+    }
+
+    /**
+     * Get a pooled scratch buffer, or a new buffer if none is left or the pooled one is too small.
+     *
+     * @param length the minimum length of the buffer.
+     * @return a buffer of at least the given length, to release with {@link #release(byte[])}.
+     */
+    public byte[] acquireBytes(int length) {
+        byte[] buffer = bytes.poll();
+        if (buffer == null || buffer.length < length) {
+            return new byte[Math.max(length, INITIAL_SIZE)];
+        }
+        return buffer;
+    }
+
+    /**
+     * Release a buffer acquired with {@link #acquireBytes(int)}.
+     *
+     * @param buffer the buffer to release.
+     */
+    public void release(byte[] buffer) {
+        if (destroyed || buffer.length > MAX_RETAINED_SIZE) {
+            return;
+        }
+        bytes.offer(buffer);
+    }
+
+    /**
+     * Get a pooled deflater, or a new deflater if none is left.
+     *
+     * @return a reset deflater, to release with {@link #release(Deflater)}.
+     */
+    public Deflater acquireDeflater() {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            return new Deflater(Deflater.BEST_SPEED);
+        }
+        return deflater;
+    }
+
+    /**
+     * Release a deflater acquired with {@link #acquireDeflater()}, the deflater is ended if the pool is full or
+     * destroyed.
+     *
+     * @param deflater the deflater to release.
+     */
+    public void release(Deflater deflater) {
+        deflater.reset();
+        if (destroyed || !deflaters.offer(deflater)) {
+            deflater.end();
+        } else if (destroyed) {
+            endCompressors();
+        }
+    }
+
+    /**
+     * Get a pooled inflater, or a new inflater if none is left.
+     *
+     * @return a reset inflater, to release with {@link #release(Inflater)}.
+     */
+    public Inflater acquireInflater() {
+        Inflater inflater = inflaters.poll();
+        if (inflater == null) {
+            return new Inflater();
+        }
+        return inflater;
+    }
+
+    /**
+     * Release an inflater acquired with {@link #acquireInflater()}, the inflater is ended if the pool is full or
+     * destroyed.
+     *
+     * @param inflater the inflater to release.
+     */
+    public void release(Inflater inflater) {
+        inflater.reset();
+        if (destroyed || !inflaters.offer(inflater)) {
+            inflater.end();
+        } else if (destroyed) {
+            endCompressors();
+        }
+    }
+
+    /**
+     * Empty the pool and end the pooled compressors, the compressors released afterwards are ended at once.
+     */
+    public void destroy() {
+        destroyed = true;
+        writers.clear();
+        bytes.clear();
+        endCompressors();
+    }
+
+    private void endCompressors() {
+        Deflater deflater;
+        while ((deflater = deflaters.poll()) != null) {
+            deflater.end();
+        }
+        Inflater inflater;
+        while ((inflater = inflaters.poll()) != null) {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Helpers writing the collections, maps and enums of the Cellar types. Collections are written element by element so
+ * their Cellar elements stay in the Cellar binary format.
+ */
+public final class SerializationSupport {
+
+    private SerializationSupport() {
+    }
+
+    public static void writeCollection(CellarDataOutput out, Collection<?> collection) throws IOException {
+        if (collection == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(collection.size());
+        for (Object element : collection) {
+            out.writeObject(element);
+        }
+    }
+
+    public static <T> List<T> readList(CellarDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        List<T> list = new ArrayList<T>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(in.<T>readObject());
+        }
+        return list;
+    }
+
+    public static <T> Set<T> readSet(CellarDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Set<T> set = new HashSet<T>(Math.max(16, (int) (size / .75f) + 1));
+        for (int i = 0; i < size; i++) {
+            set.add(in.<T>readObject());
+        }
+        return set;
+    }
+
+    public static void writeMap(CellarDataOutput out, Map<?, ?> map) throws IOException {
+        if (map == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            out.writeObject(entry.getKey());
+            out.writeObject(entry.getValue());
+        }
+    }
+
+    public static <K, V> Map<K, V> readMap(CellarDataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<K, V> map = new HashMap<K, V>(Math.max(16, (int) (size / .75f) + 1));
+        for (int i = 0; i < size; i++) {
+            K key = in.<K>readObject();
+            map.put(key, in.<V>readObject());
+        }
+        return map;
+    }
+
+    public static void writeEnum(CellarDataOutput out, Enum<?> value) throws IOException {
+        out.writeString(value != null ? value.name() : null);
+    }
+
+    public static <E extends Enum<E>> E readEnum(CellarDataInput in, Class<E> type) throws IOException {
+        String name = in.readString();
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    /**
+     * Write a boolean which may be null.
+     */
+    public static void writeBoolean(CellarDataOutput out, Boolean value) throws IOException {
+        out.writeByte(value == null ? -1 : (value ? 1 : 0));
+    }
+
+    public static Boolean readBoolean(CellarDataInput in) throws IOException {
+        byte value = in.readByte();
+        return value < 0 ? null : Boolean.valueOf(value == 1);
+    }
+}
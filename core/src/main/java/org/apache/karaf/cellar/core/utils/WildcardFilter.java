@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.utils;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A whitelist and a blacklist compiled once. Each list is a set of regular expressions where '*' matches any sequence
+ * of characters. The entries of a list are compiled into a single pattern, entries equal to the resource are matched
+ * without going through the pattern and the decisions are cached per resource.
+ */
+public class WildcardFilter {
+
+    /**
+     * Maximum number of decisions cached before the cache is cleared.
+     */
+    public static final int MAX_CACHED_RESOURCES = 4096;
+
+    private final Set<String> whiteList;
+    private final Set<String> blackList;
+    private final Set<String> whiteLiterals;
+    private final Set<String> blackLiterals;
+    private final Pattern whitePattern;
+    private final Pattern blackPattern;
+    private final Map<String, Boolean> decisions = new ConcurrentHashMap<String, Boolean>();
+
+    /**
+     * @param whiteList the whitelisted items, all the resources are accepted if null or empty.
+     * @param blackList the blacklisted items.
+     */
+    public WildcardFilter(Set<String> whiteList, Set<String> blackList) {
+        this.whiteList = copy(whiteList);
+        this.blackList = copy(blackList);
+        this.whitePattern = compile(this.whiteList);
+        this.blackPattern = compile(this.blackList);
+        this.whiteLiterals = literals(this.whiteList);
+        this.blackLiterals = literals(this.blackList);
+    }
+
+    private static Set<String> copy(Set<String> items) {
+        if (items == null || items.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(new HashSet<String>(items));
+    }
+
+    private static Pattern compile(Set<String> items) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        StringBuilder regex = new StringBuilder();
+        for (String item : items) {
+            if (regex.length() > 0) {
+                regex.append('|');
+            }
+            regex.append("(?:").append(item.replace("*", ".*")).append(')');
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * @return the items matching their own text, which can be compared to the resource instead of being matched.
+     */
+    private static Set<String> literals(Set<String> items) {
+        Set<String> literals = new HashSet<String>();
+        for (String item : items) {
+            if (Pattern.matches(item.replace("*", ".*"), item)) {
+                literals.add(item);
+            }
+        }
+        return literals;
+    }
+
+    /**
+     * Check if a resource matches the whitelist and doesn't match the blacklist.
+     *
+     * @param resource the resource name.
+     * @return true if the resource is allowed.
+     */
+    public boolean isAllowed(String resource) {
+        if (resource == null) {
+            return whitePattern == null && blackPattern == null;
+        }
+        Boolean decision = decisions.get(resource);
+        if (decision == null) {
+            decision = (whitePattern == null || matches(resource, whiteLiterals, whitePattern))
+                    && (blackPattern == null || !matches(resource, blackLiterals, blackPattern));
+            if (decisions.size() >= MAX_CACHED_RESOURCES) {
+                decisions.clear();
+            }
+            decisions.put(resource, decision);
+        }
+        return decision;
+    }
+
+    private static boolean matches(String resource, Set<String> items, Pattern pattern) {
+        return items.contains(resource) || pattern.matcher(resource).matches();
+    }
+
+    /**
+     * @return the whitelisted items.
+     */
+    public Set<String> getWhiteList() {
+        return whiteList;
+    }
+
+    /**
+     * @return the blacklisted items.
+     */
+    public Set<String> getBlackList() {
+        return blackList;
+    }
+}
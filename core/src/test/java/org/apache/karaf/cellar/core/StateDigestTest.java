@@ -0,0 +1,66 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core;
+
+import java.util.BitSet;
+import java.util.Properties;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StateDigestTest {
+
+    private static Properties properties(String key, Object value) {
+        Properties properties = new Properties();
+        properties.put(key, value);
+        return properties;
+    }
+
+    @Test
+    public void testDigestDoesNotDependOnOrderOrOwner() {
+        StateDigest local = new StateDigest();
+        local.add("org.apache.karaf.shell", properties("sshPort", "8101"));
+        local.add("my.configuration", properties("names", new String[]{"a", "b"}));
+
+        StateDigest first = new StateDigest();
+        first.add("my.configuration", properties("names", new String[]{"a", "b"}));
+        StateDigest second = new StateDigest();
+        second.add("org.apache.karaf.shell", properties("sshPort", "8101"));
+        first.merge(second);
+
+        Assert.assertEquals(local, first);
+        Assert.assertTrue(local.diff(first).isEmpty());
+    }
+
+    @Test
+    public void testDiffReturnsTheBucketOfTheChangedEntry() {
+        StateDigest local = new StateDigest();
+        StateDigest cluster = new StateDigest();
+        for (int i = 0; i < 1000; i++) {
+            local.add("bundle" + i, Boolean.TRUE);
+            cluster.add("bundle" + i, i == 42 ? Boolean.FALSE : Boolean.TRUE);
+        }
+        BitSet diff = local.diff(cluster);
+        Assert.assertEquals(1, diff.cardinality());
+        Assert.assertTrue(diff.get(StateDigest.bucketOf("bundle42")));
+    }
+
+    @Test
+    public void testRemoveRollsBackAdd() {
+        StateDigest digest = new StateDigest();
+        digest.add("feature", Boolean.TRUE);
+        digest.remove("feature", Boolean.TRUE);
+        Assert.assertEquals(new StateDigest(), digest);
+        Assert.assertEquals(StateDigest.BUCKETS, digest.diff(null).cardinality());
+    }
+}
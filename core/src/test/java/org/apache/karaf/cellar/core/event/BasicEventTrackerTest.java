@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.event;
+
+import org.apache.karaf.cellar.core.Group;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BasicEventTrackerTest {
+
+    private Event event(String id, String groupName) {
+        Event event = new Event(id);
+        event.setSourceGroup(new Group(groupName));
+        return event;
+    }
+
+    @Test
+    public void testPendingUntilStopped() {
+        BasicEventTracker tracker = new BasicEventTracker();
+        Event event = event("org.apache.karaf.log", "default");
+        Assert.assertFalse(tracker.isPending(event));
+
+        tracker.start(event);
+        Assert.assertTrue(tracker.isPending(event));
+        Assert.assertTrue(tracker.isPending("org.apache.karaf.log", "default"));
+        Assert.assertFalse(tracker.isPending("org.apache.karaf.log", "other"));
+        Assert.assertFalse(tracker.isPending("org.apache.karaf.shell", "default"));
+        Assert.assertEquals(1, tracker.getSuppressedCount());
+
+        tracker.stop(event);
+        Assert.assertFalse(tracker.isPending(event));
+    }
+
+    @Test
+    public void testExpiredAfterWindow() {
+        BasicEventTracker tracker = new BasicEventTracker();
+        tracker.setWindow(0);
+        Event event = event("org.apache.karaf.log", "default");
+        tracker.start(event);
+        Assert.assertFalse(tracker.isPending(event));
+        Assert.assertEquals(0, tracker.getSuppressedCount());
+    }
+
+    @Test
+    public void testBounded() {
+        BasicEventTracker tracker = new BasicEventTracker();
+        tracker.setMaxEntries(32);
+        for (int i = 0; i < 1000; i++) {
+            tracker.start(event("bundle" + i + "/1.0.0", "default"));
+        }
+        Assert.assertTrue(tracker.size() <= 32);
+        Assert.assertTrue(tracker.isPending(event("bundle999/1.0.0", "default")));
+        Assert.assertFalse(tracker.isPending(event("bundle0/1.0.0", "default")));
+    }
+
+    @Test
+    public void testEchoMatchesTheExpectedState() {
+        BasicEventTracker tracker = new BasicEventTracker();
+        Event event = event("bundle/1.0.0", "default");
+        tracker.start(event, 32);
+
+        // a real local change made in the window is not an echo
+        Assert.assertFalse(tracker.isEcho("bundle/1.0.0", "default", 4));
+        Assert.assertFalse(tracker.isEcho("bundle/1.0.0", "other", 32));
+        Assert.assertTrue(tracker.isEcho("bundle/1.0.0", "default", 32));
+        // the echo is seen once, the next change resulting in the same state is real
+        Assert.assertFalse(tracker.isEcho("bundle/1.0.0", "default", 32));
+        Assert.assertFalse(tracker.isPending(event));
+        Assert.assertEquals(1, tracker.getSuppressedCount());
+    }
+
+    @Test
+    public void testEchoOfEachExpectedState() {
+        BasicEventTracker tracker = new BasicEventTracker();
+        Event event = event("my.configuration", "default");
+        tracker.start(event, "cluster");
+        tracker.start(event, null);
+
+        Assert.assertTrue(tracker.isEcho("my.configuration", "default", null));
+        Assert.assertTrue(tracker.isPending(event));
+        Assert.assertTrue(tracker.isEcho("my.configuration", "default", "cluster"));
+        Assert.assertFalse(tracker.isPending(event));
+    }
+
+    @Test
+    public void testEventWithoutStateMatchesEveryChange() {
+        BasicEventTracker tracker = new BasicEventTracker();
+        Event event = event("my.configuration", "default");
+        tracker.start(event);
+
+        Assert.assertTrue(tracker.isEcho("my.configuration", "default", "first"));
+        Assert.assertTrue(tracker.isEcho("my.configuration", "default", "second"));
+        tracker.stop(event);
+        Assert.assertFalse(tracker.isEcho("my.configuration", "default", "third"));
+    }
+
+}
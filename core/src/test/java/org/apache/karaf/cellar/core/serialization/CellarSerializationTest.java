@@ -0,0 +1,459 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.control.ManageGroupAction;
+import org.apache.karaf.cellar.core.control.ManageGroupCommand;
+import org.apache.karaf.cellar.core.control.ManageGroupResult;
+import org.apache.karaf.cellar.core.control.ManageHandlersResult;
+import org.apache.karaf.cellar.core.event.Event;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CellarSerializationTest {
+
+    private static final int TEST_TYPE_ID = 1001;
+
+    @SuppressWarnings("unchecked")
+    private static <T> T roundTrip(Object value) throws IOException {
+        byte[] data = CellarObjectWriter.toBytes(value);
+        CellarObjectReader reader = new CellarObjectReader(data, CellarSerializationTest.class.getClassLoader(), null);
+        return (T) reader.readObject();
+    }
+
+    /**
+     * Write objects as a node running a newer layout would, and read them back as a node running an older layout: the
+     * id is registered by the newer type while writing and by the older type while reading.
+     */
+    private static List<Object> readWithOlderLayout(Class<?> newerType, Class<?> olderType, Object... values) throws IOException {
+        CellarObjectWriter writer = new CellarObjectWriter();
+        CellarTypes.register(TEST_TYPE_ID, newerType);
+        try {
+            for (Object value : values) {
+                writer.writeObject(value);
+            }
+        } finally {
+            CellarTypes.unregister(TEST_TYPE_ID, newerType);
+        }
+        List<Object> read = new ArrayList<Object>();
+        CellarTypes.register(TEST_TYPE_ID, olderType);
+        try {
+            CellarObjectReader reader = new CellarObjectReader(writer.toByteArray(), CellarSerializationTest.class.getClassLoader(), null);
+            for (int i = 0; i < values.length; i++) {
+                read.add(reader.readObject());
+            }
+        } finally {
+            CellarTypes.unregister(TEST_TYPE_ID, olderType);
+        }
+        return read;
+    }
+
+    private static byte[] frame(Object value, int threshold) throws IOException {
+        byte[] data = CellarObjectWriter.toBytes(value);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompressionSupport.writeFrame(new DataOutputStream(bytes), data, data.length, threshold, new SerializationBuffers());
+        return bytes.toByteArray();
+    }
+
+    private static Object readFrame(byte[] frame) throws IOException {
+        byte[] data = CompressionSupport.readFrame(new DataInputStream(new ByteArrayInputStream(frame)), new SerializationBuffers());
+        return new CellarObjectReader(data, CellarSerializationTest.class.getClassLoader(), null).readObject();
+    }
+
+    @Test
+    public void testRegisteredCommand() throws IOException {
+        ManageGroupCommand command = new ManageGroupCommand("command-1");
+        command.setSourceGroup(new Group("default"));
+        command.setForce(true);
+        command.setTimeout(2000);
+        command.setAction(ManageGroupAction.JOIN);
+        command.setDestinationGroup("test");
+
+        ManageGroupCommand read = roundTrip(command);
+        Assert.assertEquals("command-1", read.getId());
+        Assert.assertEquals("default", read.getSourceGroupName());
+        Assert.assertEquals(Boolean.TRUE, read.getForce());
+        Assert.assertEquals(2000L, read.getTimeout());
+        Assert.assertEquals(ManageGroupAction.JOIN, read.getAction());
+        Assert.assertEquals("test", read.getDestinationGroup());
+    }
+
+    @Test
+    public void testRegisteredResult() throws IOException {
+        ManageGroupResult result = new ManageGroupResult("result-1");
+        result.setSuccessful(false);
+
+        ManageGroupResult read = roundTrip(result);
+        Assert.assertFalse(read.isSuccessful());
+        Assert.assertTrue(read.getGroups() == null || read.getGroups().isEmpty());
+    }
+
+    @Test
+    public void testUnregisteredEvent() throws IOException {
+        TestEvent event = new TestEvent("event-1");
+        event.setSourceGroup(new Group("default"));
+        event.setPostPublish(true);
+        event.setPayload("payload");
+
+        TestEvent read = roundTrip(event);
+        Assert.assertEquals("event-1", read.getId());
+        Assert.assertEquals("default", read.getSourceGroupName());
+        Assert.assertEquals(Boolean.TRUE, read.getPostPublish());
+        Assert.assertEquals("payload", read.getPayload());
+    }
+
+    @Test
+    public void testUnregisteredResult() throws IOException {
+        TestResult result = new TestResult("result-2");
+        result.setCount(42);
+
+        TestResult read = roundTrip(result);
+        Assert.assertTrue(read.isSuccessful());
+        Assert.assertEquals(42, read.getCount());
+    }
+
+    @Test
+    public void testModuleRegisteredType() throws IOException {
+        TestEvent event = new TestEvent("event-2");
+        event.setPayload("payload");
+        int unregisteredSize = CellarObjectWriter.toBytes(event).length;
+
+        CellarTypeRegistration registration = new CellarTypeRegistration();
+        registration.getTypes().put(1000, TestEvent.class);
+        registration.init();
+        try {
+            Assert.assertEquals(1000, CellarTypes.getTypeId(TestEvent.class));
+            Assert.assertTrue(CellarObjectWriter.toBytes(event).length < unregisteredSize);
+            TestEvent read = roundTrip(event);
+            Assert.assertEquals("payload", read.getPayload());
+        } finally {
+            registration.destroy();
+        }
+        Assert.assertEquals(CellarTypes.UNKNOWN, CellarTypes.getTypeId(TestEvent.class));
+        Assert.assertNull(CellarTypes.getType(1000));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTypeIdCanNotBeTakenByAnotherType() {
+        CellarTypes.register(CellarTypes.getTypeId(Event.class), TestEvent.class);
+    }
+
+    @Test
+    public void testOlderReaderSkipsAppendedFields() throws IOException {
+        NewerLeaf newer = new NewerLeaf();
+        newer.setName("name");
+        newer.setAppended("appended");
+        newer.setCount(7);
+        ManageGroupCommand command = new ManageGroupCommand("command-2");
+        command.setDestinationGroup("test");
+
+        List<Object> read = readWithOlderLayout(NewerLeaf.class, OlderLeaf.class, newer, command);
+        OlderLeaf older = (OlderLeaf) read.get(0);
+        Assert.assertEquals("name", older.getName());
+        Assert.assertEquals(7, older.getCount());
+        // the next object of the stream is still read from its own start
+        Assert.assertEquals("test", ((ManageGroupCommand) read.get(1)).getDestinationGroup());
+    }
+
+    @Test
+    public void testNewerReaderReadsOlderLayout() throws IOException {
+        OlderLeaf older = new OlderLeaf();
+        older.setName("name");
+        older.setCount(7);
+
+        NewerLeaf read = (NewerLeaf) readWithOlderLayout(OlderLeaf.class, NewerLeaf.class, older).get(0);
+        Assert.assertEquals("name", read.getName());
+        Assert.assertNull(read.getAppended());
+        Assert.assertEquals(7, read.getCount());
+    }
+
+    @Test
+    public void testReadPastTheFieldsIsRejected() throws IOException {
+        try {
+            readWithOlderLayout(OlderLeaf.class, GreedyLeaf.class, new OlderLeaf());
+            Assert.fail("Reading past the fields of a class must be rejected");
+        } catch (IOException e) {
+            // expected, the fields of a class are bounded by their length
+        }
+    }
+
+    @Test
+    public void testRawFrame() throws IOException {
+        ManageGroupCommand command = new ManageGroupCommand("command-3");
+        command.setDestinationGroup("test");
+
+        byte[] frame = frame(command, 0);
+        Assert.assertEquals(CompressionSupport.RAW, frame[0] & 0x0F);
+        Assert.assertEquals(CompressionSupport.FORMAT_VERSION, (frame[0] & 0xFF) >>> 4);
+        ManageGroupCommand read = (ManageGroupCommand) readFrame(frame);
+        Assert.assertEquals("test", read.getDestinationGroup());
+    }
+
+    @Test
+    public void testDeflatedFrame() throws IOException {
+        ManageHandlersResult result = new ManageHandlersResult("result-3");
+        for (int i = 0; i < 200; i++) {
+            result.getHandlers().put("org.apache.karaf.cellar.handler" + i, "ON");
+        }
+        int size = CellarObjectWriter.toBytes(result).length;
+
+        byte[] frame = frame(result, 64);
+        Assert.assertEquals(CompressionSupport.DEFLATED, frame[0] & 0x0F);
+        Assert.assertTrue(frame.length < size);
+        ManageHandlersResult read = (ManageHandlersResult) readFrame(frame);
+        Assert.assertEquals(result.getHandlers(), read.getHandlers());
+    }
+
+    @Test
+    public void testNewerFrameFormatIsRejected() throws IOException {
+        byte[] frame = frame(new ManageGroupCommand("command-4"), 0);
+        frame[0] = (byte) ((CompressionSupport.FORMAT_VERSION + 1) << 4 | CompressionSupport.RAW);
+        try {
+            readFrame(frame);
+            Assert.fail("A frame written in a newer format must be rejected");
+        } catch (StreamCorruptedException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Base class as known by a node running an older layout.
+     */
+    public static class OlderBase implements CellarSerializable {
+
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void writeData(CellarDataOutput out) throws IOException {
+            out.startFields(1);
+            out.writeString(name);
+            out.endFields();
+        }
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            in.startFields();
+            name = in.readString();
+            in.endFields();
+        }
+    }
+
+    /**
+     * Base class as known by a node running a newer layout, with a field appended to the base class only.
+     */
+    public static class NewerBase implements CellarSerializable {
+
+        private String name;
+        private String appended;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getAppended() {
+            return appended;
+        }
+
+        public void setAppended(String appended) {
+            this.appended = appended;
+        }
+
+        @Override
+        public void writeData(CellarDataOutput out) throws IOException {
+            out.startFields(2);
+            out.writeString(name);
+            out.writeString(appended);
+            out.endFields();
+        }
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            int version = in.startFields();
+            name = in.readString();
+            if (version >= 2) {
+                appended = in.readString();
+            }
+            in.endFields();
+        }
+    }
+
+    public static class OlderLeaf extends OlderBase {
+
+        private int count;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void writeData(CellarDataOutput out) throws IOException {
+            super.writeData(out);
+            out.startFields(1);
+            out.writeInt(count);
+            out.endFields();
+        }
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            super.readData(in);
+            in.startFields();
+            count = in.readInt();
+            in.endFields();
+        }
+    }
+
+    /**
+     * Same fields and version as {@link OlderLeaf}, on top of the newer layout of its base class.
+     */
+    public static class NewerLeaf extends NewerBase {
+
+        private int count;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void writeData(CellarDataOutput out) throws IOException {
+            super.writeData(out);
+            out.startFields(1);
+            out.writeInt(count);
+            out.endFields();
+        }
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            super.readData(in);
+            in.startFields();
+            count = in.readInt();
+            in.endFields();
+        }
+    }
+
+    /**
+     * Reads more fields than written.
+     */
+    public static class GreedyLeaf extends OlderLeaf {
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            in.startFields();
+            in.readString();
+            in.readLong();
+            in.endFields();
+        }
+    }
+
+    public static class TestEvent extends Event {
+
+        private String payload;
+
+        public TestEvent() {
+        }
+
+        public TestEvent(String id) {
+            super(id);
+        }
+
+        public String getPayload() {
+            return payload;
+        }
+
+        public void setPayload(String payload) {
+            this.payload = payload;
+        }
+
+        @Override
+        public void writeData(CellarDataOutput out) throws IOException {
+            super.writeData(out);
+            out.startFields(1);
+            out.writeString(payload);
+            out.endFields();
+        }
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            super.readData(in);
+            in.startFields();
+            payload = in.readString();
+            in.endFields();
+        }
+    }
+
+    public static class TestResult extends Result {
+
+        private int count;
+
+        public TestResult() {
+        }
+
+        public TestResult(String id) {
+            super(id);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void writeData(CellarDataOutput out) throws IOException {
+            super.writeData(out);
+            out.startFields(1);
+            out.writeInt(count);
+            out.endFields();
+        }
+
+        @Override
+        public void readData(CellarDataInput in) throws IOException {
+            super.readData(in);
+            in.startFields();
+            count = in.readInt();
+            in.endFields();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.serialization;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompressionSupportTest {
+
+    private final SerializationBuffers buffers = new SerializationBuffers();
+
+    private static byte[] compressible(int length) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) ('a' + i % 7);
+        }
+        return data;
+    }
+
+    private static byte[] random(int length) {
+        byte[] data = new byte[length];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    private byte[] write(byte[] data, int length, int threshold) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompressionSupport.writeFrame(new DataOutputStream(bytes), data, length, threshold, buffers);
+        return bytes.toByteArray();
+    }
+
+    private byte[] read(byte[] frame) throws IOException {
+        return CompressionSupport.readFrame(new DataInputStream(new ByteArrayInputStream(frame)), buffers);
+    }
+
+    @Test
+    public void testPayloadBelowThresholdIsRaw() throws IOException {
+        byte[] data = compressible(100);
+        byte[] frame = write(data, data.length, 1000);
+        Assert.assertEquals(CompressionSupport.RAW, frame[0] & 0x0F);
+        Assert.assertArrayEquals(data, read(frame));
+    }
+
+    @Test
+    public void testPayloadAboveThresholdIsDeflated() throws IOException {
+        byte[] data = compressible(10000);
+        byte[] frame = write(data, data.length, 1000);
+        Assert.assertEquals(CompressionSupport.DEFLATED, frame[0] & 0x0F);
+        Assert.assertTrue(frame.length < data.length);
+        Assert.assertArrayEquals(data, read(frame));
+    }
+
+    @Test
+    public void testNoThresholdNeverCompresses() throws IOException {
+        byte[] data = compressible(10000);
+        Assert.assertEquals(CompressionSupport.RAW, write(data, data.length, 0)[0] & 0x0F);
+    }
+
+    @Test
+    public void testIncompressiblePayloadIsRaw() throws IOException {
+        byte[] data = random(10000);
+        byte[] frame = write(data, data.length, 1000);
+        Assert.assertEquals(CompressionSupport.RAW, frame[0] & 0x0F);
+        Assert.assertArrayEquals(data, read(frame));
+    }
+
+    @Test
+    public void testOnlyTheGivenLengthIsFramed() throws IOException {
+        byte[] data = compressible(10000);
+        byte[] payload = new byte[5000];
+        System.arraycopy(data, 0, payload, 0, payload.length);
+        Assert.assertArrayEquals(payload, read(write(data, payload.length, 0)));
+        Assert.assertArrayEquals(payload, read(write(data, payload.length, 1000)));
+    }
+
+    @Test
+    public void testOlderFrameFormatIsRead() throws IOException {
+        byte[] data = compressible(100);
+        byte[] frame = write(data, data.length, 0);
+        frame[0] = (byte) ((CompressionSupport.FORMAT_VERSION - 1) << 4 | CompressionSupport.RAW);
+        Assert.assertArrayEquals(data, read(frame));
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testNewerFrameFormatIsRejected() throws IOException {
+        byte[] data = compressible(100);
+        byte[] frame = write(data, data.length, 0);
+        frame[0] = (byte) ((CompressionSupport.FORMAT_VERSION + 1) << 4 | CompressionSupport.RAW);
+        read(frame);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testUnknownFlagIsRejected() throws IOException {
+        byte[] data = compressible(100);
+        byte[] frame = write(data, data.length, 0);
+        frame[0] = (byte) (CompressionSupport.FORMAT_VERSION << 4 | 0x0F);
+        read(frame);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testNegativeLengthIsRejected() throws IOException {
+        byte[] data = compressible(100);
+        byte[] frame = write(data, data.length, 0);
+        frame[1] = (byte) 0xFF;
+        read(frame);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testCorruptedDeflatedFrameIsRejected() throws IOException {
+        byte[] data = compressible(10000);
+        byte[] frame = write(data, data.length, 1000);
+        // header is the flags, the payload length and the deflated length
+        for (int i = 9; i < frame.length; i++) {
+            frame[i] = (byte) 0xFF;
+        }
+        read(frame);
+    }
+
+    @Test(expected = StreamCorruptedException.class)
+    public void testTruncatedDeflatedFrameIsRejected() throws IOException {
+        byte[] data = compressible(10000);
+        byte[] frame = write(data, data.length, 1000);
+        // claim a longer payload than the deflated data holds
+        int length = data.length + 1;
+        frame[1] = (byte) (length >>> 24);
+        frame[2] = (byte) (length >>> 16);
+        frame[3] = (byte) (length >>> 8);
+        frame[4] = (byte) length;
+        read(frame);
+    }
+}
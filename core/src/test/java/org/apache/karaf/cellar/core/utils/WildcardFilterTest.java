@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.core.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.karaf.cellar.core.CellarSupport;
+import org.apache.karaf.cellar.core.GroupConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WildcardFilterTest {
+
+    private static Set<String> set(String... items) {
+        return new HashSet<String>(Arrays.asList(items));
+    }
+
+    @Test
+    public void testEmptyListsAllowEverything() {
+        WildcardFilter filter = new WildcardFilter(null, set());
+        Assert.assertTrue(filter.isAllowed("org.apache.karaf.shell"));
+        Assert.assertTrue(filter.isAllowed(null));
+    }
+
+    @Test
+    public void testWhiteAndBlackLists() {
+        WildcardFilter filter = new WildcardFilter(set("*"), set("org.apache.karaf*", "org.apache.felix.fileinstall", "mvn:org.ops4j.pax.*"));
+        Assert.assertTrue(filter.isAllowed("my.configuration"));
+        Assert.assertFalse(filter.isAllowed("org.apache.karaf.shell"));
+        Assert.assertFalse(filter.isAllowed("org.apache.felix.fileinstall"));
+        Assert.assertTrue(filter.isAllowed("org.apache.felix.fileinstall-deploy"));
+        Assert.assertFalse(filter.isAllowed("mvn:org.ops4j.pax.logging/pax-logging-api/1.7.2"));
+        // decisions are cached
+        Assert.assertFalse(filter.isAllowed("org.apache.karaf.shell"));
+    }
+
+    @Test
+    public void testSameDecisionsAsRegexMatching() {
+        Set<String> whiteList = set("org.*", "mvn:*", "a+");
+        Set<String> blackList = set("org.apache.karaf.cellar.*");
+        WildcardFilter filter = new WildcardFilter(whiteList, blackList);
+        for (String resource : Arrays.asList("org.foo", "orgXfoo", "a+", "aaa", "mvn:x/y/1.0", "org.apache.karaf.cellar.node", "other")) {
+            boolean expected = matchesAny(resource, whiteList) && !matchesAny(resource, blackList);
+            Assert.assertEquals(resource, expected, filter.isAllowed(resource));
+        }
+    }
+
+    @Test
+    public void testFiltersAreCachedPerConfigurationVersion() {
+        final long[] version = {1};
+        GroupConfiguration groupConfig = (GroupConfiguration) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{GroupConfiguration.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getVersion")) {
+                    return version[0];
+                }
+                return method.getName().equals("getName") ? "test" : null;
+            }
+        });
+        Set<String> whiteList = set("a*");
+        Set<String> blackList = set("ab");
+        CellarSupport support = new CellarSupport();
+        WildcardFilter filter = support.getFilter(groupConfig, whiteList, blackList);
+        Assert.assertSame(filter, support.getFilter(groupConfig, whiteList, blackList));
+        Assert.assertNotSame(filter, support.getFilter(groupConfig, whiteList, set("ab")));
+        Assert.assertTrue(support.isAllowed("ac", groupConfig, whiteList, blackList));
+        Assert.assertFalse(support.isAllowed("ab", groupConfig, whiteList, blackList));
+        version[0]++;
+        Assert.assertNotSame(filter, support.getFilter(groupConfig, whiteList, blackList));
+    }
+
+    private static boolean matchesAny(String resource, Set<String> items) {
+        for (String item : items) {
+            if (resource.matches(item.replace("*", ".*"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -13,15 +13,23 @@
  */
 package org.apache.karaf.cellar.dosgi;
 
-import org.apache.karaf.cellar.core.command.Command;
-
+import java.io.IOException;
 import java.util.List;
+import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Cluster remote service call event.
  */
 public class RemoteServiceCall extends Command<RemoteServiceResult> {
 
+    private static final long serialVersionUID = -2388804175264287952L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private String endpointId;
     private String method;
     private String serviceClass;
@@ -34,6 +42,11 @@ public class RemoteServiceCall extends Command<RemoteServiceResult> {
         super(id);
     }
 
+    @Override
+    public ExecutionLane getLane() {
+        return ExecutionLane.REMOTE;
+    }
+
     public List<Object> getArguments() {
         return arguments;
     }
@@ -66,4 +79,25 @@ public class RemoteServiceCall extends Command<RemoteServiceResult> {
         this.endpointId = endpointId;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(endpointId);
+        out.writeString(method);
+        out.writeString(serviceClass);
+        SerializationSupport.writeCollection(out, arguments);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        endpointId = in.readString();
+        method = in.readString();
+        serviceClass = in.readString();
+        arguments = SerializationSupport.readList(in);
+        in.endFields();
+    }
 }
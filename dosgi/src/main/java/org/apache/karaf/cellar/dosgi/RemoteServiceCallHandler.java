@@ -51,7 +51,7 @@ public class RemoteServiceCallHandler extends CommandHandler<RemoteServiceCall,
     public RemoteServiceResult execute(RemoteServiceCall event) {
         RemoteServiceResult result = new RemoteServiceResult(event.getId());
         // check if the handler switch is ON
-        if (this.getSwitch().getStatus().equals(SwitchStatus.OFF)) {
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
             LOGGER.info("CELLAR DOSGI: {} switch is OFF, cluster event is not handled", SWITCH_ID);
             result.setSuccessful(false);
             result.setThrowable(new CommandExecutionException("CELLAR DOSGI: {} switch is OFF, cluster event is not handled"));
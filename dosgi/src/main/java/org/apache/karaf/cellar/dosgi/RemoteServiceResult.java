@@ -13,13 +13,20 @@
  */
 package org.apache.karaf.cellar.dosgi;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
 
 /**
  * Cluster remote service result event.
  */
 public class RemoteServiceResult extends Result {
 
+    private static final long serialVersionUID = 5364851106301554592L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private Object result;
 
     public RemoteServiceResult() {
@@ -37,4 +44,19 @@ public class RemoteServiceResult extends Result {
         this.result = result;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeObject(result);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        result = in.readObject();
+        in.endFields();
+    }
 }
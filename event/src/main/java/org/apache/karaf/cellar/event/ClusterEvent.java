@@ -13,15 +13,23 @@
  */
 package org.apache.karaf.cellar.event;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  * Cluster event.
  */
 public class ClusterEvent extends Command<ClusterEventResult> {
 
+    private static final long serialVersionUID = 7384360823722649077L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private String topicName;
     private Map<String, Serializable> properties;
 
@@ -50,4 +58,21 @@ public class ClusterEvent extends Command<ClusterEventResult> {
         this.properties = properties;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(topicName);
+        SerializationSupport.writeMap(out, properties);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        topicName = in.readString();
+        properties = SerializationSupport.readMap(in);
+        in.endFields();
+    }
 }
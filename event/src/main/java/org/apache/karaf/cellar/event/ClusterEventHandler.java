@@ -43,13 +43,13 @@ public class ClusterEventHandler extends CommandHandler<ClusterEvent, ClusterEve
     public ClusterEventResult execute(ClusterEvent event) {
         ClusterEventResult result = new ClusterEventResult(event.getId());
         result.setId(event.getId());
-        if (this.getSwitch().getStatus().equals(SwitchStatus.OFF)) {
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
             LOGGER.warn("CELLAR EVENT: {} is OFF, cluster event not handled", SWITCH_ID);
             result.setSuccessful(false);
             result.setThrowable(new CommandExecutionException(MessageFormat.format("CELLAR EVENT: {0} is OFF, cluster event not handled", SWITCH_ID)));
             return result;
         }
-        final String sourceGroupName = event.getSourceGroup().getName();
+        final String sourceGroupName = event.getSourceGroupName();
         // check if the node is local
         if (!groupManager.isLocalGroup(sourceGroupName)) {
             result.setThrowable(new CommandExecutionException(MessageFormat.format("Node is not part of thiscluster group {}, commend will be ignored.", sourceGroupName)));
@@ -61,7 +61,7 @@ public class ClusterEventHandler extends CommandHandler<ClusterEvent, ClusterEve
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(sourceGroupName);
             Set<String> whitelist = groupConfig.getInboundConfigurationWhitelist();
             Set<String> blacklist = groupConfig.getInboundConfigurationBlacklist();
-            if (eventSupport.isAllowed(event.getTopicName(), whitelist, blacklist)) {
+            if (eventSupport.isAllowed(event.getTopicName(), groupConfig, whitelist, blacklist)) {
                 Map<String, Serializable> properties = event.getProperties();
                 properties.put(Constants.EVENT_PROCESSED_KEY, Constants.EVENT_PROCESSED_VALUE);
                 properties.put(Constants.EVENT_SOURCE_GROUP_KEY, event.getSourceGroup());
@@ -15,9 +15,13 @@
  */
 package org.apache.karaf.cellar.event;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Map;
 import org.apache.karaf.cellar.core.command.Result;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 
 /**
  *
@@ -25,6 +29,10 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class ClusterEventResult extends Result {
 
+    private static final long serialVersionUID = -8324571635304869886L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private String topicName;
     private Map<String, Serializable> properties;
 
@@ -56,4 +64,22 @@ public class ClusterEventResult extends Result {
     public void setProperties(Map<String, Serializable> properties) {
         this.properties = properties;
     }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(topicName);
+        SerializationSupport.writeMap(out, properties);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        topicName = in.readString();
+        properties = SerializationSupport.readMap(in);
+        in.endFields();
+    }
 }
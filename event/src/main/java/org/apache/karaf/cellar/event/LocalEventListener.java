@@ -72,11 +72,11 @@ public class LocalEventListener extends EventSupport implements EventHandler {
                         String topicName = event.getTopic();
                         Map<String, Serializable> properties = getEventProperties(event);
                         //TODO Figure out how to handle this.
-                        if (this.isAllowed(topicName, whitelist, blacklist)) {
+                        if (this.isAllowed(topicName, groupConfig, whitelist, blacklist)) {
                             // broadcast the event
                             ClusterEvent clusterEvent = new ClusterEvent(topicName, properties);
                             clusterEvent.setSourceGroup(group);
-                            executionContext.execute(clusterEvent, group.getNodesExcluding(groupManager.getNode()));
+                            executionContext.executeBatched(clusterEvent, group.getNodesExcluding(groupManager.getNode()));
                         } else {
                             LOGGER.warn("CELLAR EVENT: event {} is marked as BLOCKED OUTBOUND", topicName);
                         }
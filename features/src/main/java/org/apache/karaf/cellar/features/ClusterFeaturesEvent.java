@@ -13,7 +13,11 @@
  */
 package org.apache.karaf.cellar.features;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 import org.apache.karaf.features.FeatureEvent.EventType;
 
 /**
@@ -21,6 +25,10 @@ import org.apache.karaf.features.FeatureEvent.EventType;
  */
 public class ClusterFeaturesEvent extends Command<FeatureEventResponse> {
 
+    private static final long serialVersionUID = -5940397175328966796L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private static final String separator = "/";
 
     private String name;
@@ -110,4 +118,27 @@ public class ClusterFeaturesEvent extends Command<FeatureEventResponse> {
         this.type = type;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(name);
+        out.writeString(version);
+        SerializationSupport.writeBoolean(out, noClean);
+        SerializationSupport.writeBoolean(out, noRefresh);
+        SerializationSupport.writeEnum(out, type);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        name = in.readString();
+        version = in.readString();
+        noClean = SerializationSupport.readBoolean(in);
+        noRefresh = SerializationSupport.readBoolean(in);
+        type = SerializationSupport.readEnum(in, EventType.class);
+        in.endFields();
+    }
 }
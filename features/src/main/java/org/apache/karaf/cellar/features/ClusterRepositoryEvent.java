@@ -13,7 +13,11 @@
  */
 package org.apache.karaf.cellar.features;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 import org.apache.karaf.features.RepositoryEvent.EventType;
 
 /**
@@ -21,6 +25,10 @@ import org.apache.karaf.features.RepositoryEvent.EventType;
  */
 public class ClusterRepositoryEvent extends Command<RespositoryEventResponse> {
 
+    private static final long serialVersionUID = 193484840303064926L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private EventType type;
     private boolean install;
     private boolean uninstall;
@@ -56,7 +64,7 @@ public class ClusterRepositoryEvent extends Command<RespositoryEventResponse> {
     @Override
     public String toString() {
         return "ClusterRepositoryEvent [type=" + type + ", id=" + id
-                + ", sourceNode=" + sourceNode + ", sourceGroup=" + sourceGroup
+                + ", sourceNode=" + sourceNode + ", sourceGroup=" + getSourceGroupName()
                 + ", destination=" + destination + ", force=" + force
                 + ", postPublish=" + postPublish + "]";
     }
@@ -68,4 +76,23 @@ public class ClusterRepositoryEvent extends Command<RespositoryEventResponse> {
         this.type = type;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        SerializationSupport.writeEnum(out, type);
+        out.writeBoolean(install);
+        out.writeBoolean(uninstall);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        type = SerializationSupport.readEnum(in, EventType.class);
+        install = in.readBoolean();
+        uninstall = in.readBoolean();
+        in.endFields();
+    }
 }
@@ -23,6 +23,8 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class FeatureEventResponse extends Result {
 
+    private static final long serialVersionUID = -8853754464657453793L;
+
     public FeatureEventResponse() {
     }
 
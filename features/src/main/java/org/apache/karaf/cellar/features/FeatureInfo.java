@@ -13,16 +13,26 @@
  */
 package org.apache.karaf.cellar.features;
 
-import java.io.Serializable;
+import java.io.IOException;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
 
 /**
  * Feature info to store in the cluster.
  */
-public class FeatureInfo implements Serializable {
+public class FeatureInfo implements CellarSerializable {
+
+    private static final long serialVersionUID = 7113773736087899520L;
+
+    private static final int FIELDS_VERSION = 1;
 
     private String name;
     private String version;
 
+    public FeatureInfo() {
+    }
+
     public FeatureInfo(String name, String version) {
         this.name = name;
         this.version = version;
@@ -64,4 +74,19 @@ public class FeatureInfo implements Serializable {
         return result;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeString(name);
+        out.writeString(version);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        name = in.readString();
+        version = in.readString();
+        in.endFields();
+    }
 }
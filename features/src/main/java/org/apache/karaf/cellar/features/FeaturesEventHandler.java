@@ -27,6 +27,7 @@ import java.util.Set;
 import org.apache.karaf.cellar.core.GroupConfiguration;
 import org.apache.karaf.cellar.core.command.CommandHandler;
 import org.apache.karaf.cellar.core.exception.CommandExecutionException;
+import org.apache.karaf.cellar.core.exception.CommandTimeoutException;
 
 /**
  * Handler for cluster features event.
@@ -68,7 +69,7 @@ public class FeaturesEventHandler extends CommandHandler<ClusterFeaturesEvent, F
             return result;
         }
 
-        final String sourceGroupName = event.getSourceGroup().getName();
+        final String sourceGroupName = event.getSourceGroupName();
 
         // check if the node is local
         if (!groupManager.isLocalGroup(sourceGroupName)) {
@@ -78,11 +79,19 @@ public class FeaturesEventHandler extends CommandHandler<ClusterFeaturesEvent, F
             return result;
         }
 
+        // the sender stopped waiting for the result, don't tie up the executor with a feature install nobody awaits
+        if (event.isExpired()) {
+            LOGGER.warn("CELLAR FEATURES: deadline of cluster event {} has passed, event is not handled", event);
+            result.setSuccessful(false);
+            result.setThrowable(new CommandTimeoutException(MessageFormat.format("CELLAR FEATURES: deadline of cluster event {0} has passed, event is not handled", event)));
+            return result;
+        }
+
         try {
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(sourceGroupName);
             Set<String> whitelist = groupConfig.getInboundFeatureWhitelist();
             Set<String> blacklist = groupConfig.getInboundFeatureBlacklist();
-            if (cellarSupport.isAllowed(event.getName(), whitelist, blacklist)) {
+            if (cellarSupport.isAllowed(event.getName(), groupConfig, whitelist, blacklist)) {
                 boolean isInstalled = featuresSupport.isFeatureInstalledLocally(event.getName(), event.getVersion());
                 if (FeatureEvent.EventType.FeatureInstalled.equals(event.getType()) && !isInstalled) {
                     boolean noClean = event.getNoClean();
@@ -112,7 +121,7 @@ public class FeaturesEventHandler extends CommandHandler<ClusterFeaturesEvent, F
                 }
                 result.setSuccessful(true);
             } else {
-                LOGGER.debug("CELLAR FEATURES: feature {} is marked BLOCKED INBOUND for cluster group", event.getName(), event.getSourceGroup().getName());
+                LOGGER.debug("CELLAR FEATURES: feature {} is marked BLOCKED INBOUND for cluster group", event.getName(), event.getSourceGroupName());
                 result.setSuccessful(false);
                 result.setThrowable(new IllegalStateException("CELLAR FEATURES: feature {} is marked BLOCKED INBOUND for cluster group " + event.getName()));
             }
@@ -133,7 +133,7 @@ public class FeaturesSupport extends CellarSupport {
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
             Set<String> whitelist = groupConfig.getOutboundFeatureWhitelist();
             Set<String> blacklist = groupConfig.getOutboundFeatureBlacklist();
-            if (isAllowed(feature.getName(), whitelist, blacklist)) {
+            if (isAllowed(feature.getName(), groupConfig, whitelist, blacklist)) {
                 if (featuresService != null && clusterFeatures != null) {
                     FeatureInfo info = new FeatureInfo(feature.getName(), feature.getVersion());
                     Boolean installed = featuresService.isInstalled(feature);
@@ -163,7 +163,7 @@ public class FeaturesSupport extends CellarSupport {
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
             Set<String> whitelist = groupConfig.getOutboundFeatureWhitelist();
             Set<String> blacklist = groupConfig.getOutboundFeatureBlacklist();
-            if (isAllowed(feature.getName(), whitelist, blacklist)) {
+            if (isAllowed(feature.getName(), groupConfig, whitelist, blacklist)) {
                 if (featuresService != null && clusterFeatures != null) {
                     FeatureInfo info = new FeatureInfo(feature.getName(), feature.getVersion());
                     clusterFeatures.put(info, force);
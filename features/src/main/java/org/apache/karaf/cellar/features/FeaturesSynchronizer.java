@@ -23,10 +23,13 @@ import org.slf4j.LoggerFactory;
 
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.apache.karaf.cellar.core.GroupConfiguration;
+import org.apache.karaf.cellar.core.StateDigest;
 
 /**
  * Features synchronizer.
@@ -56,7 +59,8 @@ public class FeaturesSynchronizer extends FeaturesSupport implements Synchronize
     }
 
     /**
-     * Pull the features repositories and features states from a cluster, and update the local states.
+     * Pull the features repositories and features states from a cluster, and update the local states. Only the
+     * features whose digest bucket differs from the local states are read from the cluster group.
      *
      */
     @Override
@@ -65,8 +69,6 @@ public class FeaturesSynchronizer extends FeaturesSupport implements Synchronize
             String groupName = group.getName();
             LOGGER.debug("CELLAR FEATURES: pulling features repositories and features from cluster group {}", groupName);
             List<String> clusterRepositories = clusterManager.getList(Constants.REPOSITORIES + Configurations.SEPARATOR + groupName);
-            Map<FeatureInfo, Boolean> clusterFeatures = clusterManager.getMap(Constants.FEATURES + Configurations.SEPARATOR + groupName);
-            clusterManager.getList(Constants.FEATURES + Configurations.SEPARATOR + groupName);
             // get the features repositories URLs from the cluster group
             if (clusterRepositories != null && !clusterRepositories.isEmpty()) {
                 for (String url : clusterRepositories) {
@@ -84,14 +86,21 @@ public class FeaturesSynchronizer extends FeaturesSupport implements Synchronize
             }
 
             // get the features from the cluster
-            if (clusterFeatures != null && !clusterFeatures.isEmpty()) {
+            String mapName = Constants.FEATURES + Configurations.SEPARATOR + groupName;
+            GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
+            BitSet buckets = diff(mapName, getLocalFeatures(groupConfig));
+            if (buckets.isEmpty()) {
+                LOGGER.debug("CELLAR FEATURES: features are in sync with cluster group {}", groupName);
+                return;
+            }
+            Map<FeatureInfo, Boolean> clusterFeatures = clusterManager.getEntries(mapName, buckets);
+            if (!clusterFeatures.isEmpty()) {
+                Set<String> whitelist = groupConfig.getInboundFeatureWhitelist();
+                Set<String> blacklist = groupConfig.getInboundFeatureBlacklist();
                 for (FeatureInfo info : clusterFeatures.keySet()) {
                     String name = info.getName();
                     // check if feature is blocked
-                    GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(groupName);
-                    Set<String> whitelist = groupConfig.getInboundFeatureWhitelist();
-                    Set<String> blacklist = groupConfig.getInboundFeatureBlacklist();
-                    if (this.isAllowed(name, whitelist, blacklist)) {
+                    if (this.isAllowed(name, groupConfig, whitelist, blacklist)) {
                         Boolean remotelyInstalled = clusterFeatures.get(info);
                         Boolean locallyInstalled = this.isFeatureInstalledLocally(info.getName(), info.getVersion());
 
@@ -129,7 +138,8 @@ public class FeaturesSynchronizer extends FeaturesSupport implements Synchronize
     }
 
     /**
-     * Push features repositories and features local states to a cluster group.
+     * Push features repositories and features local states to a cluster group. Only the features whose digest bucket
+     * differs from the cluster group states are pushed.
      *
      * @param group the cluster group.
      */
@@ -159,12 +169,57 @@ public class FeaturesSynchronizer extends FeaturesSupport implements Synchronize
 
             // push features to the cluster group
             if (featuresList != null && featuresList.length > 0) {
+                String mapName = Constants.FEATURES + Configurations.SEPARATOR + groupName;
+                BitSet buckets = diff(mapName, getLocalFeatures(groupManager.findGroupConfigurationByName(groupName)));
+                if (buckets.isEmpty()) {
+                    LOGGER.debug("CELLAR FEATURES: features are in sync with cluster group {}", groupName);
+                    return;
+                }
                 for (Feature feature : featuresList) {
-                    this.pushFeature(feature, group);
-                    LOGGER.debug("CELLAR FEATURES: pushing feature {} in cluster group {}", feature.getName(), group.getName());
+                    if (buckets.get(StateDigest.bucketOf(new FeatureInfo(feature.getName(), feature.getVersion())))) {
+                        this.pushFeature(feature, group);
+                        LOGGER.debug("CELLAR FEATURES: pushing feature {} in cluster group {}", feature.getName(), group.getName());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compare the digest of the local features states with the digest of the cluster group features states.
+     *
+     * @param mapName the cluster group features map name.
+     * @param localFeatures the local features states.
+     * @return the digest buckets which differ.
+     */
+    private BitSet diff(String mapName, Map<FeatureInfo, Boolean> localFeatures) {
+        StateDigest digest = new StateDigest();
+        for (Map.Entry<FeatureInfo, Boolean> entry : localFeatures.entrySet()) {
+            digest.add(entry.getKey(), entry.getValue());
+        }
+        return digest.diff(clusterManager.getDigest(mapName));
+    }
+
+    /**
+     * Get the states of the local features allowed outbound for a cluster group.
+     *
+     * @param groupConfig the cluster group configuration.
+     * @return the installed flag by feature.
+     */
+    private Map<FeatureInfo, Boolean> getLocalFeatures(GroupConfiguration groupConfig) {
+        Map<FeatureInfo, Boolean> localFeatures = new HashMap<FeatureInfo, Boolean>();
+        Set<String> whitelist = groupConfig.getOutboundFeatureWhitelist();
+        Set<String> blacklist = groupConfig.getOutboundFeatureBlacklist();
+        try {
+            for (Feature feature : featuresService.listFeatures()) {
+                if (isAllowed(feature.getName(), groupConfig, whitelist, blacklist)) {
+                    localFeatures.put(new FeatureInfo(feature.getName(), feature.getVersion()), featuresService.isInstalled(feature));
                 }
             }
+        } catch (Exception e) {
+            LOGGER.error("CELLAR FEATURES: error listing features", e);
         }
+        return localFeatures;
     }
 
     /**
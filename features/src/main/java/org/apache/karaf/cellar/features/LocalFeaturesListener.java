@@ -58,7 +58,7 @@ public class LocalFeaturesListener extends FeaturesSupport implements FeaturesLi
                     GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(group.getName());
                     Set<String> whitelist = groupConfig.getOutboundFeatureWhitelist();
                     Set<String> blacklist = groupConfig.getOutboundFeatureBlacklist();
-                    if (this.isAllowed(featureName, whitelist, blacklist)) {
+                    if (this.isAllowed(featureName, groupConfig, whitelist, blacklist)) {
                         FeatureEvent.EventType type = event.getType();
                         boolean installedInGroup = featureExists(group.getName(), featureName, featureVersion);
                         boolean needsBroadcast = false;
@@ -75,7 +75,7 @@ public class LocalFeaturesListener extends FeaturesSupport implements FeaturesLi
                             // broadcast the event
                             ClusterFeaturesEvent featureEvent = new ClusterFeaturesEvent(featureName, featureVersion, type);
                             featureEvent.setSourceGroup(group);
-                            executionContext.execute(featureEvent, group.getNodesExcluding(groupManager.getNode()));
+                            executionContext.submit(featureEvent, group.getNodesExcluding(groupManager.getNode()));
                         }
                     } else {
                         LOGGER.debug("CELLAR FEATURES: feature {} is marked BLOCKED OUTBOUND for cluster group {}", featureName, group.getName());
@@ -146,7 +146,7 @@ public class LocalFeaturesListener extends FeaturesSupport implements FeaturesLi
                         }
                     }
                     // broadcast the cluster event
-                    executionContext.executeAndWait(clusterRepositoryEvent, group.getNodesExcluding(groupManager.getNode()));
+                    executionContext.submit(clusterRepositoryEvent, group.getNodesExcluding(groupManager.getNode()));
                 }
             }
         }
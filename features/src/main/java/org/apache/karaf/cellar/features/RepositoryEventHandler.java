@@ -67,7 +67,7 @@ public class RepositoryEventHandler extends CommandHandler<ClusterRepositoryEven
             return result;
         }
 
-        final String sourceGroupName = event.getSourceGroup().getName();
+        final String sourceGroupName = event.getSourceGroupName();
 
         // check if the node is local
         if (!groupManager.isLocalGroup(sourceGroupName)) {
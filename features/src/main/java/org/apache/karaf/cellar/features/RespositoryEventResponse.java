@@ -23,6 +23,8 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class RespositoryEventResponse extends Result {
 
+    private static final long serialVersionUID = -2232408512308266720L;
+
     public RespositoryEventResponse() {
     }
 
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.EntryListener;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.Node;
+import org.slf4j.Logger;
+
+/**
+ * Local view of the group membership store, kept up to date by an entry listener on the distributed map. Both the
+ * group to nodes and the node to groups indexes are immutable snapshots replaced on every change, so the lookups done
+ * while handling cluster events never go through the distributed map.
+ */
+public class GroupMembershipCache implements EntryListener<String, Group> {
+
+    private static final transient Logger LOGGER = org.slf4j.LoggerFactory.getLogger(GroupMembershipCache.class);
+
+    private volatile Map<String, Group> groups = Collections.emptyMap();
+    private volatile Map<String, Set<Group>> groupsByNode = Collections.emptyMap();
+
+    /**
+     * Replace the whole view, used when the listener is registered and when the cluster membership changes.
+     *
+     * @param values the groups of the membership store.
+     */
+    public synchronized void rebuild(Collection<Group> values) {
+        Map<String, Group> copy = new HashMap<String, Group>();
+        for (Group group : values) {
+            copy.put(group.getName(), group);
+        }
+        publish(copy);
+        LOGGER.debug("CELLAR HAZELCAST: group membership cache rebuilt with {} groups", copy.size());
+    }
+
+    /**
+     * Update the view with a group just written to the membership store, without waiting for the entry event.
+     *
+     * @param group the group.
+     */
+    public synchronized void update(Group group) {
+        Map<String, Group> copy = new HashMap<String, Group>(groups);
+        copy.put(group.getName(), group);
+        publish(copy);
+    }
+
+    /**
+     * Remove a group from the view.
+     *
+     * @param groupName the group name.
+     */
+    public synchronized void remove(String groupName) {
+        if (groups.containsKey(groupName)) {
+            Map<String, Group> copy = new HashMap<String, Group>(groups);
+            copy.remove(groupName);
+            publish(copy);
+        }
+    }
+
+    private void publish(Map<String, Group> copy) {
+        Map<String, Set<Group>> index = new HashMap<String, Set<Group>>();
+        for (Group group : copy.values()) {
+            for (Node node : group.getNodes()) {
+                Set<Group> nodeGroups = index.get(node.getId());
+                if (nodeGroups == null) {
+                    nodeGroups = new HashSet<Group>();
+                    index.put(node.getId(), nodeGroups);
+                }
+                nodeGroups.add(group);
+            }
+        }
+        for (Map.Entry<String, Set<Group>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+        }
+        groups = Collections.unmodifiableMap(copy);
+        groupsByNode = index;
+    }
+
+    /**
+     * @param groupName the group name.
+     * @return the group or null if it doesn't exist.
+     */
+    public Group getGroup(String groupName) {
+        return groups.get(groupName);
+    }
+
+    /**
+     * @return all the groups, by name.
+     */
+    public Map<String, Group> getGroups() {
+        return groups;
+    }
+
+    /**
+     * @param node the node.
+     * @return the groups the node is a member of.
+     */
+    public Set<Group> getGroups(Node node) {
+        Set<Group> nodeGroups = node != null ? groupsByNode.get(node.getId()) : null;
+        return nodeGroups != null ? nodeGroups : Collections.<Group>emptySet();
+    }
+
+    /**
+     * @param groupName the group name.
+     * @param node the node.
+     * @return true if the node is a member of the group.
+     */
+    public boolean isMember(String groupName, Node node) {
+        Group group = groups.get(groupName);
+        return group != null && group.containsNode(node);
+    }
+
+    @Override
+    public void entryAdded(EntryEvent<String, Group> event) {
+        update(event.getValue());
+    }
+
+    @Override
+    public void entryUpdated(EntryEvent<String, Group> event) {
+        update(event.getValue());
+    }
+
+    @Override
+    public void entryRemoved(EntryEvent<String, Group> event) {
+        remove(event.getKey());
+    }
+
+    @Override
+    public void entryEvicted(EntryEvent<String, Group> event) {
+        remove(event.getKey());
+    }
+}
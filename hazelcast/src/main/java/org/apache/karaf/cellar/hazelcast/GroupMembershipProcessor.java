@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast;
+
+import com.hazelcast.map.EntryBackupProcessor;
+import com.hazelcast.map.EntryProcessor;
+import java.io.IOException;
+import java.util.Map;
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+
+/**
+ * Adds or removes a node from a group of the membership store. The group is updated in place on the member owning
+ * its partition, and on the backups, so concurrent membership changes don't need to lock the entry.
+ */
+public class GroupMembershipProcessor implements EntryProcessor<String, Group>, EntryBackupProcessor<String, Group>, CellarSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    private boolean join;
+    private Node node;
+
+    public GroupMembershipProcessor() {
+    }
+
+    /**
+     * @param node the node to add or remove.
+     * @param join true to add the node to the group, false to remove it.
+     */
+    public GroupMembershipProcessor(Node node, boolean join) {
+        this.node = node;
+        this.join = join;
+    }
+
+    /**
+     * @param entry the membership store entry.
+     * @return the updated group, or null if the group doesn't exist or the node membership didn't change.
+     */
+    @Override
+    public Object process(Map.Entry<String, Group> entry) {
+        Group group = entry.getValue();
+        if (apply(group)) {
+            entry.setValue(group);
+            return group;
+        }
+        return null;
+    }
+
+    @Override
+    public void processBackup(Map.Entry<String, Group> entry) {
+        Group group = entry.getValue();
+        if (apply(group)) {
+            entry.setValue(group);
+        }
+    }
+
+    @Override
+    public EntryBackupProcessor<String, Group> getBackupProcessor() {
+        return this;
+    }
+
+    private boolean apply(Group group) {
+        if (group == null || group.containsNode(node) == join) {
+            return false;
+        }
+        if (join) {
+            group.addNode(node);
+        } else {
+            group.removeNode(node);
+        }
+        return true;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeBoolean(join);
+        out.writeNodeReference(node);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        join = in.readBoolean();
+        node = in.readNodeReference();
+        in.endFields();
+    }
+
+    /**
+     * @return true if the node is added to the group, false if it is removed.
+     */
+    public boolean isJoin() {
+        return join;
+    }
+
+    /**
+     * @return the node
+     */
+    public Node getNode() {
+        return node;
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Enumeration;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Hazelcast bundle listener.
@@ -30,6 +31,7 @@ public class HazelcastBundleListener implements SynchronousBundleListener {
 
     private BundleContext bundleContext;
     private final Map<String, List<URL>> loadedResources = new ConcurrentHashMap<String, List<URL>>();
+    private final ConcurrentMap<String, Class<?>> loadedClasses = new ConcurrentHashMap<String, Class<?>>();
 
     public void init() {
         bundleContext.addBundleListener(this);
@@ -41,6 +43,7 @@ public class HazelcastBundleListener implements SynchronousBundleListener {
         this.bundleContext = null;
         emptyResources();
         loadedResources.clear();
+        loadedClasses.clear();
     }
 
     public void scanExistingBundles() {
@@ -61,8 +64,13 @@ public class HazelcastBundleListener implements SynchronousBundleListener {
             case BundleEvent.STOPPED:
                 unloadFromBundle(event.getBundle());
                 break;
-            case BundleEvent.RESOLVED:
+            case BundleEvent.UPDATED:
+            case BundleEvent.UNRESOLVED:
             case BundleEvent.UNINSTALLED:
+                // the classes of the bundle are replaced or gone, forget the classes loaded by name
+                loadedClasses.clear();
+                break;
+            case BundleEvent.RESOLVED:
         }
     }
 
@@ -132,4 +140,12 @@ public class HazelcastBundleListener implements SynchronousBundleListener {
     public Map<String, List<URL>> getResources() {
         return loadedResources;
     }
+
+    /**
+     * @return the classes loaded by name by the serializers, cleared when a bundle is updated, unresolved or
+     * uninstalled.
+     */
+    public ConcurrentMap<String, Class<?>> getLoadedClasses() {
+        return loadedClasses;
+    }
 }
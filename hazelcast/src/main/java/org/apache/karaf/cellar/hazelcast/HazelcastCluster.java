@@ -31,15 +31,22 @@ import com.hazelcast.core.IdGenerator;
 import com.hazelcast.core.Member;
 import com.hazelcast.core.MembershipEvent;
 import com.hazelcast.core.MembershipListener;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import org.apache.karaf.cellar.core.CellarCluster;
 import org.apache.karaf.cellar.core.Group;
 import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.StateDigest;
 import org.apache.karaf.cellar.core.Synchronizer;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
 import org.apache.karaf.cellar.hazelcast.internal.DistributedExecutionContextImpl;
@@ -57,6 +64,8 @@ public class HazelcastCluster implements CellarCluster, MembershipListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(HazelcastCluster.class);
     private static final String GENERATOR_ID = "org.apache.karaf.cellar.idgen";
+    private static final String DIGEST_EXECUTOR = "org.apache.karaf.cellar.digest";
+    private long digestTimeout = 10000;
     private BundleContext bundleContext;
     private IdGenerator idgenerator;
     private HazelcastInstance instance;
@@ -73,6 +82,12 @@ public class HazelcastCluster implements CellarCluster, MembershipListener {
         this.memberNodesByName.put(this.localNode.getName(), this.localNode);
         this.memberNodesById.put(this.localNode.getId(), this.localNode);
         this.memberListenerId = instance.getCluster().addMembershipListener(this);
+        // register the members which joined before the listener
+        for (Member member : instance.getCluster().getMembers()) {
+            if (!this.memberNodesById.containsKey(member.getUuid())) {
+                addNewNode(member);
+            }
+        }
     }
 
     public void shutdown() {
@@ -94,6 +109,8 @@ public class HazelcastCluster implements CellarCluster, MembershipListener {
     @Override
     public DistributedExecutionContext getDistributedExecutionContext(String executorName) {
         DistributedExecutionContextImpl executionContext = new DistributedExecutionContextImpl(executorName);
+        executionContext.setInstance(instance);
+        executionContext.setCluster(this);
         executionContext.init();
         return executionContext;
     }
@@ -180,6 +197,22 @@ public class HazelcastCluster implements CellarCluster, MembershipListener {
         return null;
     }
 
+    /**
+     * Get the Hazelcast member of the node with a given ID.
+     *
+     * @param id the node ID.
+     * @return the member or null if the node isn't part of the cluster.
+     */
+    public Member findMemberById(String id) {
+        if (id != null) {
+            HazelcastNode node = this.memberNodesById.get(id);
+            if (node != null) {
+                return node.getMember();
+            }
+        }
+        return null;
+    }
+
     /**
      * Geta a node by it's instance name..
      *
@@ -310,6 +343,66 @@ public class HazelcastCluster implements CellarCluster, MembershipListener {
         return instance.getMap(mapName);
     }
 
+    /**
+     * Get the digest of a Map in Hazelcast. Each member digests the entries it owns, so the entries are not
+     * transferred.
+     *
+     * @param mapName the Map name.
+     * @return the digest of the Map, null if a member failed to compute its part or did not answer in time.
+     */
+    @Override
+    public StateDigest getDigest(String mapName) {
+        StateDigest digest = new StateDigest();
+        Map<Member, Future<StateDigest>> futures = instance.getExecutorService(DIGEST_EXECUTOR).submitToAllMembers(new StateDigestTask(mapName));
+        long deadline = System.currentTimeMillis() + digestTimeout;
+        for (Map.Entry<Member, Future<StateDigest>> entry : futures.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadline - System.currentTimeMillis());
+                digest.merge(entry.getValue().get(remaining, TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException e) {
+                LOGGER.warn("CELLAR HAZELCAST: failed to compute the digest of map {} on member {}", new Object[]{mapName, entry.getKey(), e.getCause()});
+                return null;
+            } catch (TimeoutException e) {
+                LOGGER.warn("CELLAR HAZELCAST: member {} did not compute the digest of map {} in time", entry.getKey(), mapName);
+                cancel(futures);
+                return null;
+            }
+        }
+        return digest;
+    }
+
+    private void cancel(Map<Member, Future<StateDigest>> futures) {
+        for (Future<StateDigest> future : futures.values()) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Get the entries of a Map in Hazelcast whose key falls in the given digest buckets. The buckets are selected on
+     * the members owning the entries.
+     *
+     * @param mapName the Map name.
+     * @param buckets the digest buckets.
+     * @return a copy of the selected entries.
+     */
+    @Override
+    public Map getEntries(String mapName, BitSet buckets) {
+        IMap<Object, Object> map = getMap(mapName);
+        if (buckets.cardinality() >= StateDigest.BUCKETS) {
+            return new HashMap<Object, Object>(map);
+        }
+        Map<Object, Object> entries = new HashMap<Object, Object>();
+        if (!buckets.isEmpty()) {
+            for (Map.Entry<Object, Object> entry : map.entrySet(new StateBucketPredicate(buckets))) {
+                entries.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return entries;
+    }
+
     /**
      * Get a List in Hazelcast.
      *
@@ -430,4 +523,19 @@ public class HazelcastCluster implements CellarCluster, MembershipListener {
     public void setBundleContext(BundleContext bundleContext) {
         this.bundleContext = bundleContext;
     }
+
+    /**
+     * @return the time to wait for the digest of a map, in milliseconds.
+     */
+    public long getDigestTimeout() {
+        return digestTimeout;
+    }
+
+    /**
+     * @param digestTimeout the time to wait for the digest of a map, in milliseconds. When it elapses the
+     * synchronizers fall back to a full sync.
+     */
+    public void setDigestTimeout(long digestTimeout) {
+        this.digestTimeout = digestTimeout;
+    }
 }
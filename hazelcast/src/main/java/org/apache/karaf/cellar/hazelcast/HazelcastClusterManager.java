@@ -16,6 +16,7 @@ package org.apache.karaf.cellar.hazelcast;
 import com.hazelcast.core.IQueue;
 import com.hazelcast.core.ITopic;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -25,6 +26,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import org.apache.karaf.cellar.core.CellarCluster;
 import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.StateDigest;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
 
 /**
@@ -57,6 +59,29 @@ public class HazelcastClusterManager implements ClusterManager {
         return this.masterCluster.getMap(mapName);
     }
 
+    /**
+     * Get the digest of a Map from the main administrative cluster.
+     *
+     * @param mapName the Map name.
+     * @return the digest of the Map, null if it can't be computed.
+     */
+    @Override
+    public StateDigest getDigest(String mapName) {
+        return this.masterCluster.getDigest(mapName);
+    }
+
+    /**
+     * Get the entries of a Map from the main administrative cluster in the given digest buckets.
+     *
+     * @param mapName the Map name.
+     * @param buckets the digest buckets.
+     * @return a copy of the selected entries.
+     */
+    @Override
+    public Map getEntries(String mapName, BitSet buckets) {
+        return this.masterCluster.getEntries(mapName, buckets);
+    }
+
     /**
      * Get a List from the main administrative cluster.
      *
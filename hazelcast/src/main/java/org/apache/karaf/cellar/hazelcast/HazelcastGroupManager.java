@@ -39,6 +39,7 @@ import org.apache.karaf.cellar.core.GroupManager;
 import org.apache.karaf.cellar.core.NodeConfiguration;
 import org.apache.karaf.cellar.core.Node;
 import org.apache.karaf.cellar.hazelcast.internal.GroupConfigurationImpl;
+import org.apache.karaf.cellar.hazelcast.serialization.HazelcastReferenceResolver;
 import org.osgi.framework.ServiceException;
 import org.osgi.service.cm.Configuration;
 import org.osgi.service.cm.ConfigurationAdmin;
@@ -57,13 +58,28 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
     private ConfigurationAdmin configAdmin;
     private final Map<String, String> groupConfigListenerIds = new HashMap<String, String>();
     private String membershipId;
+    private final GroupMembershipCache membershipCache = new GroupMembershipCache();
+    private String membershipCacheListenerId;
+    private HazelcastReferenceResolver referenceResolver;
 
     public void init() {
+        if (referenceResolver != null) {
+            referenceResolver.setGroupManager(this);
+        }
+        IMap<String, Group> map = getGroupMembershipStore();
+        membershipCacheListenerId = map.addEntryListener(membershipCache, true);
+        membershipCache.rebuild(map.values());
         membershipId = this.masterCluster.addMembershipListener(this);
     }
 
     public void destroy() {
         this.masterCluster.removeMembershipListener(this.membershipId);
+        if (membershipCacheListenerId != null) {
+            getGroupMembershipStore().removeEntryListener(membershipCacheListenerId);
+        }
+        if (referenceResolver != null && referenceResolver.getGroupManager() == this) {
+            referenceResolver.setGroupManager(null);
+        }
     }
 
     /**
@@ -162,7 +178,7 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
 
     @Override
     public void memberAdded(MembershipEvent membershipEvent) {
-        //Don't really care about this...
+        this.membershipCache.rebuild(getGroupMembershipStore().values());
     }
 
     @Override
@@ -172,6 +188,8 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
         if (uuid.equals(this.getNode().getId())) {
             this.removeNodeFromAllGroups();
             LOGGER.info("Removed shutting down node from all group memberships {}" + this.getNode().getName());
+        } else {
+            this.membershipCache.rebuild(getGroupMembershipStore().values());
         }
     }
 
@@ -256,29 +274,27 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
 
     private Group addGrouptoNodeStore(Group group) {
         IMap<String, Group> map = getGroupMembershipStore();
-        return map.putIfAbsent(group.getName(), group);
+        Group existing = map.putIfAbsent(group.getName(), group);
+        this.membershipCache.update(existing != null ? existing : group);
+        return existing;
     }
 
     private void removeGroupFromStore(String groupName) {
         IMap<String, Group> map = getGroupMembershipStore();
         map.delete(groupName);
+        this.membershipCache.remove(groupName);
     }
 
     private void addNodeToGroupStore(String groupName) throws IOException {
-        boolean nodeAdded = false;
         IMap<String, Group> map = getGroupMembershipStore();
-        map.lock(groupName);
-        Group group = map.get(groupName);
-        if (!group.containsNode(getNode())) {
-            group.addNode(getNode());
-            map.set(groupName, group);
-            nodeAdded = true;
+        Group group = (Group) map.executeOnKey(groupName, new GroupMembershipProcessor(getNode(), true));
+        if (group != null) {
+            this.membershipCache.update(group);
         }
-        map.unlock(groupName);
         if (nodeConfiguration.getGroups().add(groupName)) {
             this.saveNodeConfiguration();
         }
-        if (nodeAdded) {
+        if (group != null) {
             LOGGER.info("Node was added to distributed group store, invoking synchronization.");
             this.masterCluster.synchronizeNodes(group);
         }
@@ -286,17 +302,13 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
 
     protected void removeNodeFromGroupStore(String groupName) throws IOException {
         IMap<String, Group> map = getGroupMembershipStore();
-        map.lock(groupName);
-        Group group = map.get(groupName);
-        if (group.containsNode(getNode())) {
-            group.removeNode(getNode());
-            map.set(groupName, group);
+        Group group = (Group) map.executeOnKey(groupName, new GroupMembershipProcessor(getNode(), false));
+        if (group != null) {
+            this.membershipCache.update(group);
         }
-        map.unlock(groupName);
         if (nodeConfiguration.getGroups().remove(groupName)) {
             this.saveNodeConfiguration();
         }
-
     }
 
     /**
@@ -305,14 +317,13 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
      */
     protected void removeNodeFromAllGroups() {
         IMap<String, Group> map = getGroupMembershipStore();
-        for (String groupName : map.keySet()) {
-            map.lock(groupName);
-            Group group = map.get(groupName);
-            group.removeNode(getNode());
-            map.set(groupName, group);
-            map.unlock(groupName);
-            nodeConfiguration.getGroups().remove(groupName);
+        Map<String, Object> updated = map.executeOnEntries(new GroupMembershipProcessor(getNode(), false));
+        for (Object group : updated.values()) {
+            if (group != null) {
+                this.membershipCache.update((Group) group);
+            }
         }
+        nodeConfiguration.getGroups().removeAll(this.membershipCache.getGroups().keySet());
     }
 
     protected void saveNodeConfiguration() throws IOException {
@@ -390,42 +401,33 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
 
     @Override
     public boolean isLocalGroup(String groupName) {
-        return nodeConfiguration.getGroups().contains(groupName);
+        return membershipCache.isMember(groupName, getNode());
     }
 
     @Override
     public Set<Group> listAllGroups() {
-        return new HashSet<Group>(getGroupMembershipStore().values());
+        return new HashSet<Group>(membershipCache.getGroups().values());
     }
 
     @Override
     public Group findGroupByName(String groupName) {
-        IMap<String, Group> map = getGroupMembershipStore();
-        return map.get(groupName);
+        return membershipCache.getGroup(groupName);
     }
 
     @Override
     public GroupConfiguration findGroupConfigurationByName(String groupName) {
-        return groupMemberships.get(groupName);
+        GroupConfiguration groupConfig = groupMemberships.get(groupName);
+        return groupConfig != null ? groupConfig.getSnapshot() : null;
     }
 
     @Override
     public Map<String, Group> listGroups() {
-        return getGroupMembershipStore();
+        return membershipCache.getGroups();
     }
 
     @Override
     public Set<Group> listGroups(Node node) {
-        Set<Group> result = new HashSet<Group>();
-
-        IMap<String, Group> map = getGroupMembershipStore();
-        for (Iterator<Group> it = map.values().iterator(); it.hasNext();) {
-            Group group = it.next();
-            if (group.containsNode(node)) {
-                result.add(group);
-            }
-        }
-        return result;
+        return new HashSet<Group>(membershipCache.getGroups(node));
     }
 
     @Override
@@ -436,13 +438,8 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
     @Override
     public Set<String> listGroupNames(Node node) {
         Set<String> result = new HashSet<String>();
-
-        IMap<String, Group> map = getGroupMembershipStore();
-        for (Iterator<Group> it = map.values().iterator(); it.hasNext();) {
-            Group group = it.next();
-            if (group.containsNode(node)) {
-                result.add(group.getName());
-            }
+        for (Group group : membershipCache.getGroups(node)) {
+            result.add(group.getName());
         }
         return result;
     }
@@ -475,4 +472,19 @@ public class HazelcastGroupManager implements GroupManager, MembershipListener {
     public void setNodeConfiguration(NodeConfiguration nodeConfiguration) {
         this.nodeConfiguration = nodeConfiguration;
     }
+
+    /**
+     * @return the referenceResolver
+     */
+    public HazelcastReferenceResolver getReferenceResolver() {
+        return referenceResolver;
+    }
+
+    /**
+     * @param referenceResolver the resolver of the nodes read by reference, the group manager registers itself to it
+     * before reading the groups.
+     */
+    public void setReferenceResolver(HazelcastReferenceResolver referenceResolver) {
+        this.referenceResolver = referenceResolver;
+    }
 }
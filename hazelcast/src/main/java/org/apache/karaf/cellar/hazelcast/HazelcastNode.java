@@ -21,10 +21,13 @@ import org.apache.karaf.cellar.core.Node;
  */
 public class HazelcastNode implements Node {
 
+    private static final long serialVersionUID = 1387743137051383558L;
+
     private String id;
     private String name;
     private String host;
     private int port;
+    private transient Member member;
 
     public HazelcastNode() {
     }
@@ -34,6 +37,7 @@ public class HazelcastNode implements Node {
     }
 
     public void init(Member hzMember) {
+        this.member = hzMember;
         this.id = hzMember.getUuid();
         this.host = hzMember.getInetSocketAddress().getHostString();
         this.port = hzMember.getInetSocketAddress().getPort();
@@ -41,6 +45,16 @@ public class HazelcastNode implements Node {
     }
 
     public void destroy() {
+        this.member = null;
+    }
+
+    /**
+     * Get the Hazelcast member backing this node, only available on the canonical nodes held by the cluster.
+     *
+     * @return the Hazelcast member or null.
+     */
+    public Member getMember() {
+        return member;
     }
 
     @Override
@@ -71,11 +85,11 @@ public class HazelcastNode implements Node {
         if (obj == null) {
             return false;
         }
-        if (getClass() != obj.getClass()) {
+        if (!(obj instanceof Node)) {
             return false;
         }
-        final HazelcastNode other = (HazelcastNode) obj;
-        if ((this.id == null) ? (other.id != null) : !this.id.equals(other.id)) {
+        final Node other = (Node) obj;
+        if ((this.id == null) ? (other.getId() != null) : !this.id.equals(other.getId())) {
             return false;
         }
         return true;
@@ -88,9 +102,7 @@ public class HazelcastNode implements Node {
 
     @Override
     public int hashCode() {
-        int hash = 3;
-        hash = 97 * hash + (this.id != null ? this.id.hashCode() : 0);
-        return hash;
+        return this.id != null ? this.id.hashCode() : 0;
     }
 
     /**
@@ -108,6 +120,13 @@ public class HazelcastNode implements Node {
         return name;
     }
 
+    /**
+     * @param name the name to set
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
     /**
      * @param hzMember the hzMember to set
      */
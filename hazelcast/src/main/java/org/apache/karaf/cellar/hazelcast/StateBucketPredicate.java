@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast;
+
+import com.hazelcast.query.Predicate;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Map;
+import org.apache.karaf.cellar.core.StateDigest;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+
+/**
+ * Selects the entries of a map whose key falls in one of the given digest buckets. The predicate is evaluated on the
+ * members owning the entries, so only the selected entries are transferred.
+ */
+public class StateBucketPredicate implements Predicate<Object, Object>, CellarSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    private BitSet buckets = new BitSet(StateDigest.BUCKETS);
+
+    public StateBucketPredicate() {
+    }
+
+    /**
+     * @param buckets the buckets to select.
+     */
+    public StateBucketPredicate(BitSet buckets) {
+        this.buckets = buckets;
+    }
+
+    @Override
+    public boolean apply(Map.Entry<Object, Object> entry) {
+        return buckets.get(StateDigest.bucketOf(entry.getKey()));
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeInt(buckets.cardinality());
+        for (int i = buckets.nextSetBit(0); i >= 0; i = buckets.nextSetBit(i + 1)) {
+            out.writeInt(i);
+        }
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        int size = in.readInt();
+        buckets = new BitSet(StateDigest.BUCKETS);
+        for (int i = 0; i < size; i++) {
+            buckets.set(in.readInt());
+        }
+        in.endFields();
+    }
+
+    /**
+     * @return the buckets
+     */
+    public BitSet getBuckets() {
+        return buckets;
+    }
+}
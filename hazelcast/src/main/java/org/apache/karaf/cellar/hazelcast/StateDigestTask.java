@@ -0,0 +1,89 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import org.apache.karaf.cellar.core.StateDigest;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+
+/**
+ * Computes the digest of the entries of a map owned by the member it runs on. The digests returned by all the members
+ * are merged into the digest of the whole map, so only the buckets are transferred instead of the entries.
+ */
+public class StateDigestTask implements Callable<StateDigest>, com.hazelcast.core.HazelcastInstanceAware, CellarSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    private String mapName;
+    private transient HazelcastInstance instance;
+
+    public StateDigestTask() {
+    }
+
+    /**
+     * @param mapName the name of the map to digest.
+     */
+    public StateDigestTask(String mapName) {
+        this.mapName = mapName;
+    }
+
+    @Override
+    public StateDigest call() throws Exception {
+        StateDigest digest = new StateDigest();
+        // the map configurations are registered before the instance starts, the same on every member
+        IMap<Object, Object> map = instance.getMap(mapName);
+        Set<Object> keys = map.localKeySet();
+        if (!keys.isEmpty()) {
+            for (Map.Entry<Object, Object> entry : map.getAll(keys).entrySet()) {
+                digest.add(entry.getKey(), entry.getValue());
+            }
+        }
+        return digest;
+    }
+
+    @Override
+    public void setHazelcastInstance(HazelcastInstance instance) {
+        this.instance = instance;
+    }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        out.startFields(FIELDS_VERSION);
+        out.writeString(mapName);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        in.startFields();
+        mapName = in.readString();
+        in.endFields();
+    }
+
+    /**
+     * @return the mapName
+     */
+    public String getMapName() {
+        return mapName;
+    }
+}
@@ -14,16 +14,31 @@
 package org.apache.karaf.cellar.hazelcast.factory;
 
 import com.hazelcast.config.Config;
-import com.hazelcast.config.FileSystemXmlConfig;
+import com.hazelcast.config.ExecutorConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.config.SerializerConfig;
 import com.hazelcast.config.TcpIpConfig;
 import java.io.FileNotFoundException;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
 import org.apache.karaf.cellar.core.discovery.Discovery;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
 import org.apache.karaf.cellar.core.utils.CellarUtils;
+import org.apache.karaf.cellar.hazelcast.HazelcastNode;
+import org.apache.karaf.cellar.hazelcast.serialization.CellarCodec;
+import org.apache.karaf.cellar.hazelcast.serialization.CellarStreamSerializer;
+import org.apache.karaf.cellar.hazelcast.serialization.GenericCellarSerializer;
+import org.apache.karaf.cellar.hazelcast.serialization.HazelcastNodeSerializer;
+import org.apache.karaf.cellar.hazelcast.serialization.PropertiesSerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
 import org.apache.karaf.cellar.hazelcast.internal.BundleClassLoader;
 
@@ -38,34 +53,180 @@ public class HazelcastConfigurationManager {
     private BundleClassLoader hzClassLoader;
     private String clusterName;
     private String nodeName;
+    private String executorName = "commandExecution";
+    private int controlPoolSize = 4;
+    private int remotePoolSize = 8;
+    private int bulkPoolSize = 8;
+    private String serializers;
+    private int compressionThreshold = 16384;
+    private String nearCacheMaps;
+    private int nearCacheMaxSize = 10000;
+    private int nearCacheTimeToLiveSeconds = 0;
+    private int nearCacheMaxIdleSeconds = 0;
+    private String nearCacheEvictionPolicy = "LRU";
+    private String colocatedMaps;
+    private List<String> colocatedMapPrefixes = Collections.emptyList();
+    private final CellarStreamSerializer streamSerializer = new CellarStreamSerializer();
+    private final PropertiesSerializer propertiesSerializer = new PropertiesSerializer();
+    private final List<GenericCellarSerializer> codecSerializers = new ArrayList<GenericCellarSerializer>();
+    private volatile StateConfig config;
 
     public Config createHazelcastConfig() throws FileNotFoundException {
-        Config cfg = new FileSystemXmlConfig(xmlConfig);
+        StateConfig cfg = new StateConfig(xmlConfig);
+        cfg.setColocatedMapPrefixes(colocatedMapPrefixes);
         cfg.setInstanceName(nodeName);
         cfg.getGroupConfig().setName(clusterName);
         if (hzClassLoader != null) {
             cfg.setClassLoader(hzClassLoader);
+            if (hzClassLoader.getBundleListener() != null) {
+                streamSerializer.setClassCache(hzClassLoader.getBundleListener().getLoadedClasses());
+                propertiesSerializer.setClassCache(hzClassLoader.getBundleListener().getLoadedClasses());
+            }
         }
-        /*     GlobalSerializerConfig globalConfig = new GlobalSerializerConfig();
-         globalConfig.setClassName("java.lang.Object");
-         globalConfig.setImplementation(new GenericCellarSerializer<Object>(10, Object.class));
-         cfg.getSerializationConfig().setGlobalSerializerConfig(globalConfig);*/
-//        SerializerConfig serializerConfig1 = new SerializerConfig();
-//        serializerConfig1.setImplementation(new GenericCellarSerializer<Node>(11, Node.class));
-//        serializerConfig1.setTypeClass(Node.class);
-//        SerializerConfig serializerConfig2 = new SerializerConfig();
-//        serializerConfig2.setImplementation(new GenericCellarSerializer<Group>(12, Group.class));
-//        serializerConfig2.setTypeClass(Group.class);
-//
-//        cfg.getSerializationConfig().addSerializerConfig(serializerConfig1);
-//        cfg.getSerializationConfig().addSerializerConfig(serializerConfig2);
+        streamSerializer.setCompressionThreshold(compressionThreshold);
+        propertiesSerializer.setCompressionThreshold(compressionThreshold);
+        cfg.getSerializationConfig().addSerializerConfig(new SerializerConfig()
+                .setTypeClass(CellarSerializable.class).setImplementation(streamSerializer));
+        cfg.getSerializationConfig().addSerializerConfig(new SerializerConfig()
+                .setTypeClass(HazelcastNode.class).setImplementation(new HazelcastNodeSerializer()));
+        cfg.getSerializationConfig().addSerializerConfig(new SerializerConfig()
+                .setTypeClass(Properties.class).setImplementation(propertiesSerializer));
+        addCodecSerializerConfigs(cfg);
+        addNearCacheConfigs(cfg);
+        addLaneExecutorConfig(cfg, ExecutionLane.CONTROL, controlPoolSize);
+        addLaneExecutorConfig(cfg, ExecutionLane.REMOTE, remotePoolSize);
+        addLaneExecutorConfig(cfg, ExecutionLane.BULK, bulkPoolSize);
         if (discoveredMemberSet != null) {
             TcpIpConfig tcpIpConfig = cfg.getNetworkConfig().getJoin().getTcpIpConfig();
             tcpIpConfig.getMembers().addAll(discoveredMemberSet);
         }
+        config = cfg;
         return cfg;
     }
 
+    /**
+     * Configure the executor of a command lane unless it is already configured in the hazelcast.xml file.
+     */
+    private void addLaneExecutorConfig(Config cfg, ExecutionLane lane, int poolSize) {
+        String laneExecutorName = lane.getExecutorName(executorName);
+        if (!cfg.getExecutorConfigs().containsKey(laneExecutorName)) {
+            LOGGER.debug("CELLAR HAZELCAST: executor {} configured with {} threads", laneExecutorName, poolSize);
+            cfg.addExecutorConfig(new ExecutorConfig(laneExecutorName, poolSize));
+        }
+    }
+
+    /**
+     * Add a near cache, invalidated on change, to the maps matching the nearCacheMaps names unless a near cache is
+     * already configured for them in the hazelcast.xml file. Names may contain a '*' wildcard.
+     */
+    private void addNearCacheConfigs(Config cfg) {
+        for (String mapName : CellarUtils.createSetFromString(nearCacheMaps)) {
+            MapConfig mapConfig = cfg.getMapConfig(mapName.trim());
+            if (mapConfig.getNearCacheConfig() == null) {
+                NearCacheConfig nearCacheConfig = new NearCacheConfig();
+                nearCacheConfig.setMaxSize(nearCacheMaxSize);
+                nearCacheConfig.setTimeToLiveSeconds(nearCacheTimeToLiveSeconds);
+                nearCacheConfig.setMaxIdleSeconds(nearCacheMaxIdleSeconds);
+                nearCacheConfig.setEvictionPolicy(nearCacheEvictionPolicy);
+                nearCacheConfig.setInvalidateOnChange(true);
+                mapConfig.setNearCacheConfig(nearCacheConfig);
+                LOGGER.debug("CELLAR HAZELCAST: near cache enabled for the maps {}", mapConfig.getName());
+            }
+        }
+    }
+
+    /**
+     * Register the codec serializers configured with the serializers property. Each entry is written as
+     * typeId:codec:className, the type id is part of the wire format and must stay the same across versions.
+     */
+    private void addCodecSerializerConfigs(Config cfg) {
+        codecSerializers.clear();
+        Set<Integer> typeIds = new LinkedHashSet<Integer>();
+        typeIds.add(CellarStreamSerializer.TYPE_ID);
+        typeIds.add(HazelcastNodeSerializer.TYPE_ID);
+        typeIds.add(PropertiesSerializer.TYPE_ID);
+        for (String entry : CellarUtils.createSetFromString(serializers)) {
+            String[] parts = entry.split(":");
+            if (parts.length != 3) {
+                LOGGER.warn("CELLAR HAZELCAST: invalid serializer definition {}, expected typeId:codec:className", entry);
+                continue;
+            }
+            try {
+                int typeId = Integer.parseInt(parts[0].trim());
+                if (typeId <= 0 || !typeIds.add(typeId)) {
+                    LOGGER.warn("CELLAR HAZELCAST: serializer type id {} of {} is not positive or already used", typeId, entry);
+                    continue;
+                }
+                CellarCodec codec = CellarCodec.fromName(parts[1]);
+                Class type = loadClass(parts[2].trim());
+                GenericCellarSerializer serializer = new GenericCellarSerializer(typeId, type, codec);
+                cfg.getSerializationConfig().addSerializerConfig(new SerializerConfig().setTypeClass(type).setImplementation(serializer));
+                codecSerializers.add(serializer);
+                LOGGER.debug("CELLAR HAZELCAST: {} serialized with the {} codec", type.getName(), codec);
+            } catch (Exception e) {
+                LOGGER.warn("CELLAR HAZELCAST: unable to register the serializer " + entry, e);
+            }
+        }
+    }
+
+    private Class loadClass(String className) throws ClassNotFoundException {
+        ClassLoader loader = hzClassLoader != null ? hzClassLoader : getClass().getClassLoader();
+        return Class.forName(className, false, loader);
+    }
+
+    /**
+     * @return the serializer of the Cellar types, shared by the configurations created by this manager.
+     */
+    public CellarStreamSerializer getStreamSerializer() {
+        return streamSerializer;
+    }
+
+    /**
+     * Get the codec serializers registered in the last created configuration, with their write and read counters.
+     *
+     * @return the codec serializers.
+     */
+    public List<GenericCellarSerializer> getCodecSerializers() {
+        return new ArrayList<GenericCellarSerializer>(codecSerializers);
+    }
+
+    /**
+     * Get the maps, matching the nearCacheMaps names, which got a near cache in the last created configuration. A map
+     * is only known once it has been created on this node.
+     *
+     * @return the names of the near cached Cellar maps.
+     */
+    public Set<String> getNearCachedMapNames() {
+        Set<String> names = new LinkedHashSet<String>();
+        StateConfig cfg = config;
+        if (cfg == null) {
+            return names;
+        }
+        Set<String> patterns = CellarUtils.createSetFromString(nearCacheMaps);
+        for (String name : cfg.getNearCachedMaps()) {
+            for (String pattern : patterns) {
+                if (matches(pattern.trim(), name)) {
+                    names.add(name);
+                    break;
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Match a map name against a configured name which may contain a '*' wildcard.
+     */
+    private static boolean matches(String pattern, String name) {
+        int wildcard = pattern.indexOf('*');
+        if (wildcard < 0) {
+            return pattern.equals(name);
+        }
+        String prefix = pattern.substring(0, wildcard);
+        String suffix = pattern.substring(wildcard + 1);
+        return name.length() >= prefix.length() + suffix.length() && name.startsWith(prefix) && name.endsWith(suffix);
+    }
+
     /**
      * Update configuration of a Hazelcast instance.
      *
@@ -145,4 +306,179 @@ public class HazelcastConfigurationManager {
     public void setNodeName(String nodeName) {
         this.nodeName = nodeName;
     }
+
+    /**
+     * @return the executorName
+     */
+    public String getExecutorName() {
+        return executorName;
+    }
+
+    /**
+     * @param executorName the name of the command execution context executor.
+     */
+    public void setExecutorName(String executorName) {
+        this.executorName = executorName;
+    }
+
+    /**
+     * @return the controlPoolSize
+     */
+    public int getControlPoolSize() {
+        return controlPoolSize;
+    }
+
+    /**
+     * @param controlPoolSize the number of threads executing control commands.
+     */
+    public void setControlPoolSize(int controlPoolSize) {
+        this.controlPoolSize = controlPoolSize;
+    }
+
+    /**
+     * @return the remotePoolSize
+     */
+    public int getRemotePoolSize() {
+        return remotePoolSize;
+    }
+
+    /**
+     * @param remotePoolSize the number of threads executing remote service calls.
+     */
+    public void setRemotePoolSize(int remotePoolSize) {
+        this.remotePoolSize = remotePoolSize;
+    }
+
+    /**
+     * @return the bulkPoolSize
+     */
+    public int getBulkPoolSize() {
+        return bulkPoolSize;
+    }
+
+    /**
+     * @param bulkPoolSize the number of threads executing resource synchronization events.
+     */
+    public void setBulkPoolSize(int bulkPoolSize) {
+        this.bulkPoolSize = bulkPoolSize;
+    }
+
+    /**
+     * @return the serializers
+     */
+    public String getSerializers() {
+        return serializers;
+    }
+
+    /**
+     * @param serializers the comma separated typeId:codec:className definitions of the codec serializers.
+     */
+    public void setSerializers(String serializers) {
+        this.serializers = serializers;
+    }
+
+    /**
+     * @return the compressionThreshold
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @param compressionThreshold the serialized size in bytes from which commands and configurations are compressed,
+     * 0 to disable the compression.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @return the nearCacheMaps
+     */
+    public String getNearCacheMaps() {
+        return nearCacheMaps;
+    }
+
+    /**
+     * @param nearCacheMaps the comma separated names of the maps cached on each node, names may contain a '*' wildcard.
+     */
+    public void setNearCacheMaps(String nearCacheMaps) {
+        this.nearCacheMaps = nearCacheMaps;
+    }
+
+    /**
+     * @return the nearCacheMaxSize
+     */
+    public int getNearCacheMaxSize() {
+        return nearCacheMaxSize;
+    }
+
+    /**
+     * @param nearCacheMaxSize the maximum number of entries of each near cache, 0 for no limit.
+     */
+    public void setNearCacheMaxSize(int nearCacheMaxSize) {
+        this.nearCacheMaxSize = nearCacheMaxSize;
+    }
+
+    /**
+     * @return the nearCacheTimeToLiveSeconds
+     */
+    public int getNearCacheTimeToLiveSeconds() {
+        return nearCacheTimeToLiveSeconds;
+    }
+
+    /**
+     * @param nearCacheTimeToLiveSeconds the time an entry stays in a near cache, 0 for no limit.
+     */
+    public void setNearCacheTimeToLiveSeconds(int nearCacheTimeToLiveSeconds) {
+        this.nearCacheTimeToLiveSeconds = nearCacheTimeToLiveSeconds;
+    }
+
+    /**
+     * @return the nearCacheMaxIdleSeconds
+     */
+    public int getNearCacheMaxIdleSeconds() {
+        return nearCacheMaxIdleSeconds;
+    }
+
+    /**
+     * @param nearCacheMaxIdleSeconds the time an entry which isn't read stays in a near cache, 0 for no limit.
+     */
+    public void setNearCacheMaxIdleSeconds(int nearCacheMaxIdleSeconds) {
+        this.nearCacheMaxIdleSeconds = nearCacheMaxIdleSeconds;
+    }
+
+    /**
+     * @return the nearCacheEvictionPolicy
+     */
+    public String getNearCacheEvictionPolicy() {
+        return nearCacheEvictionPolicy;
+    }
+
+    /**
+     * @param nearCacheEvictionPolicy the eviction policy of the near caches, LRU, LFU or NONE.
+     */
+    public void setNearCacheEvictionPolicy(String nearCacheEvictionPolicy) {
+        this.nearCacheEvictionPolicy = nearCacheEvictionPolicy;
+    }
+
+    /**
+     * @return the colocatedMaps
+     */
+    public String getColocatedMaps() {
+        return colocatedMaps;
+    }
+
+    /**
+     * @param colocatedMaps the comma separated name prefixes of the maps holding the state of a group, followed by
+     * the group name in the map names.
+     */
+    public void setColocatedMaps(String colocatedMaps) {
+        this.colocatedMaps = colocatedMaps;
+        List<String> prefixes = new ArrayList<String>();
+        for (String prefix : CellarUtils.createSetFromString(colocatedMaps)) {
+            prefixes.add(prefix.trim());
+        }
+        this.colocatedMapPrefixes = prefixes;
+    }
 }
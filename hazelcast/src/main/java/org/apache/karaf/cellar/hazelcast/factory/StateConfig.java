@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.factory;
+
+import com.hazelcast.config.FileSystemXmlConfig;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.PartitioningStrategyConfig;
+import java.io.FileNotFoundException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Hazelcast configuration loaded from the hazelcast.xml file which gives the state maps of each group a
+ * {@link StatePartitioningStrategy} bound to the group. A partitioning strategy only sees the keys, so the group is
+ * taken from the map name, the group name following one of the colocated map prefixes. The map configuration is
+ * resolved the same way on every member whichever operation creates the map, the configuration being in place
+ * before the instance starts. The maps resolved with a near cache are recorded so their statistics can be read without
+ * going through every distributed object of the instance.
+ */
+public class StateConfig extends FileSystemXmlConfig {
+
+    private volatile List<String> colocatedMapPrefixes = Collections.emptyList();
+    private final Set<String> nearCachedMaps = new CopyOnWriteArraySet<String>();
+
+    public StateConfig(String configFilename) throws FileNotFoundException {
+        super(configFilename);
+    }
+
+    /**
+     * Get the configuration of a map, the state map of a group gets its own configuration, copied from the one
+     * matching it in the hazelcast.xml file and partitioned by the group.
+     *
+     * @param name the map name.
+     * @return the map configuration.
+     */
+    @Override
+    public synchronized MapConfig getMapConfig(String name) {
+        MapConfig mapConfig = super.getMapConfig(name);
+        if (mapConfig.getNearCacheConfig() != null && name != null && name.indexOf('*') < 0) {
+            nearCachedMaps.add(name);
+        }
+        String group = getGroup(name);
+        if (group == null) {
+            return mapConfig;
+        }
+        if (!name.equals(mapConfig.getName())) {
+            // matched a wildcard configuration shared with other maps
+            mapConfig = new MapConfig(mapConfig);
+            mapConfig.setName(name);
+            addMapConfig(mapConfig);
+        }
+        if (mapConfig.getPartitioningStrategyConfig() == null
+                || mapConfig.getPartitioningStrategyConfig().getPartitioningStrategy() instanceof StatePartitioningStrategy) {
+            mapConfig.setPartitioningStrategyConfig(new PartitioningStrategyConfig(new StatePartitioningStrategy(group)));
+        }
+        return mapConfig;
+    }
+
+    /**
+     * Get the group of a state map.
+     *
+     * @param name the map name.
+     * @return the group name or null if the map doesn't hold the state of a group.
+     */
+    private String getGroup(String name) {
+        if (name == null || name.indexOf('*') >= 0) {
+            return null;
+        }
+        for (String prefix : colocatedMapPrefixes) {
+            if (name.startsWith(prefix) && name.length() > prefix.length()) {
+                return name.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the names of the maps resolved with a near cache.
+     */
+    public Set<String> getNearCachedMaps() {
+        return Collections.unmodifiableSet(nearCachedMaps);
+    }
+
+    /**
+     * @param colocatedMapPrefixes the name prefixes of the maps holding the state of a group.
+     */
+    public void setColocatedMapPrefixes(List<String> colocatedMapPrefixes) {
+        this.colocatedMapPrefixes = colocatedMapPrefixes;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.factory;
+
+import com.hazelcast.core.PartitioningStrategy;
+
+/**
+ * Partitions all the entries of the state maps of a group by the group, so the bundles, configurations and features
+ * of a group live in one partition and are owned by one member while the groups spread over the partitions.
+ */
+public class StatePartitioningStrategy implements PartitioningStrategy {
+
+    /**
+     * Prefix of the partition key of the group state maps, followed by the group name.
+     */
+    public static final String PARTITION_KEY_PREFIX = "org.apache.karaf.cellar.state@";
+
+    private final String partitionKey;
+
+    /**
+     * @param group the name of the group whose state maps are partitioned.
+     */
+    public StatePartitioningStrategy(String group) {
+        this.partitionKey = PARTITION_KEY_PREFIX + group;
+    }
+
+    @Override
+    public Object getPartitionKey(Object key) {
+        return partitionKey;
+    }
+
+    @Override
+    public String toString() {
+        return "StatePartitioningStrategy{" + "partitionKey=" + partitionKey + '}';
+    }
+}
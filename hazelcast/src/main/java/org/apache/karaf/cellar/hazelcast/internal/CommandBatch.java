@@ -0,0 +1,88 @@
+/*
+ * Copyright 2013 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.event.Event;
+
+/**
+ * Commands queued for the same cluster group and destinations, shipped together in one task.
+ *
+ * @author rmoquin
+ */
+public class CommandBatch<C extends Event> {
+
+    private final String group;
+    private final Set<Node> destinations;
+    private final List<C> commands = new ArrayList<C>();
+    private long deadline = Long.MAX_VALUE;
+
+    public CommandBatch(String group, Set<Node> destinations) {
+        this.group = group;
+        this.destinations = destinations;
+    }
+
+    /**
+     * Queue a command, the batch deadline is the earliest deadline of its commands.
+     *
+     * @param command the command to queue.
+     * @param timeout the command timeout in milliseconds.
+     */
+    public void add(C command, long timeout) {
+        commands.add(command);
+        deadline = Math.min(deadline, System.currentTimeMillis() + timeout);
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * @return the group
+     */
+    public String getGroup() {
+        return group;
+    }
+
+    /**
+     * @return the destinations
+     */
+    public Set<Node> getDestinations() {
+        return destinations;
+    }
+
+    /**
+     * @return the commands
+     */
+    public List<C> getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return the deadline
+     */
+    public long getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    public String toString() {
+        return "CommandBatch{" + "group=" + group + ", size=" + commands.size() + '}';
+    }
+}
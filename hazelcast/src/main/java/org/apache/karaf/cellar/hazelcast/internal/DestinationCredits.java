@@ -0,0 +1,93 @@
+/*
+ * Copyright 2013 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.internal;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.karaf.cellar.core.command.FlowControlPolicy;
+
+/**
+ * Credits of a destination node, one credit is taken for each task in flight to the node.
+ *
+ * @author rmoquin
+ */
+public class DestinationCredits {
+
+    private final String name;
+    private final int maxInFlight;
+    private final Semaphore credits;
+    private final AtomicLong rejected = new AtomicLong();
+
+    public DestinationCredits(String name, int maxInFlight) {
+        this.name = name;
+        this.maxInFlight = maxInFlight;
+        this.credits = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Take a credit.
+     *
+     * @param policy what to do when no credit is left.
+     * @param timeout the maximum time to wait for a credit with the blocking policy, in milliseconds.
+     * @return true if a credit has been taken, false if the task is rejected.
+     * @throws InterruptedException if the thread is interrupted while waiting for a credit.
+     */
+    public boolean acquire(FlowControlPolicy policy, long timeout) throws InterruptedException {
+        boolean acquired;
+        if (policy == FlowControlPolicy.BLOCK) {
+            acquired = credits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } else {
+            acquired = credits.tryAcquire();
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+        }
+        return acquired;
+    }
+
+    public void release() {
+        credits.release();
+    }
+
+    /**
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the number of tasks in flight to the node.
+     */
+    public int getInFlight() {
+        return maxInFlight - credits.availablePermits();
+    }
+
+    /**
+     * @return the number of threads waiting for a credit.
+     */
+    public int getWaiting() {
+        return credits.getQueueLength();
+    }
+
+    /**
+     * @return the number of tasks rejected because no credit was left.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+}
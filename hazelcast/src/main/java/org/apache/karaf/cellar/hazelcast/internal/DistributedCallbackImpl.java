@@ -17,12 +17,17 @@ package org.apache.karaf.cellar.hazelcast.internal;
 
 import org.apache.karaf.cellar.core.command.DistributedCallback;
 import com.hazelcast.core.ExecutionCallback;
+import java.util.Map;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.command.DistributedMultiCallback;
 
 /**
+ * Adapts a callback of a single node to the Hazelcast execution callbacks and to the callbacks of a distributed
+ * future sent to that node.
  *
  * @author rmoquin
  */
-public class DistributedCallbackImpl<T> implements ExecutionCallback<T>{
+public class DistributedCallbackImpl<T> implements ExecutionCallback<T>, DistributedMultiCallback {
     private final DistributedCallback<T> callback;
 
     public DistributedCallbackImpl(DistributedCallback<T> callback) {
@@ -38,5 +43,21 @@ public class DistributedCallbackImpl<T> implements ExecutionCallback<T>{
     public void onFailure(Throwable t) {
         callback.onFailure(t);
     }
-    
+
+    @Override
+    public void onComplete(Map<Node, Object> values) {
+        // nothing to do, the single node result has been handled
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onResponse(Node member, Object value) {
+        callback.onResponse((T) value);
+    }
+
+    @Override
+    public void onFailure(Node member, Throwable t) {
+        callback.onFailure(t);
+    }
+
 }
@@ -17,26 +17,56 @@ package org.apache.karaf.cellar.hazelcast.internal;
 
 import org.apache.karaf.cellar.core.command.DistributedCallback;
 import org.apache.karaf.cellar.core.command.DistributedMultiCallback;
-import com.hazelcast.core.ExecutionCallback;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.IExecutorService;
+import com.hazelcast.core.IMap;
 import com.hazelcast.core.Member;
-import com.hazelcast.core.MultiExecutionCallback;
+import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.monitor.LocalExecutorStats;
+import com.hazelcast.monitor.NearCacheStats;
+import com.hazelcast.spi.exception.TargetNotMemberException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Future;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.karaf.cellar.core.Configurations;
 import org.apache.karaf.cellar.core.Node;
 import org.apache.karaf.cellar.core.NodeConfiguration;
+import org.apache.karaf.cellar.core.command.BatchResult;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.DeadLetter;
+import org.apache.karaf.cellar.core.command.DeliveryPolicy;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
+import org.apache.karaf.cellar.core.command.DistributedFuture;
 import org.apache.karaf.cellar.core.command.DistributedResult;
 import org.apache.karaf.cellar.core.command.DistributedTask;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
+import org.apache.karaf.cellar.core.command.FlowControlPolicy;
 import org.apache.karaf.cellar.core.control.BasicSwitch;
 import org.apache.karaf.cellar.core.control.Switch;
-import org.apache.karaf.cellar.hazelcast.HazelcastNode;
+import org.apache.karaf.cellar.core.event.Event;
+import org.apache.karaf.cellar.core.event.EventHandlerResolver;
+import org.apache.karaf.cellar.core.exception.CommandExecutionException;
+import org.apache.karaf.cellar.core.exception.CommandRejectedException;
+import org.apache.karaf.cellar.hazelcast.HazelcastCluster;
+import org.apache.karaf.cellar.hazelcast.factory.HazelcastConfigurationManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,9 +79,25 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
     private static final Logger LOGGER = LoggerFactory.getLogger(DistributedExecutionContextImpl.class);
     private String name;
     private HazelcastInstance instance;
+    private HazelcastCluster cluster;
     private NodeConfiguration nodeConfiguration;
-    private IExecutorService executorService;
+    private HazelcastConfigurationManager configManager;
+    private final Map<ExecutionLane, IExecutorService> executors = new EnumMap<ExecutionLane, IExecutorService>(ExecutionLane.class);
+    private ScheduledExecutorService scheduler;
+    private final Set<DistributedFuture<?>> inflight = Collections.newSetFromMap(new ConcurrentHashMap<DistributedFuture<?>, Boolean>());
+    private final Map<String, CommandBatch<C>> batches = new HashMap<String, CommandBatch<C>>();
+    private final ConcurrentMap<String, DestinationCredits> credits = new ConcurrentHashMap<String, DestinationCredits>();
+    private final AtomicLong deadLetterSequence = new AtomicLong();
     private int timeoutSeconds = 60;
+    private long deadlineCheckInterval = 500;
+    private long batchWindow = 25;
+    private int batchMaxSize = 100;
+    private int maxInFlight = 256;
+    private FlowControlPolicy flowControlPolicy = FlowControlPolicy.BLOCK;
+    private int deliveryRetries = 3;
+    private long deliveryBackoff = 1000;
+    private long deliveryMaxBackoff = 30000;
+    private DeliveryPolicy defaultDeliveryPolicy;
     public String SWITCH_ID = "org.apache.karaf.cellar.executor.";
 
     public DistributedExecutionContextImpl() {
@@ -67,12 +113,35 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
     public void init() {
         SWITCH_ID = SWITCH_ID + name;
         eventSwitch = new BasicSwitch(SWITCH_ID);
-        executorService = this.instance.getExecutorService(name);
+        defaultDeliveryPolicy = new DeliveryPolicy(deliveryRetries, deliveryBackoff, deliveryMaxBackoff);
+        for (ExecutionLane lane : ExecutionLane.values()) {
+            executors.put(lane, this.instance.getExecutorService(lane.getExecutorName(name)));
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "cellar-" + name + "-deadlines");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                expireInflight();
+            }
+        }, deadlineCheckInterval, deadlineCheckInterval, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void shutdown() {
-        executorService.shutdown();
+        flushAll();
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (IExecutorService executor : executors.values()) {
+            executor.shutdown();
+        }
     }
 
     /**
@@ -84,32 +153,7 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
      */
     @Override
     public Map<Node, R> execute(C command, Set<Node> destinations) {
-        Map<Node, R> finishedResults = new HashMap<Node, R>();
-        if (destinations == null || destinations.isEmpty()) {
-            LOGGER.debug("No destination nodes were provided to execute command, {}", command);
-            return finishedResults;
-        }
-        Set<Member> members = new HashSet<Member>();
-        for (Node node : destinations) {
-            Member member = findMemberById(node.getId());
-            members.add(member);
-        }
-        DistributedTask task = new DistributedTask(command);
-        Map<Member, Future<R>> executedResult = this.executorService.submitToMembers(task, members);
-        for (Map.Entry<Member, Future<R>> entry : executedResult.entrySet()) {
-            Member member = entry.getKey();
-            Node node = new HazelcastNode(member);
-            try {
-                R result = entry.getValue().get(timeoutSeconds, TimeUnit.SECONDS);
-                finishedResults.put(node, result);
-//                LOGGER.info("Task completed on node {} with result {} for command {}.", node, result, command);
-            } catch (Exception ex) {
-                LOGGER.error("Node {} generated an error executing task {}", node, command, ex);
-            }
-        }
-        printTaskResults(finishedResults);
-        LOGGER.info("All tasks completed for command {}.", command);
-        return finishedResults;
+        return await(command, submit(command, destinations, flowControlPolicy, true));
     }
 
     /**
@@ -124,21 +168,7 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
         if (destination == null) {
             throw new IllegalArgumentException("Destination node cannot be null, cannot execute command, " + command);
         }
-        Member member = findMemberById(destination.getId());
-        DistributedTask task = new DistributedTask(command);
-        Future<R> future = this.executorService.submitToMember(task, member);
-        Map<Node, R> finishedResults = new HashMap<Node, R>();
-        Node node = new HazelcastNode(member);
-        try {
-            R result = future.get(timeoutSeconds, TimeUnit.SECONDS);
-            finishedResults.put(node, result);
-//            LOGGER.info("Task completed on node {} with result {} for command {}.", destination, result, command);
-        } catch (Exception ex) {
-            LOGGER.error("Node {} generated an error executing task {}", node, command, ex);
-        }
-        printTaskResults(finishedResults);
-        LOGGER.info("All tasks completed for command {}.", command);
-        return finishedResults;
+        return await(command, submit(command, Collections.singleton(destination), flowControlPolicy, true));
     }
 
     /**
@@ -183,7 +213,7 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
 
     /**
      * Executes the distributed task on the specified node asynchonously with the specified callback handling each
-     * results.
+     * results. The task goes through the same flow control, deadline and redelivery as the other tasks.
      *
      * @param command the task to execute
      * @param destination the destin
@@ -197,35 +227,514 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
         if (callback == null) {
             throw new IllegalArgumentException("Callback cannot be null.");
         }
-        ExecutionCallback<R> distributedCallback = new DistributedCallbackImpl<R>(callback);
-        Member member = findMemberById(destination.getId());
-        DistributedTask task = new DistributedTask(command);
-        this.executorService.submitToMember(task, member, distributedCallback);
+        submit(command, Collections.singleton(destination), FlowControlPolicy.FAIL_FAST, true).addCallback(new DistributedCallbackImpl<R>(callback));
     }
 
     @Override
     public void executeAsync(C command, Set<Node> destinations, DistributedMultiCallback callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException("Callback cannot be null.");
+        }
+        submit(command, destinations, FlowControlPolicy.FAIL_FAST, true).addCallback(callback);
+    }
+
+    @Override
+    public void executeOnOneAsync(C command, Set<Node> destinations, DistributedCallback<R> callback) {
+        Node node = destinations.iterator().next();
+        this.executeAsync(command, node, callback);
+    }
+
+    /**
+     * Scatters the distributed task to the specified nodes, all the nodes share the same deadline. The caller does not
+     * wait for the results so a node without credit left fails at once, whatever the flow control policy, and the
+     * nodes execute the task even once the deadline has passed.
+     *
+     * @param command the task to execute
+     * @param destinations the destinations to send to.
+     * @return the future gathering the results.
+     */
+    @Override
+    public DistributedFuture<R> submit(C command, Set<Node> destinations) {
+        return submit(command, destinations, FlowControlPolicy.FAIL_FAST, false);
+    }
+
+    private DistributedFuture<R> submit(C command, Set<Node> destinations, FlowControlPolicy policy, boolean awaited) {
+        long timeout = getTimeout(command);
+        DistributedFuture<R> future = scatter(new DistributedTask<R>(command), destinations, System.currentTimeMillis() + timeout, command.getLane(), policy, awaited, command);
+        DeliveryPolicy deliveryPolicy = getDeliveryPolicy(command);
+        if (deliveryPolicy != null) {
+            future.addCallback(new Redelivery(Collections.<Event>singletonList(command), command.getLane(), deliveryPolicy, timeout, 0));
+        }
+        return future;
+    }
+
+    /**
+     * Sends the distributed task to the specified node.
+     *
+     * @param command the task to execute
+     * @param destination the destination to send to.
+     * @return the future gathering the result.
+     */
+    @Override
+    public DistributedFuture<R> submit(C command, Node destination) {
+        if (destination == null) {
+            throw new IllegalArgumentException("Destination node cannot be null, cannot execute command, " + command);
+        }
+        return submit(command, Collections.singleton(destination));
+    }
+
+    /**
+     * Get the time the caller waits for the command results, the command timeout or the default timeout if the
+     * command has none.
+     */
+    private long getTimeout(C command) {
+        long timeout = command.getTimeout();
+        if (timeout <= 0) {
+            timeout = TimeUnit.SECONDS.toMillis(timeoutSeconds);
+        }
+        return timeout;
+    }
+
+    /**
+     * Get the delivery policy of a command, the default policy applies to the bulk commands only.
+     *
+     * @return the policy or null if the command delivery is never retried.
+     */
+    private DeliveryPolicy getDeliveryPolicy(Event event) {
+        if (event instanceof Command) {
+            Command command = (Command) event;
+            if (command.getDeliveryPolicy() != null) {
+                return command.getDeliveryPolicy();
+            }
+            if (command.getLane() != ExecutionLane.BULK) {
+                return null;
+            }
+        }
+        return defaultDeliveryPolicy;
+    }
+
+    /**
+     * Queues the distributed task with the other tasks of its cluster group, the queue is shipped as a single task
+     * once the batch window elapsed or the batch is full. Only bulk commands are batched, the others are sent at once.
+     *
+     * @param command the task to execute
+     * @param destinations the destinations to send to.
+     */
+    @Override
+    public void executeBatched(C command, Set<Node> destinations) {
         if (destinations == null || destinations.isEmpty()) {
             LOGGER.debug("No destination nodes were provided to execute command, {}", command);
             return;
         }
-        if (callback == null) {
-            throw new IllegalArgumentException("Callback cannot be null.");
+        if (batchWindow <= 0 || batchMaxSize <= 1 || command.getLane() != ExecutionLane.BULK) {
+            submit(command, destinations);
+            return;
         }
-        MultiExecutionCallback distributedCallback = new DistributedMultiCallbackImpl(callback);
-        Set<Member> members = new HashSet<Member>();
+        String group = command.getSourceGroupName() != null ? command.getSourceGroupName() : "";
+        List<CommandBatch<C>> full = new ArrayList<CommandBatch<C>>(2);
+        synchronized (batches) {
+            CommandBatch<C> batch = batches.get(group);
+            if (batch != null && !batch.getDestinations().equals(destinations)) {
+                // the cluster group members changed, ship what has been queued for the previous members
+                full.add(batches.remove(group));
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new CommandBatch<C>(group, new HashSet<Node>(destinations));
+                batches.put(group, batch);
+                scheduler.schedule(new BatchFlusher(batch), batchWindow, TimeUnit.MILLISECONDS);
+            }
+            batch.add(command, getTimeout(command));
+            if (batch.size() >= batchMaxSize) {
+                full.add(batches.remove(group));
+            }
+        }
+        for (CommandBatch<C> batch : full) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Ships a batch once it has been removed from the queued batches, never while holding the batches lock. Nobody
+     * waits for a batch so a node without credit left fails at once and the batch is redelivered later.
+     */
+    private void flush(CommandBatch<C> batch) {
+        if (batch.size() == 1) {
+            submit(batch.getCommands().get(0), batch.getDestinations());
+        } else {
+            List<Event> commands = new ArrayList<Event>(batch.getCommands());
+            DistributedTask<BatchResult> task = new DistributedTask<BatchResult>(commands, 0);
+            DistributedFuture<BatchResult> future = scatter(task, batch.getDestinations(), batch.getDeadline(), ExecutionLane.BULK, FlowControlPolicy.FAIL_FAST, false, batch);
+            future.addCallback(new Redelivery(commands, ExecutionLane.BULK, defaultDeliveryPolicy, TimeUnit.SECONDS.toMillis(timeoutSeconds), 0));
+        }
+    }
+
+    private void flushAll() {
+        List<CommandBatch<C>> queued;
+        synchronized (batches) {
+            queued = new ArrayList<CommandBatch<C>>(batches.values());
+            batches.clear();
+        }
+        for (CommandBatch<C> batch : queued) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Ships a batch once its window elapsed, unless it has already been shipped.
+     */
+    private class BatchFlusher implements Runnable {
+
+        private final CommandBatch<C> batch;
+
+        public BatchFlusher(CommandBatch<C> batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void run() {
+            synchronized (batches) {
+                if (batches.get(batch.getGroup()) != batch) {
+                    return;
+                }
+                batches.remove(batch.getGroup());
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * Sends the task to the destination nodes. The deadline is passed to the nodes only when a caller awaits the
+     * results, so the nodes skip a task nobody waits for anymore but still execute the commands sent without waiting.
+     * Only the awaited futures are expired at the deadline, the others complete when the nodes answer.
+     */
+    private <V extends DistributedResult> DistributedFuture<V> scatter(DistributedTask<V> task, Set<Node> destinations, long deadline, ExecutionLane lane, FlowControlPolicy policy, boolean awaited, Object description) {
+        DistributedFuture<V> future = new DistributedFuture<V>(destinations, deadline);
+        if (future.isDone()) {
+            LOGGER.debug("No destination nodes were provided to execute command, {}", description);
+            return future;
+        }
+        future.addCallback(new FailureLogger(description));
+        if (awaited) {
+            task.setTimeBudget(future.getRemainingTime());
+        }
+        IExecutorService executor = executors.get(lane);
         for (Node node : destinations) {
             Member member = findMemberById(node.getId());
-            members.add(member);
+            if (member == null) {
+                future.onFailure(node, new CommandExecutionException("Node " + node.getId() + " is not a member of the cluster"));
+                continue;
+            }
+            DestinationCredits nodeCredits = acquireCredit(node, lane, policy, future);
+            if (maxInFlight > 0 && nodeCredits == null) {
+                continue;
+            }
+            try {
+                executor.submitToMember(task, member, new NodeExecutionCallback<V>(future, node, nodeCredits));
+            } catch (RuntimeException ex) {
+                if (nodeCredits != null) {
+                    nodeCredits.release();
+                }
+                future.onFailure(node, ex);
+            }
+        }
+        if (awaited && !future.isDone()) {
+            inflight.add(future);
+        }
+        return future;
+    }
+
+    /**
+     * Takes an in flight credit of the destination node in the lane, applying the flow control policy when the node
+     * has no credit left. Each lane has its own credits so bulk tasks never hold back control tasks.
+     *
+     * @return the node credits or null if the task has been rejected or flow control is disabled.
+     */
+    private DestinationCredits acquireCredit(Node node, ExecutionLane lane, FlowControlPolicy policy, DistributedFuture<?> future) {
+        if (maxInFlight <= 0) {
+            return null;
+        }
+        String key = node.getId() + "." + lane.name();
+        DestinationCredits nodeCredits = credits.get(key);
+        if (nodeCredits == null) {
+            DestinationCredits created = new DestinationCredits(node.getName() + "." + lane.name().toLowerCase(), maxInFlight);
+            nodeCredits = credits.putIfAbsent(key, created);
+            if (nodeCredits == null) {
+                nodeCredits = created;
+            }
+        }
+        try {
+            if (nodeCredits.acquire(policy, future.getRemainingTime())) {
+                return nodeCredits;
+            }
+            LOGGER.warn("Node {} has {} tasks in flight, task is rejected", node, nodeCredits.getInFlight());
+            future.onFailure(node, new CommandRejectedException("Node " + node.getId() + " has too many tasks in flight"));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.onFailure(node, ex);
+        }
+        return null;
+    }
+
+    /**
+     * Delivers again commands which could not reach a node, after a backoff, until the delivery policy is exhausted.
+     * The commands are then moved to the dead letter store, as are the commands whose execution failed. Commands
+     * still running on the node when their deadline passed are neither retried nor dead lettered.
+     */
+    private class Redelivery implements DistributedMultiCallback {
+
+        private final List<Event> commands;
+        private final ExecutionLane lane;
+        private final DeliveryPolicy policy;
+        private final long timeout;
+        private final int retry;
+
+        public Redelivery(List<Event> commands, ExecutionLane lane, DeliveryPolicy policy, long timeout, int retry) {
+            this.commands = commands;
+            this.lane = lane;
+            this.policy = policy;
+            this.timeout = timeout;
+            this.retry = retry;
+        }
+
+        @Override
+        public void onComplete(Map<Node, Object> values) {
+            // nothing to do
+        }
+
+        @Override
+        public void onResponse(Node member, Object value) {
+            // nothing to do
+        }
+
+        @Override
+        public void onFailure(final Node member, Throwable t) {
+            if (t instanceof CancellationException) {
+                return;
+            }
+            if (t instanceof TimeoutException) {
+                // the deadline passed while the node may still execute the commands, they are not lost
+                LOGGER.debug("No response from node {} for {} command(s) before the deadline", member, commands.size());
+                return;
+            }
+            if (retry >= policy.getMaxRetries() || !isDeliveryFailure(t)) {
+                deadLetter(member, commands, retry + 1, t);
+                return;
+            }
+            long backoff = policy.getBackoff(retry + 1);
+            LOGGER.warn("Delivery of {} command(s) to node {} failed, retrying in {} ms", new Object[]{commands.size(), member, backoff});
+            try {
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        redeliver(member, commands, lane, policy, timeout, retry + 1);
+                    }
+                }, backoff, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException ex) {
+                deadLetter(member, commands, retry + 1, t);
+            }
         }
-        DistributedTask task = new DistributedTask(command);
-        this.executorService.submitToMembers(task, members, distributedCallback);
+    }
+
+    /**
+     * Check if a failure happened before the commands reached the node, only then the delivery can be retried. When the
+     * node did not answer in time or the execution failed, the commands may have been executed and a retry could
+     * execute them twice.
+     */
+    private static boolean isDeliveryFailure(Throwable t) {
+        while (t != null) {
+            if (t instanceof CommandRejectedException
+                    || t instanceof RejectedExecutionException
+                    || t instanceof MemberLeftException
+                    || t instanceof TargetNotMemberException) {
+                return true;
+            }
+            t = t.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Sends commands to a single node, the commands of a batch are sent together so they are still executed in order.
+     * The delivery fails at once instead of waiting when the node has no credit left, the backoff is the wait.
+     */
+    private void redeliver(Node node, List<Event> commands, ExecutionLane lane, DeliveryPolicy policy, long timeout, int retry) {
+        DistributedTask<DistributedResult> task;
+        if (commands.size() == 1) {
+            task = new DistributedTask<DistributedResult>(commands.get(0));
+        } else {
+            task = new DistributedTask<DistributedResult>(commands, 0);
+        }
+        DistributedFuture<DistributedResult> future = scatter(task, Collections.singleton(node), System.currentTimeMillis() + timeout, lane, FlowControlPolicy.FAIL_FAST, false, commands);
+        future.addCallback(new Redelivery(commands, lane, policy, timeout, retry));
+    }
+
+    /**
+     * Store the commands in the dead letter store, each letter under its own key so storing a letter doesn't read or
+     * rewrite the other ones. The keys sort the letters of a node and a cluster group in failure order.
+     */
+    private void deadLetter(Node node, List<Event> commands, int attempts, Throwable cause) {
+        LOGGER.error("Delivery of {} command(s) to node {} failed after {} attempt(s), moving them to the dead letter store", new Object[]{commands.size(), node, attempts});
+        Map<String, DeadLetter> letters = new HashMap<String, DeadLetter>();
+        String sender = cluster.getLocalNode().getId();
+        for (Event command : commands) {
+            String groupName = command.getSourceGroupName() != null ? command.getSourceGroupName() : "";
+            DeadLetter letter = new DeadLetter(node, groupName, command, attempts, cause);
+            letters.put(DeadLetter.key(node.getName(), groupName, letter.getFailedAt(), sender, deadLetterSequence.incrementAndGet()), letter);
+        }
+        getDeadLetterStore().putAll(letters);
     }
 
     @Override
-    public void executeOnOneAsync(C command, Set<Node> destinations, DistributedCallback<R> callback) {
-        Node node = destinations.iterator().next();
-        this.executeAsync(command, node, callback);
+    public List<DeadLetter> getDeadLetters() {
+        return new ArrayList<DeadLetter>(getSortedDeadLetters().values());
+    }
+
+    @Override
+    public int replayDeadLetters(String nodeName, String groupName) {
+        IMap<String, DeadLetter> store = getDeadLetterStore();
+        // the letters of a node and a cluster group are redelivered together, in failure order
+        Map<String, List<Event>> replays = new LinkedHashMap<String, List<Event>>();
+        Map<String, Node> replayNodes = new HashMap<String, Node>();
+        Map<String, Node> nodes = new HashMap<String, Node>();
+        for (Map.Entry<String, DeadLetter> entry : getSortedDeadLetters().entrySet()) {
+            DeadLetter letter = entry.getValue();
+            if (!letter.matches(nodeName, groupName)) {
+                continue;
+            }
+            String letterNodeName = letter.getNode().getName();
+            Node node = nodes.get(letterNodeName);
+            if (node == null && !nodes.containsKey(letterNodeName)) {
+                node = cluster.findNodeByName(letterNodeName);
+                nodes.put(letterNodeName, node);
+                if (node == null) {
+                    LOGGER.warn("Node {} is not a member of the cluster, its dead letters are kept", letterNodeName);
+                }
+            }
+            if (node == null || store.remove(entry.getKey()) == null) {
+                // kept for a node which left, or already replayed or drained by someone else
+                continue;
+            }
+            String replayKey = DeadLetter.key(letterNodeName, letter.getGroupName());
+            List<Event> commands = replays.get(replayKey);
+            if (commands == null) {
+                commands = new ArrayList<Event>();
+                replays.put(replayKey, commands);
+                replayNodes.put(replayKey, node);
+            }
+            commands.add(letter.getCommand());
+        }
+        int replayed = 0;
+        for (Map.Entry<String, List<Event>> replay : replays.entrySet()) {
+            List<Event> commands = replay.getValue();
+            Node node = replayNodes.get(replay.getKey());
+            ExecutionLane lane = ExecutionLane.BULK;
+            if (commands.size() == 1 && commands.get(0) instanceof Command) {
+                lane = ((Command) commands.get(0)).getLane();
+            }
+            DeliveryPolicy deliveryPolicy = commands.size() == 1 ? getDeliveryPolicy(commands.get(0)) : defaultDeliveryPolicy;
+            if (deliveryPolicy == null) {
+                deliveryPolicy = DeliveryPolicy.NONE;
+            }
+            redeliver(node, commands, lane, deliveryPolicy, TimeUnit.SECONDS.toMillis(timeoutSeconds), 0);
+            replayed += commands.size();
+        }
+        return replayed;
+    }
+
+    @Override
+    public int drainDeadLetters(String nodeName, String groupName) {
+        IMap<String, DeadLetter> store = getDeadLetterStore();
+        int drained = 0;
+        for (Map.Entry<String, DeadLetter> entry : store.entrySet()) {
+            if (entry.getValue().matches(nodeName, groupName) && store.remove(entry.getKey()) != null) {
+                drained++;
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * @return the dead letters by key, sorted by node, cluster group and failure order.
+     */
+    private Map<String, DeadLetter> getSortedDeadLetters() {
+        Map<String, DeadLetter> letters = new TreeMap<String, DeadLetter>();
+        for (Map.Entry<String, DeadLetter> entry : getDeadLetterStore().entrySet()) {
+            letters.put(entry.getKey(), entry.getValue());
+        }
+        return letters;
+    }
+
+    private IMap<String, DeadLetter> getDeadLetterStore() {
+        return instance.getMap(Configurations.DEAD_LETTER_DO_STORE);
+    }
+
+    /**
+     * Get the flow control statistics of each destination node and lane, the executor statistics of each lane, the
+     * near cache statistics of each near cached Cellar map and the handler statistics of the local node.
+     *
+     * @return the statistics sorted by name.
+     */
+    @Override
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new TreeMap<String, Long>();
+        for (DestinationCredits nodeCredits : credits.values()) {
+            String prefix = "node." + nodeCredits.getName() + ".";
+            statistics.put(prefix + "inflight", Long.valueOf(nodeCredits.getInFlight()));
+            statistics.put(prefix + "waiting", Long.valueOf(nodeCredits.getWaiting()));
+            statistics.put(prefix + "rejected", nodeCredits.getRejected());
+        }
+        statistics.put("futures.pending", Long.valueOf(inflight.size()));
+        for (Map.Entry<ExecutionLane, IExecutorService> executor : executors.entrySet()) {
+            String prefix = "executor." + executor.getKey().name().toLowerCase() + ".";
+            LocalExecutorStats executorStats = executor.getValue().getLocalExecutorStats();
+            statistics.put(prefix + "pending", executorStats.getPendingTaskCount());
+            statistics.put(prefix + "started", executorStats.getStartedTaskCount());
+            statistics.put(prefix + "completed", executorStats.getCompletedTaskCount());
+        }
+        if (configManager != null) {
+            for (String mapName : configManager.getNearCachedMapNames()) {
+                NearCacheStats nearCacheStats = instance.getMap(mapName).getLocalMapStats().getNearCacheStats();
+                if (nearCacheStats != null) {
+                    String prefix = "nearcache." + mapName + ".";
+                    statistics.put(prefix + "entries", nearCacheStats.getOwnedEntryCount());
+                    statistics.put(prefix + "hits", nearCacheStats.getHits());
+                    statistics.put(prefix + "misses", nearCacheStats.getMisses());
+                }
+            }
+        }
+        EventHandlerResolver resolver = EventHandlerResolver.getInstance();
+        if (resolver != null) {
+            statistics.put("handler.lookup.count", resolver.getLookupCount());
+            statistics.put("handler.lookup.time", TimeUnit.NANOSECONDS.toMillis(resolver.getLookupTime()));
+            statistics.put("handler.execution.count", resolver.getExecutionCount());
+            statistics.put("handler.execution.time", TimeUnit.NANOSECONDS.toMillis(resolver.getExecutionTime()));
+        }
+        return statistics;
+    }
+
+    private Map<Node, R> await(C command, DistributedFuture<R> future) {
+        Map<Node, R> finishedResults;
+        try {
+            finishedResults = future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            finishedResults = future.getResults();
+        } catch (Exception ex) {
+            finishedResults = future.getResults();
+        }
+        printTaskResults(finishedResults);
+        LOGGER.info("All tasks completed for command {}.", command);
+        return finishedResults;
+    }
+
+    private void expireInflight() {
+        Iterator<DistributedFuture<?>> iterator = inflight.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expire()) {
+                iterator.remove();
+            }
+        }
     }
 
     @Override
@@ -252,14 +761,35 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
         }
     }
 
-    private Member findMemberById(String id) {
-        Set<Member> members = instance.getCluster().getMembers();
-        for (Member member : members) {
-            if (member.getUuid().equals(id)) {
-                return member;
-            }
+    /**
+     * Logs the nodes which failed to execute a command.
+     */
+    private static class FailureLogger implements DistributedMultiCallback {
+
+        private final Object command;
+
+        public FailureLogger(Object command) {
+            this.command = command;
         }
-        return null;
+
+        @Override
+        public void onComplete(Map<Node, Object> values) {
+            // nothing to do
+        }
+
+        @Override
+        public void onResponse(Node member, Object value) {
+            // nothing to do
+        }
+
+        @Override
+        public void onFailure(Node member, Throwable t) {
+            LOGGER.error("Node {} generated an error executing task {}", member, command, t);
+        }
+    }
+
+    private Member findMemberById(String id) {
+        return cluster.findMemberById(id);
     }
 
     @Override
@@ -298,6 +828,119 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
         this.timeoutSeconds = timeoutSeconds;
     }
 
+    /**
+     * @return the deadlineCheckInterval
+     */
+    public long getDeadlineCheckInterval() {
+        return deadlineCheckInterval;
+    }
+
+    /**
+     * @param deadlineCheckInterval the deadlineCheckInterval to set
+     */
+    public void setDeadlineCheckInterval(long deadlineCheckInterval) {
+        this.deadlineCheckInterval = deadlineCheckInterval;
+    }
+
+    /**
+     * @return the batchWindow
+     */
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * @param batchWindow the time, in milliseconds, commands are queued before being shipped, 0 to disable batching.
+     */
+    public void setBatchWindow(long batchWindow) {
+        this.batchWindow = batchWindow;
+    }
+
+    /**
+     * @return the batchMaxSize
+     */
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    /**
+     * @param batchMaxSize the number of queued commands after which a batch is shipped without waiting.
+     */
+    public void setBatchMaxSize(int batchMaxSize) {
+        this.batchMaxSize = batchMaxSize;
+    }
+
+    /**
+     * @return the maxInFlight
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @param maxInFlight the maximum number of tasks in flight to a node, 0 to disable flow control.
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+        this.credits.clear();
+    }
+
+    /**
+     * @return the flow control policy of the commands the caller waits for, the other commands always fail fast.
+     */
+    public FlowControlPolicy getFlowControlPolicy() {
+        return flowControlPolicy;
+    }
+
+    /**
+     * @param flowControlPolicy the flowControlPolicy to set
+     */
+    public void setFlowControlPolicy(FlowControlPolicy flowControlPolicy) {
+        this.flowControlPolicy = flowControlPolicy;
+    }
+
+    /**
+     * @return the deliveryRetries
+     */
+    public int getDeliveryRetries() {
+        return deliveryRetries;
+    }
+
+    /**
+     * @param deliveryRetries the number of times the delivery of a bulk command to a node is retried.
+     */
+    public void setDeliveryRetries(int deliveryRetries) {
+        this.deliveryRetries = deliveryRetries;
+    }
+
+    /**
+     * @return the deliveryBackoff
+     */
+    public long getDeliveryBackoff() {
+        return deliveryBackoff;
+    }
+
+    /**
+     * @param deliveryBackoff the wait before the first retry, in milliseconds.
+     */
+    public void setDeliveryBackoff(long deliveryBackoff) {
+        this.deliveryBackoff = deliveryBackoff;
+    }
+
+    /**
+     * @return the deliveryMaxBackoff
+     */
+    public long getDeliveryMaxBackoff() {
+        return deliveryMaxBackoff;
+    }
+
+    /**
+     * @param deliveryMaxBackoff the maximum wait between two retries, in milliseconds.
+     */
+    public void setDeliveryMaxBackoff(long deliveryMaxBackoff) {
+        this.deliveryMaxBackoff = deliveryMaxBackoff;
+    }
+
     /**
      * @return the nodeConfiguration
      */
@@ -325,4 +968,32 @@ public class DistributedExecutionContextImpl<C extends Command, R extends Distri
     public void setInstance(HazelcastInstance instance) {
         this.instance = instance;
     }
+
+    /**
+     * @return the cluster
+     */
+    public HazelcastCluster getCluster() {
+        return cluster;
+    }
+
+    /**
+     * @param cluster the cluster to set
+     */
+    public void setCluster(HazelcastCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    /**
+     * @return the configManager
+     */
+    public HazelcastConfigurationManager getConfigManager() {
+        return configManager;
+    }
+
+    /**
+     * @param configManager the configManager to set
+     */
+    public void setConfigManager(HazelcastConfigurationManager configManager) {
+        this.configManager = configManager;
+    }
 }
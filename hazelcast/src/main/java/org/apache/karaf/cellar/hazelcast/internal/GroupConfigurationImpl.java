@@ -15,9 +15,15 @@
  */
 package org.apache.karaf.cellar.hazelcast.internal;
 
-import java.util.Hashtable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.felix.scr.annotations.Component;
 import org.apache.felix.scr.annotations.Property;
 import org.apache.felix.scr.annotations.PropertyUnbounded;
@@ -87,7 +93,39 @@ public class GroupConfigurationImpl implements GroupConfiguration {
     public static final String ACCEPTED_EVENTS_PROPERTY = "acceptedEvents";
     @Property(label = "Producible Events (Outbound)", unbounded = PropertyUnbounded.VECTOR, description = "The list of event types that this cluster is allowed to produce.")
     public static final String PRODUCIBLE_EVENTS_PROPERTY = "producibleEvents";
-    private final Hashtable<String, Object> properties = new Hashtable<String, Object>();
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private static final Map<String, String> PROPERTY_KEYS = new HashMap<String, String>();
+    private static final Set<String> BOOLEAN_KEYS = new HashSet<String>(Arrays.asList(SYNC_CONFIGURATIONS_PROPERTY,
+            SYNC_FEATURES_PROPERTY, SYNC_FEATURE_REPOS_PROPERTY, SYNC_BUNDLES_PROPERTY, SYNC_OBR_URLS_PROPERTY,
+            SYNC_OBR_BUNDLES_PROPERTY));
+
+    static {
+        // the configuration holds either the bean property names or the snapshot keys
+        PROPERTY_KEYS.put("inboundBundleWhitelist", BUNDLES_WHITELIST_INBOUND_PROPERTY);
+        PROPERTY_KEYS.put("outboundBundleWhitelist", BUNDLES_WHITELIST_OUTBOUND_PROPERTY);
+        PROPERTY_KEYS.put("inboundBundleBlacklist", BUNDLES_BLACKLIST_INBOUND_PROPERTY);
+        PROPERTY_KEYS.put("outboundBundleBlacklist", BUNDLES_BLACKLIST_OUTBOUND_PROPERTY);
+        PROPERTY_KEYS.put("inboundOBRUrlsWhitelist", OBR_URLS_WHITELIST_INBOUND_PROPERTY);
+        PROPERTY_KEYS.put("outboundOBRUrlsWhitelist", OBR_URLS_WHITELIST_OUTBOUND_PROPERTY);
+        PROPERTY_KEYS.put("inboundOBRUrlsBlacklist", OBR_URLS_BLACKLIST_INBOUND_PROPERTY);
+        PROPERTY_KEYS.put("outboundOBRUrlsBlacklist", OBR_URLS_BLACKLIST_OUTBOUND_PROPERTY);
+        for (String key : Arrays.asList(GROUP_NAME_PROPERTY, CONFIG_WHITELIST_INBOUND_PROPERTY,
+                CONFIG_WHITELIST_OUTBOUND_PROPERTY, CONFIG_BLACKLIST_INBOUND_PROPERTY, CONFIG_BLACKLIST_OUTBOUND_PROPERTY,
+                FEATURES_WHITELIST_INBOUND_PROPERTY, FEATURES_WHITELIST_OUTBOUND_PROPERTY,
+                FEATURES_BLACKLIST_INBOUND_PROPERTY, FEATURES_BLACKLIST_OUTBOUND_PROPERTY,
+                BUNDLES_WHITELIST_INBOUND_PROPERTY, BUNDLES_WHITELIST_OUTBOUND_PROPERTY,
+                BUNDLES_BLACKLIST_INBOUND_PROPERTY, BUNDLES_BLACKLIST_OUTBOUND_PROPERTY,
+                OBR_URLS_WHITELIST_INBOUND_PROPERTY, OBR_URLS_WHITELIST_OUTBOUND_PROPERTY,
+                OBR_URLS_BLACKLIST_INBOUND_PROPERTY, OBR_URLS_BLACKLIST_OUTBOUND_PROPERTY, ACCEPTED_EVENTS_PROPERTY,
+                PRODUCIBLE_EVENTS_PROPERTY)) {
+            PROPERTY_KEYS.put(key, key);
+        }
+        for (String key : BOOLEAN_KEYS) {
+            PROPERTY_KEYS.put(key, key);
+        }
+    }
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.<String, Object>emptyMap(), VERSIONS.incrementAndGet());
     private CellarCluster masterCluster;
     private BundleContext bundleContext;
 
@@ -97,6 +135,33 @@ public class GroupConfigurationImpl implements GroupConfiguration {
     public void destroy() {
     }
 
+    /**
+     * Apply an updated configuration, all the properties are converted and published in a single snapshot so readers
+     * never see a half updated configuration. The properties missing from the configuration keep their value.
+     *
+     * @param properties the updated configuration.
+     */
+    public synchronized void updated(Map<String, ?> properties) {
+        if (properties == null) {
+            return;
+        }
+        Map<String, Object> copy = new HashMap<String, Object>(snapshot.properties);
+        for (Map.Entry<String, ?> entry : properties.entrySet()) {
+            String key = PROPERTY_KEYS.get(entry.getKey());
+            if (key == null) {
+                continue;
+            }
+            Object value = entry.getValue();
+            if (BOOLEAN_KEYS.contains(key)) {
+                value = value instanceof String ? Boolean.valueOf(((String) value).trim()) : value;
+            } else if (!GROUP_NAME_PROPERTY.equals(key)) {
+                value = toSet(value);
+            }
+            put(copy, key, value);
+        }
+        publish(copy);
+    }
+
     /**
      * Registers this node for producing and consuming messages between nodes in the group.
      *
@@ -113,14 +178,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public String getName() {
-        return (String) this.properties.get(GROUP_NAME_PROPERTY);
+        return snapshot.name;
     }
 
     /**
      * @param name the name to set
      */
     public void setName(String name) {
-        this.properties.put(GROUP_NAME_PROPERTY, name);
+        set(GROUP_NAME_PROPERTY, name);
     }
 
     /**
@@ -128,14 +193,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public boolean isSyncConfiguration() {
-        return (Boolean) this.properties.get(SYNC_CONFIGURATIONS_PROPERTY);
+        return snapshot.syncConfiguration;
     }
 
     /**
      * @param syncConfiguration the syncConfiguration to set
      */
     public void setSyncConfiguration(boolean syncConfiguration) {
-        this.properties.put(SYNC_CONFIGURATIONS_PROPERTY, syncConfiguration);
+        set(SYNC_CONFIGURATIONS_PROPERTY, syncConfiguration);
     }
 
     /**
@@ -143,14 +208,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundConfigurationWhitelist() {
-        return (Set<String>) this.properties.get(CONFIG_WHITELIST_INBOUND_PROPERTY);
+        return snapshot.inboundConfigurationWhitelist;
     }
 
     /**
      * @param inboundConfigurationWhitelist the inboundConfigurationWhitelist to set
      */
     public void setInboundConfigurationWhitelist(Set<String> inboundConfigurationWhitelist) {
-        this.properties.put(CONFIG_WHITELIST_INBOUND_PROPERTY, inboundConfigurationWhitelist);
+        set(CONFIG_WHITELIST_INBOUND_PROPERTY, inboundConfigurationWhitelist);
     }
 
     /**
@@ -158,14 +223,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundConfigurationWhitelist() {
-        return (Set<String>) this.properties.get(CONFIG_WHITELIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundConfigurationWhitelist;
     }
 
     /**
      * @param outboundConfigurationWhitelist the outboundConfigurationWhitelist to set
      */
     public void setOutboundConfigurationWhitelist(Set<String> outboundConfigurationWhitelist) {
-        this.properties.put(CONFIG_WHITELIST_OUTBOUND_PROPERTY, outboundConfigurationWhitelist);
+        set(CONFIG_WHITELIST_OUTBOUND_PROPERTY, outboundConfigurationWhitelist);
     }
 
     /**
@@ -173,14 +238,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundConfigurationBlacklist() {
-        return (Set<String>) this.properties.get(CONFIG_BLACKLIST_INBOUND_PROPERTY);
+        return snapshot.inboundConfigurationBlacklist;
     }
 
     /**
      * @param inboundConfigurationBlacklist the inboundConfigurationBlacklist to set
      */
     public void setInboundConfigurationBlacklist(Set<String> inboundConfigurationBlacklist) {
-        this.properties.put(CONFIG_BLACKLIST_INBOUND_PROPERTY, inboundConfigurationBlacklist);
+        set(CONFIG_BLACKLIST_INBOUND_PROPERTY, inboundConfigurationBlacklist);
     }
 
     /**
@@ -188,14 +253,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundConfigurationBlacklist() {
-        return (Set<String>) this.properties.get(CONFIG_BLACKLIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundConfigurationBlacklist;
     }
 
     /**
      * @param outboundConfigurationBlacklist the outboundConfigurationBlacklist to set
      */
     public void setOutboundConfigurationBlacklist(Set<String> outboundConfigurationBlacklist) {
-        this.properties.put(CONFIG_BLACKLIST_OUTBOUND_PROPERTY, outboundConfigurationBlacklist);
+        set(CONFIG_BLACKLIST_OUTBOUND_PROPERTY, outboundConfigurationBlacklist);
     }
 
     /**
@@ -203,14 +268,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public boolean isSyncFeatures() {
-        return (Boolean) this.properties.get(SYNC_FEATURES_PROPERTY);
+        return snapshot.syncFeatures;
     }
 
     /**
      * @param syncFeatures the syncFeatures to set
      */
     public void setSyncFeatures(boolean syncFeatures) {
-        this.properties.put(SYNC_FEATURES_PROPERTY, syncFeatures);
+        set(SYNC_FEATURES_PROPERTY, syncFeatures);
     }
 
     /**
@@ -218,14 +283,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public boolean isSyncFeatureRepos() {
-        return (Boolean) this.properties.get(SYNC_FEATURE_REPOS_PROPERTY);
+        return snapshot.syncFeatureRepos;
     }
 
     /**
      * @param syncFeatureRepos the syncFeatureRepos to set
      */
     public void setSyncFeatureRepos(boolean syncFeatureRepos) {
-        this.properties.put(SYNC_FEATURE_REPOS_PROPERTY, syncFeatureRepos);
+        set(SYNC_FEATURE_REPOS_PROPERTY, syncFeatureRepos);
     }
 
     /**
@@ -233,14 +298,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundFeatureWhitelist() {
-        return (Set<String>) this.properties.get(FEATURES_WHITELIST_INBOUND_PROPERTY);
+        return snapshot.inboundFeatureWhitelist;
     }
 
     /**
      * @param inboundFeatureWhitelist the inboundFeatureWhitelist to set
      */
     public void setInboundFeatureWhitelist(Set<String> inboundFeatureWhitelist) {
-        this.properties.put(FEATURES_WHITELIST_INBOUND_PROPERTY, inboundFeatureWhitelist);
+        set(FEATURES_WHITELIST_INBOUND_PROPERTY, inboundFeatureWhitelist);
     }
 
     /**
@@ -248,14 +313,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundFeatureWhitelist() {
-        return (Set<String>) this.properties.get(FEATURES_WHITELIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundFeatureWhitelist;
     }
 
     /**
      * @param outboundFeatureWhitelist the outboundFeatureWhitelist to set
      */
     public void setOutboundFeatureWhitelist(Set<String> outboundFeatureWhitelist) {
-        this.properties.put(FEATURES_WHITELIST_OUTBOUND_PROPERTY, outboundFeatureWhitelist);
+        set(FEATURES_WHITELIST_OUTBOUND_PROPERTY, outboundFeatureWhitelist);
     }
 
     /**
@@ -263,14 +328,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundFeatureBlacklist() {
-        return (Set<String>) this.properties.get(FEATURES_BLACKLIST_INBOUND_PROPERTY);
+        return snapshot.inboundFeatureBlacklist;
     }
 
     /**
      * @param inboundFeatureBlacklist the inboundFeatureBlacklist to set
      */
     public void setInboundFeatureBlacklist(Set<String> inboundFeatureBlacklist) {
-        this.properties.put(FEATURES_BLACKLIST_INBOUND_PROPERTY, inboundFeatureBlacklist);
+        set(FEATURES_BLACKLIST_INBOUND_PROPERTY, inboundFeatureBlacklist);
     }
 
     /**
@@ -278,14 +343,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundFeatureBlacklist() {
-        return (Set<String>) this.properties.get(FEATURES_BLACKLIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundFeatureBlacklist;
     }
 
     /**
      * @param outboundFeatureBlacklist the outboundFeatureBlacklist to set
      */
     public void setOutboundFeatureBlacklist(Set<String> outboundFeatureBlacklist) {
-        this.properties.put(FEATURES_BLACKLIST_OUTBOUND_PROPERTY, outboundFeatureBlacklist);
+        set(FEATURES_BLACKLIST_OUTBOUND_PROPERTY, outboundFeatureBlacklist);
     }
 
     /**
@@ -293,14 +358,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public boolean isSyncBundles() {
-        return (Boolean) this.properties.get(SYNC_BUNDLES_PROPERTY);
+        return snapshot.syncBundles;
     }
 
     /**
      * @param syncBundles the syncBundles to set
      */
     public void setSyncBundles(boolean syncBundles) {
-        this.properties.put(SYNC_BUNDLES_PROPERTY, syncBundles);
+        set(SYNC_BUNDLES_PROPERTY, syncBundles);
     }
 
     /**
@@ -308,14 +373,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundBundleWhitelist() {
-        return (Set<String>) this.properties.get(BUNDLES_WHITELIST_INBOUND_PROPERTY);
+        return snapshot.inboundBundleWhitelist;
     }
 
     /**
      * @param inboundBundleWhitelist the inboundBundleWhitelist to set
      */
     public void setInboundBundleWhitelist(Set<String> inboundBundleWhitelist) {
-        this.properties.put(BUNDLES_WHITELIST_INBOUND_PROPERTY, inboundBundleWhitelist);
+        set(BUNDLES_WHITELIST_INBOUND_PROPERTY, inboundBundleWhitelist);
     }
 
     /**
@@ -323,14 +388,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundBundleWhitelist() {
-        return (Set<String>) this.properties.get(BUNDLES_WHITELIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundBundleWhitelist;
     }
 
     /**
      * @param outboundBundleWhitelist the outboundBundleWhitelist to set
      */
     public void setOutboundBundleWhitelist(Set<String> outboundBundleWhitelist) {
-        this.properties.put(BUNDLES_WHITELIST_OUTBOUND_PROPERTY, outboundBundleWhitelist);
+        set(BUNDLES_WHITELIST_OUTBOUND_PROPERTY, outboundBundleWhitelist);
     }
 
     /**
@@ -338,14 +403,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundBundleBlacklist() {
-        return (Set<String>) this.properties.get(BUNDLES_BLACKLIST_INBOUND_PROPERTY);
+        return snapshot.inboundBundleBlacklist;
     }
 
     /**
      * @param inboundBundleBlacklist the inboundBundleBlacklist to set
      */
     public void setInboundBundleBlacklist(Set<String> inboundBundleBlacklist) {
-        this.properties.put(BUNDLES_BLACKLIST_INBOUND_PROPERTY, inboundBundleBlacklist);
+        set(BUNDLES_BLACKLIST_INBOUND_PROPERTY, inboundBundleBlacklist);
     }
 
     /**
@@ -353,14 +418,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundBundleBlacklist() {
-        return (Set<String>) this.properties.get(BUNDLES_BLACKLIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundBundleBlacklist;
     }
 
     /**
      * @param outboundBundleBlacklist the outboundBundleBlacklist to set
      */
     public void setOutboundBundleBlacklist(Set<String> outboundBundleBlacklist) {
-        this.properties.put(BUNDLES_BLACKLIST_OUTBOUND_PROPERTY, outboundBundleBlacklist);
+        set(BUNDLES_BLACKLIST_OUTBOUND_PROPERTY, outboundBundleBlacklist);
     }
 
     /**
@@ -368,14 +433,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public boolean isSyncOBRUrls() {
-        return (Boolean) this.properties.get(SYNC_OBR_URLS_PROPERTY);
+        return snapshot.syncOBRUrls;
     }
 
     /**
      * @param syncOBRUrls the syncOBRUrls to set
      */
     public void setSyncOBRUrls(boolean syncOBRUrls) {
-        this.properties.put(SYNC_OBR_URLS_PROPERTY, syncOBRUrls);
+        set(SYNC_OBR_URLS_PROPERTY, syncOBRUrls);
     }
 
     /**
@@ -383,14 +448,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundOBRUrlsWhitelist() {
-        return (Set<String>) this.properties.get(OBR_URLS_WHITELIST_INBOUND_PROPERTY);
+        return snapshot.inboundOBRUrlsWhitelist;
     }
 
     /**
      * @param inboundOBRUrlsWhitelist the inboundBundleBlacklist to set
      */
     public void setInboundOBRUrlsWhitelist(Set<String> inboundOBRUrlsWhitelist) {
-        this.properties.put(OBR_URLS_WHITELIST_INBOUND_PROPERTY, inboundOBRUrlsWhitelist);
+        set(OBR_URLS_WHITELIST_INBOUND_PROPERTY, inboundOBRUrlsWhitelist);
     }
 
     /**
@@ -398,14 +463,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundOBRUrlsWhitelist() {
-        return (Set<String>) this.properties.get(OBR_URLS_WHITELIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundOBRUrlsWhitelist;
     }
 
     /**
      * @param outboundOBRUrlsWhitelist the outboundBundleWhitelist to set
      */
     public void setOutboundOBRUrlsWhitelist(Set<String> outboundOBRUrlsWhitelist) {
-        this.properties.put(OBR_URLS_WHITELIST_OUTBOUND_PROPERTY, outboundOBRUrlsWhitelist);
+        set(OBR_URLS_WHITELIST_OUTBOUND_PROPERTY, outboundOBRUrlsWhitelist);
     }
 
     /**
@@ -413,14 +478,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getInboundOBRUrlsBlacklist() {
-        return (Set<String>) this.properties.get(OBR_URLS_BLACKLIST_INBOUND_PROPERTY);
+        return snapshot.inboundOBRUrlsBlacklist;
     }
 
     /**
      * @param inboundOBRUrlsBlacklist the inboundBundleBlacklist to set
      */
     public void setInboundOBRUrlsBlacklist(Set<String> inboundOBRUrlsBlacklist) {
-        this.properties.put(OBR_URLS_BLACKLIST_INBOUND_PROPERTY, inboundOBRUrlsBlacklist);
+        set(OBR_URLS_BLACKLIST_INBOUND_PROPERTY, inboundOBRUrlsBlacklist);
     }
 
     /**
@@ -428,14 +493,14 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public Set<String> getOutboundOBRUrlsBlacklist() {
-        return (Set<String>) this.properties.get(OBR_URLS_BLACKLIST_OUTBOUND_PROPERTY);
+        return snapshot.outboundOBRUrlsBlacklist;
     }
 
     /**
      * @param outboundOBRUrlsBlacklist the outboundBundleBlacklist to set
      */
     public void setOutboundOBRUrlsBlacklist(Set<String> outboundOBRUrlsBlacklist) {
-        this.properties.put(OBR_URLS_BLACKLIST_OUTBOUND_PROPERTY, outboundOBRUrlsBlacklist);
+        set(OBR_URLS_BLACKLIST_OUTBOUND_PROPERTY, outboundOBRUrlsBlacklist);
     }
 
     /**
@@ -443,21 +508,88 @@ public class GroupConfigurationImpl implements GroupConfiguration {
      */
     @Override
     public boolean isSyncOBRBundles() {
-        return (Boolean) this.properties.get(SYNC_OBR_BUNDLES_PROPERTY);
+        return snapshot.syncOBRBundles;
     }
 
     /**
      * @param syncOBRBundles the syncOBRBundles to set
      */
     public void setSyncOBRBundles(boolean syncOBRBundles) {
-        this.properties.put(SYNC_OBR_BUNDLES_PROPERTY, syncOBRBundles);
+        set(SYNC_OBR_BUNDLES_PROPERTY, syncOBRBundles);
     }
 
     /**
-     * @return the properties
+     * @return the properties of the current snapshot
      */
     public Map<String, Object> getProperties() {
-        return properties;
+        return snapshot.properties;
+    }
+
+    /**
+     * @return the version of the current snapshot
+     */
+    @Override
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * @return the current snapshot, the values read from it all belong to the same version.
+     */
+    @Override
+    public GroupConfiguration getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Publish a new snapshot with the given property, the collections are copied so the snapshot can't change once
+     * published.
+     */
+    private synchronized void set(String key, Object value) {
+        Map<String, Object> copy = new HashMap<String, Object>(snapshot.properties);
+        put(copy, key, value);
+        publish(copy);
+    }
+
+    private static void put(Map<String, Object> properties, String key, Object value) {
+        if (value instanceof Collection) {
+            properties.put(key, Collections.unmodifiableSet(new LinkedHashSet<String>((Collection<String>) value)));
+        } else if (value != null) {
+            properties.put(key, value);
+        } else {
+            properties.remove(key);
+        }
+    }
+
+    private void publish(Map<String, Object> properties) {
+        snapshot = new Snapshot(Collections.unmodifiableMap(properties), VERSIONS.incrementAndGet());
+        LOGGER.debug("CELLAR HAZELCAST: group configuration {} updated to version {}", properties.get(GROUP_NAME_PROPERTY), snapshot.version);
+    }
+
+    /**
+     * Convert a configuration value, a collection, an array or a comma separated string, to a set of strings.
+     */
+    private static Set<String> toSet(Object value) {
+        if (value == null) {
+            return null;
+        }
+        Set<String> set = new LinkedHashSet<String>();
+        if (value instanceof Collection) {
+            for (Object item : (Collection<?>) value) {
+                set.add(String.valueOf(item).trim());
+            }
+        } else if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                set.add(String.valueOf(item).trim());
+            }
+        } else {
+            for (String item : String.valueOf(value).split(",")) {
+                if (item.trim().length() > 0) {
+                    set.add(item.trim());
+                }
+            }
+        }
+        return set;
     }
 
     /**
@@ -490,19 +622,235 @@ public class GroupConfigurationImpl implements GroupConfiguration {
 
     @Override
     public Set<String> getAcceptedEvents() {
-        return (Set<String>) this.properties.get(ACCEPTED_EVENTS_PROPERTY);
+        return snapshot.acceptedEvents;
     }
 
     public void getAcceptedEvents(Set<String> acceptedEvents) {
-        this.properties.put(ACCEPTED_EVENTS_PROPERTY, acceptedEvents);
+        set(ACCEPTED_EVENTS_PROPERTY, acceptedEvents);
     }
 
     @Override
     public Set<String> getProducibleEvents() {
-        return (Set<String>) this.properties.get(PRODUCIBLE_EVENTS_PROPERTY);
+        return snapshot.producibleEvents;
     }
 
     public void setProducibleEvents(Set<String> producibleEvents) {
-        this.properties.put(PRODUCIBLE_EVENTS_PROPERTY, producibleEvents);
+        set(PRODUCIBLE_EVENTS_PROPERTY, producibleEvents);
+    }
+
+    /**
+     * Immutable view of the group configuration at a given version, its values are converted once when it's published.
+     */
+    private static final class Snapshot implements GroupConfiguration {
+
+        private final Map<String, Object> properties;
+        private final long version;
+        private final String name;
+        private final Set<String> inboundConfigurationWhitelist;
+        private final Set<String> outboundConfigurationWhitelist;
+        private final Set<String> inboundConfigurationBlacklist;
+        private final Set<String> outboundConfigurationBlacklist;
+        private final Set<String> inboundFeatureWhitelist;
+        private final Set<String> outboundFeatureWhitelist;
+        private final Set<String> inboundFeatureBlacklist;
+        private final Set<String> outboundFeatureBlacklist;
+        private final Set<String> inboundBundleWhitelist;
+        private final Set<String> outboundBundleWhitelist;
+        private final Set<String> inboundBundleBlacklist;
+        private final Set<String> outboundBundleBlacklist;
+        private final Set<String> inboundOBRUrlsWhitelist;
+        private final Set<String> outboundOBRUrlsWhitelist;
+        private final Set<String> inboundOBRUrlsBlacklist;
+        private final Set<String> outboundOBRUrlsBlacklist;
+        private final Set<String> acceptedEvents;
+        private final Set<String> producibleEvents;
+        private final boolean syncConfiguration;
+        private final boolean syncFeatures;
+        private final boolean syncFeatureRepos;
+        private final boolean syncBundles;
+        private final boolean syncOBRUrls;
+        private final boolean syncOBRBundles;
+
+        Snapshot(Map<String, Object> properties, long version) {
+            this.properties = properties;
+            this.version = version;
+            this.name = (String) properties.get(GROUP_NAME_PROPERTY);
+            this.inboundConfigurationWhitelist = getSet(properties, CONFIG_WHITELIST_INBOUND_PROPERTY);
+            this.outboundConfigurationWhitelist = getSet(properties, CONFIG_WHITELIST_OUTBOUND_PROPERTY);
+            this.inboundConfigurationBlacklist = getSet(properties, CONFIG_BLACKLIST_INBOUND_PROPERTY);
+            this.outboundConfigurationBlacklist = getSet(properties, CONFIG_BLACKLIST_OUTBOUND_PROPERTY);
+            this.inboundFeatureWhitelist = getSet(properties, FEATURES_WHITELIST_INBOUND_PROPERTY);
+            this.outboundFeatureWhitelist = getSet(properties, FEATURES_WHITELIST_OUTBOUND_PROPERTY);
+            this.inboundFeatureBlacklist = getSet(properties, FEATURES_BLACKLIST_INBOUND_PROPERTY);
+            this.outboundFeatureBlacklist = getSet(properties, FEATURES_BLACKLIST_OUTBOUND_PROPERTY);
+            this.inboundBundleWhitelist = getSet(properties, BUNDLES_WHITELIST_INBOUND_PROPERTY);
+            this.outboundBundleWhitelist = getSet(properties, BUNDLES_WHITELIST_OUTBOUND_PROPERTY);
+            this.inboundBundleBlacklist = getSet(properties, BUNDLES_BLACKLIST_INBOUND_PROPERTY);
+            this.outboundBundleBlacklist = getSet(properties, BUNDLES_BLACKLIST_OUTBOUND_PROPERTY);
+            this.inboundOBRUrlsWhitelist = getSet(properties, OBR_URLS_WHITELIST_INBOUND_PROPERTY);
+            this.outboundOBRUrlsWhitelist = getSet(properties, OBR_URLS_WHITELIST_OUTBOUND_PROPERTY);
+            this.inboundOBRUrlsBlacklist = getSet(properties, OBR_URLS_BLACKLIST_INBOUND_PROPERTY);
+            this.outboundOBRUrlsBlacklist = getSet(properties, OBR_URLS_BLACKLIST_OUTBOUND_PROPERTY);
+            this.acceptedEvents = getSet(properties, ACCEPTED_EVENTS_PROPERTY);
+            this.producibleEvents = getSet(properties, PRODUCIBLE_EVENTS_PROPERTY);
+            this.syncConfiguration = getBoolean(properties, SYNC_CONFIGURATIONS_PROPERTY);
+            this.syncFeatures = getBoolean(properties, SYNC_FEATURES_PROPERTY);
+            this.syncFeatureRepos = getBoolean(properties, SYNC_FEATURE_REPOS_PROPERTY);
+            this.syncBundles = getBoolean(properties, SYNC_BUNDLES_PROPERTY);
+            this.syncOBRUrls = getBoolean(properties, SYNC_OBR_URLS_PROPERTY);
+            this.syncOBRBundles = getBoolean(properties, SYNC_OBR_BUNDLES_PROPERTY);
+        }
+
+        private static Set<String> getSet(Map<String, Object> properties, String key) {
+            return (Set<String>) properties.get(key);
+        }
+
+        private static boolean getBoolean(Map<String, Object> properties, String key) {
+            Object value = properties.get(key);
+            if (value instanceof String) {
+                return Boolean.parseBoolean(((String) value).trim());
+            }
+            return Boolean.TRUE.equals(value);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public GroupConfiguration getSnapshot() {
+            return this;
+        }
+
+        @Override
+        public Set<String> getInboundConfigurationWhitelist() {
+            return inboundConfigurationWhitelist;
+        }
+
+        @Override
+        public Set<String> getOutboundConfigurationWhitelist() {
+            return outboundConfigurationWhitelist;
+        }
+
+        @Override
+        public Set<String> getInboundConfigurationBlacklist() {
+            return inboundConfigurationBlacklist;
+        }
+
+        @Override
+        public Set<String> getOutboundConfigurationBlacklist() {
+            return outboundConfigurationBlacklist;
+        }
+
+        @Override
+        public Set<String> getInboundFeatureWhitelist() {
+            return inboundFeatureWhitelist;
+        }
+
+        @Override
+        public Set<String> getOutboundFeatureWhitelist() {
+            return outboundFeatureWhitelist;
+        }
+
+        @Override
+        public Set<String> getInboundFeatureBlacklist() {
+            return inboundFeatureBlacklist;
+        }
+
+        @Override
+        public Set<String> getOutboundFeatureBlacklist() {
+            return outboundFeatureBlacklist;
+        }
+
+        @Override
+        public Set<String> getInboundBundleWhitelist() {
+            return inboundBundleWhitelist;
+        }
+
+        @Override
+        public Set<String> getOutboundBundleWhitelist() {
+            return outboundBundleWhitelist;
+        }
+
+        @Override
+        public Set<String> getInboundBundleBlacklist() {
+            return inboundBundleBlacklist;
+        }
+
+        @Override
+        public Set<String> getOutboundBundleBlacklist() {
+            return outboundBundleBlacklist;
+        }
+
+        @Override
+        public Set<String> getInboundOBRUrlsWhitelist() {
+            return inboundOBRUrlsWhitelist;
+        }
+
+        @Override
+        public Set<String> getOutboundOBRUrlsWhitelist() {
+            return outboundOBRUrlsWhitelist;
+        }
+
+        @Override
+        public Set<String> getInboundOBRUrlsBlacklist() {
+            return inboundOBRUrlsBlacklist;
+        }
+
+        @Override
+        public Set<String> getOutboundOBRUrlsBlacklist() {
+            return outboundOBRUrlsBlacklist;
+        }
+
+        @Override
+        public Set<String> getAcceptedEvents() {
+            return acceptedEvents;
+        }
+
+        @Override
+        public Set<String> getProducibleEvents() {
+            return producibleEvents;
+        }
+
+        @Override
+        public boolean isSyncConfiguration() {
+            return syncConfiguration;
+        }
+
+        @Override
+        public boolean isSyncFeatures() {
+            return syncFeatures;
+        }
+
+        @Override
+        public boolean isSyncFeatureRepos() {
+            return syncFeatureRepos;
+        }
+
+        @Override
+        public boolean isSyncBundles() {
+            return syncBundles;
+        }
+
+        @Override
+        public boolean isSyncOBRUrls() {
+            return syncOBRUrls;
+        }
+
+        @Override
+        public boolean isSyncOBRBundles() {
+            return syncOBRBundles;
+        }
+
+        @Override
+        public Group register() {
+            return new Group(name);
+        }
     }
 }
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.internal;
+
+import com.hazelcast.core.ExecutionCallback;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.command.DistributedFuture;
+
+/**
+ * Reports the outcome of a task executed on one member to the future gathering the results of all members.
+ *
+ * @author rmoquin
+ */
+public class NodeExecutionCallback<R> implements ExecutionCallback<R> {
+
+    private final DistributedFuture<R> future;
+    private final Node node;
+    private final DestinationCredits credits;
+
+    public NodeExecutionCallback(DistributedFuture<R> future, Node node, DestinationCredits credits) {
+        this.future = future;
+        this.node = node;
+        this.credits = credits;
+    }
+
+    @Override
+    public void onResponse(R response) {
+        release();
+        future.onResponse(node, response);
+    }
+
+    @Override
+    public void onFailure(Throwable t) {
+        release();
+        future.onFailure(node, t);
+    }
+
+    private void release() {
+        if (credits != null) {
+            credits.release();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2013 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.serialization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Encodings available to the {@link GenericCellarSerializer}.
+ *
+ * @author rmoquin
+ */
+public enum CellarCodec {
+
+    /**
+     * Textual JSON, the most readable but the largest encoding.
+     */
+    JSON {
+        @Override
+        public JsonFactory createFactory() {
+            return new JsonFactory();
+        }
+    },
+    /**
+     * Binary JSON, with back references to the property names and values already written.
+     */
+    SMILE {
+        @Override
+        public JsonFactory createFactory() {
+            SmileFactory factory = new SmileFactory();
+            factory.configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+            return factory;
+        }
+    };
+
+    /**
+     * @return a new factory of the codec parsers and generators.
+     */
+    public abstract JsonFactory createFactory();
+
+    /**
+     * Get a codec from its name, case insensitive.
+     *
+     * @param name the codec name.
+     * @return the codec.
+     * @throws IllegalArgumentException if the codec doesn't exist.
+     */
+    public static CellarCodec fromName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.serialization;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.karaf.cellar.core.serialization.CellarObjectReader;
+import org.apache.karaf.cellar.core.serialization.CellarObjectWriter;
+import org.apache.karaf.cellar.core.serialization.CellarSerializable;
+import org.apache.karaf.cellar.core.serialization.CompressionSupport;
+import org.apache.karaf.cellar.core.serialization.ReferenceResolver;
+import org.apache.karaf.cellar.core.serialization.SerializationBuffers;
+
+/**
+ * Hazelcast serializer of the Cellar commands and results. Registered types are written with their short type id
+ * and layout version instead of their class name, then field by field without going through Java serialization.
+ * The serialized object is written in a frame, deflated above the compression threshold.
+ */
+public class CellarStreamSerializer implements StreamSerializer<CellarSerializable> {
+
+    public static final int TYPE_ID = 100;
+
+    private volatile ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+    private final SerializationBuffers buffers = new SerializationBuffers();
+    private volatile ReferenceResolver referenceResolver;
+    private volatile int compressionThreshold;
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, CellarSerializable object) throws IOException {
+        CellarObjectWriter writer = buffers.acquireWriter();
+        try {
+            writer.writeObject(object);
+            CompressionSupport.writeFrame(out, writer.getBuffer(), writer.size(), compressionThreshold, buffers);
+        } finally {
+            buffers.release(writer);
+        }
+    }
+
+    @Override
+    public CellarSerializable read(ObjectDataInput in) throws IOException {
+        byte[] data = CompressionSupport.readFrame(in, buffers);
+        CellarObjectReader reader = new CellarObjectReader(data, 0, data.length, in.getClassLoader(), referenceResolver, classes);
+        return reader.readObject();
+    }
+
+    /**
+     * @return the referenceResolver
+     */
+    public ReferenceResolver getReferenceResolver() {
+        return referenceResolver;
+    }
+
+    /**
+     * @param referenceResolver the resolver of the nodes and groups written by reference, null to read them unresolved.
+     */
+    public void setReferenceResolver(ReferenceResolver referenceResolver) {
+        this.referenceResolver = referenceResolver;
+    }
+
+    /**
+     * @return the compressionThreshold
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @param compressionThreshold the serialized size in bytes from which objects are compressed, 0 to disable.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @param classes the cache of the classes loaded by name, cleared when the classes are replaced.
+     */
+    public void setClassCache(ConcurrentMap<String, Class<?>> classes) {
+        this.classes = classes;
+    }
+
+    @Override
+    public void destroy() {
+        classes.clear();
+        buffers.destroy();
+    }
+}
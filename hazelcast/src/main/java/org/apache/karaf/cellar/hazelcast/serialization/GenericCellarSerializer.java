@@ -15,39 +15,81 @@
  */
 package org.apache.karaf.cellar.hazelcast.serialization;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
-import com.hazelcast.nio.serialization.ByteArraySerializer;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.serialization.CellarObjectWriter;
+import org.apache.karaf.cellar.core.serialization.SerializationBuffers;
 import org.apache.karaf.cellar.hazelcast.HazelcastNode;
 import org.slf4j.Logger;
 
 /**
+ * Hazelcast serializer writing a type with Jackson in one of the {@link CellarCodec} encodings. The mappers are
+ * shared by all the serializers of a codec, each serializer reuses the reader and writer of its type. Objects are
+ * encoded in a pooled buffer and written length prefixed to the Hazelcast output, so the serializer doesn't
+ * allocate a new array per object. The number of objects and bytes written and read are counted so the codecs can be
+ * compared.
  *
  * @author rmoquin
  */
-public class GenericCellarSerializer<T> implements ByteArraySerializer<T> {
+public class GenericCellarSerializer<T> implements StreamSerializer<T> {
 
     private static final transient Logger LOGGER = org.slf4j.LoggerFactory.getLogger(GenericCellarSerializer.class);
-    protected static final ObjectMapper mapper = new ObjectMapper();
-    protected Class<T> clazz;
+    private static final Map<CellarCodec, ObjectMapper> MAPPERS = new EnumMap<CellarCodec, ObjectMapper>(CellarCodec.class);
+    protected final Class<T> clazz;
+    protected final CellarCodec codec;
+    protected final ObjectMapper mapper;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
     private final int typeId;
+    private final SerializationBuffers buffers = new SerializationBuffers();
+    private final AtomicLong writeCount = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong readCount = new AtomicLong();
+    private final AtomicLong readBytes = new AtomicLong();
 
-    static {
-        SimpleModule module = new SimpleModule();
-//        module.addAbstractTypeMapping(Node.class, HazelcastNode.class);
-        AfterburnerModule abModule = new AfterburnerModule();
-        mapper.registerModule(abModule);
-        mapper.registerModule(module);
-        mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_CONCRETE_AND_ARRAYS);
+    public GenericCellarSerializer(int typeId, Class<T> clazz) {
+        this(typeId, clazz, CellarCodec.JSON);
     }
 
-    public GenericCellarSerializer(int typeId, Class<T> clazz) {
-        this.clazz = clazz;
-        LOGGER.warn("Created JSON serializer for " + clazz);
+    public GenericCellarSerializer(int typeId, Class<T> clazz, CellarCodec codec) {
         this.typeId = typeId;
+        this.clazz = clazz;
+        this.codec = codec;
+        this.mapper = getMapper(codec);
+        this.reader = mapper.reader(clazz);
+        this.writer = mapper.writerWithType(clazz);
+        LOGGER.debug("CELLAR HAZELCAST: {} serializer created for {} with type id {}", new Object[]{codec, clazz.getName(), typeId});
+    }
+
+    private static synchronized ObjectMapper getMapper(CellarCodec codec) {
+        ObjectMapper mapper = MAPPERS.get(codec);
+        if (mapper == null) {
+            SimpleModule module = new SimpleModule();
+            module.addAbstractTypeMapping(Node.class, HazelcastNode.class);
+            mapper = new ObjectMapper(codec.createFactory());
+            mapper.registerModule(new AfterburnerModule());
+            mapper.registerModule(module);
+            mapper.enableDefaultTyping(ObjectMapper.DefaultTyping.NON_CONCRETE_AND_ARRAYS);
+            // derived getters, such as the command lane, are written but can't be set back
+            mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            // the generators write to a pooled buffer which must stay open
+            mapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            MAPPERS.put(codec, mapper);
+        }
+        return mapper;
     }
 
     @Override
@@ -56,19 +98,79 @@ public class GenericCellarSerializer<T> implements ByteArraySerializer<T> {
     }
 
     @Override
-    public byte[] write(T object) throws IOException {
-        LOGGER.debug("Writing value object {}", object);
-        return mapper.writeValueAsBytes(object);
+    public void write(ObjectDataOutput out, T object) throws IOException {
+        CellarObjectWriter buffer = buffers.acquireWriter();
+        try {
+            writer.writeValue(buffer.getOutputStream(), object);
+            int size = buffer.size();
+            out.writeInt(size);
+            out.write(buffer.getBuffer(), 0, size);
+            writeCount.incrementAndGet();
+            writtenBytes.addAndGet(size);
+        } finally {
+            buffers.release(buffer);
+        }
     }
 
     @Override
-    public T read(byte[] in) throws IOException {
-        T val = mapper.readValue(in, clazz);
-        LOGGER.debug("Read value object {}", val);
-        return val;
+    public T read(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        byte[] buffer = buffers.acquireBytes(size);
+        try {
+            in.readFully(buffer, 0, size);
+            T val = reader.readValue(buffer, 0, size);
+            readCount.incrementAndGet();
+            readBytes.addAndGet(size);
+            return val;
+        } finally {
+            buffers.release(buffer);
+        }
     }
 
     @Override
     public void destroy() {
+        buffers.destroy();
+    }
+
+    /**
+     * @return the serialized type
+     */
+    public Class<T> getType() {
+        return clazz;
+    }
+
+    /**
+     * @return the codec
+     */
+    public CellarCodec getCodec() {
+        return codec;
+    }
+
+    /**
+     * @return the number of objects written.
+     */
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * @return the number of bytes written.
+     */
+    public long getWrittenBytes() {
+        return writtenBytes.get();
+    }
+
+    /**
+     * @return the number of objects read.
+     */
+    public long getReadCount() {
+        return readCount.get();
+    }
+
+    /**
+     * @return the number of bytes read.
+     */
+    public long getReadBytes() {
+        return readBytes.get();
     }
 }
@@ -0,0 +1,55 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.serialization;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import java.io.IOException;
+import org.apache.karaf.cellar.hazelcast.HazelcastNode;
+
+/**
+ * Hazelcast serializer of the cluster nodes, writing their fields only instead of the Java serialized object.
+ */
+public class HazelcastNodeSerializer implements StreamSerializer<HazelcastNode> {
+
+    public static final int TYPE_ID = 101;
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, HazelcastNode node) throws IOException {
+        out.writeUTF(node.getId());
+        out.writeUTF(node.getName());
+        out.writeUTF(node.getHost());
+        out.writeInt(node.getPort());
+    }
+
+    @Override
+    public HazelcastNode read(ObjectDataInput in) throws IOException {
+        HazelcastNode node = new HazelcastNode();
+        node.setId(in.readUTF());
+        node.setName(in.readUTF());
+        node.setHost(in.readUTF());
+        node.setPort(in.readInt());
+        return node;
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.serialization;
+
+import org.apache.karaf.cellar.core.Group;
+import org.apache.karaf.cellar.core.GroupManager;
+import org.apache.karaf.cellar.core.Node;
+import org.apache.karaf.cellar.core.serialization.ReferenceResolver;
+import org.apache.karaf.cellar.hazelcast.HazelcastCluster;
+import org.apache.karaf.cellar.hazelcast.HazelcastNode;
+import org.apache.karaf.cellar.hazelcast.factory.HazelcastConfigurationManager;
+
+/**
+ * Resolves the nodes referenced by the cluster events from the member index of the cluster, and their source group
+ * from the group manager. The resolver is registered before the group manager reads the group membership store, so
+ * the group nodes are resolved from the start, the group manager then registers itself.
+ */
+public class HazelcastReferenceResolver implements ReferenceResolver {
+
+    private HazelcastCluster cluster;
+    private volatile GroupManager groupManager;
+    private HazelcastConfigurationManager configManager;
+
+    public void init() {
+        configManager.getStreamSerializer().setReferenceResolver(this);
+    }
+
+    public void destroy() {
+        if (configManager.getStreamSerializer().getReferenceResolver() == this) {
+            configManager.getStreamSerializer().setReferenceResolver(null);
+        }
+    }
+
+    @Override
+    public Node resolveNode(String id) {
+        Node node = cluster.findNodeById(id);
+        if (node == null) {
+            // the node left the cluster since the event has been sent
+            HazelcastNode departed = new HazelcastNode();
+            departed.setId(id);
+            node = departed;
+        }
+        return node;
+    }
+
+    @Override
+    public Group resolveGroup(String name) {
+        GroupManager manager = groupManager;
+        return manager != null ? manager.findGroupByName(name) : null;
+    }
+
+    /**
+     * @return the cluster
+     */
+    public HazelcastCluster getCluster() {
+        return cluster;
+    }
+
+    /**
+     * @param cluster the cluster to set
+     */
+    public void setCluster(HazelcastCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    /**
+     * @return the groupManager
+     */
+    public GroupManager getGroupManager() {
+        return groupManager;
+    }
+
+    /**
+     * @param groupManager the groupManager to set
+     */
+    public void setGroupManager(GroupManager groupManager) {
+        this.groupManager = groupManager;
+    }
+
+    /**
+     * @return the configManager
+     */
+    public HazelcastConfigurationManager getConfigManager() {
+        return configManager;
+    }
+
+    /**
+     * @param configManager the configManager to set
+     */
+    public void setConfigManager(HazelcastConfigurationManager configManager) {
+        this.configManager = configManager;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.hazelcast.serialization;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.StreamSerializer;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.karaf.cellar.core.serialization.CellarObjectReader;
+import org.apache.karaf.cellar.core.serialization.CellarObjectWriter;
+import org.apache.karaf.cellar.core.serialization.CompressionSupport;
+import org.apache.karaf.cellar.core.serialization.SerializationBuffers;
+
+/**
+ * Hazelcast serializer of the configurations held in the cluster maps. Entries are written in the Cellar binary
+ * format, in a frame deflated above the compression threshold.
+ */
+public class PropertiesSerializer implements StreamSerializer<Properties> {
+
+    public static final int TYPE_ID = 102;
+
+    private volatile ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<String, Class<?>>();
+    private final SerializationBuffers buffers = new SerializationBuffers();
+    private volatile int compressionThreshold;
+
+    @Override
+    public int getTypeId() {
+        return TYPE_ID;
+    }
+
+    @Override
+    public void write(ObjectDataOutput out, Properties properties) throws IOException {
+        CellarObjectWriter writer = buffers.acquireWriter();
+        try {
+            writer.writeInt(properties.size());
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                writer.writeObject(entry.getKey());
+                writer.writeObject(entry.getValue());
+            }
+            CompressionSupport.writeFrame(out, writer.getBuffer(), writer.size(), compressionThreshold, buffers);
+        } finally {
+            buffers.release(writer);
+        }
+    }
+
+    @Override
+    public Properties read(ObjectDataInput in) throws IOException {
+        byte[] data = CompressionSupport.readFrame(in, buffers);
+        CellarObjectReader reader = new CellarObjectReader(data, 0, data.length, in.getClassLoader(), null, classes);
+        Properties properties = new Properties();
+        int size = reader.readInt();
+        for (int i = 0; i < size; i++) {
+            Object key = reader.readObject();
+            properties.put(key, reader.readObject());
+        }
+        return properties;
+    }
+
+    /**
+     * @return the compressionThreshold
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @param compressionThreshold the serialized size in bytes from which configurations are compressed, 0 to disable.
+     */
+    public void setCompressionThreshold(int compressionThreshold) {
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    /**
+     * @param classes the cache of the classes loaded by name, cleared when the classes are replaced.
+     */
+    public void setClassCache(ConcurrentMap<String, Class<?>> classes) {
+        this.classes = classes;
+    }
+
+    @Override
+    public void destroy() {
+        classes.clear();
+        buffers.destroy();
+    }
+}
@@ -101,4 +101,32 @@ public interface CellarMBean {
      */
     void producerStop(String nodeId) throws Exception;
 
+    /**
+     * Get the commands which could not be delivered to a node.
+     *
+     * @return the dead letters.
+     * @throws Exception in case of retrieval failure.
+     */
+    TabularData deadLetters() throws Exception;
+
+    /**
+     * Deliver again the commands which could not be delivered to a node.
+     *
+     * @param nodeName the node name, all the nodes if empty.
+     * @param groupName the cluster group name, all the cluster groups if empty.
+     * @return the number of commands delivered again.
+     * @throws Exception in case of replay failure.
+     */
+    int deadLetterReplay(String nodeName, String groupName) throws Exception;
+
+    /**
+     * Remove the commands which could not be delivered to a node.
+     *
+     * @param nodeName the node name, all the nodes if empty.
+     * @param groupName the cluster group name, all the cluster groups if empty.
+     * @return the number of commands removed.
+     * @throws Exception in case of drain failure.
+     */
+    int deadLetterDrain(String nodeName, String groupName) throws Exception;
+
 }
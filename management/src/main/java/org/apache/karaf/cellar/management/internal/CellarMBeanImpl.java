@@ -27,6 +27,7 @@ import org.apache.karaf.cellar.core.Group;
 import org.apache.karaf.cellar.core.GroupManager;
 import org.apache.karaf.cellar.core.Node;
 import org.apache.karaf.cellar.core.Synchronizer;
+import org.apache.karaf.cellar.core.command.DeadLetter;
 import org.apache.karaf.cellar.core.command.DistributedExecutionContext;
 import org.apache.karaf.cellar.core.control.ManageHandlersCommand;
 import org.apache.karaf.cellar.core.control.ManageHandlersResult;
@@ -261,6 +262,45 @@ public class CellarMBeanImpl extends StandardMBean implements CellarMBean {
         return table;
     }
 
+    @Override
+    public TabularData deadLetters() throws Exception {
+        List<DeadLetter> deadLetters = executionContext.getDeadLetters();
+
+        CompositeType compositeType = new CompositeType("Dead Letter", "Karaf Cellar command which could not be delivered",
+                new String[]{"node", "group", "id", "command", "attempts", "failed", "cause"},
+                new String[]{"Name of the node", "Name of the cluster group", "ID of the command", "Type of the command", "Number of delivery attempts", "Time of the last failed delivery", "Cause of the last failed delivery"},
+                new OpenType[]{SimpleType.STRING, SimpleType.STRING, SimpleType.STRING, SimpleType.STRING, SimpleType.INTEGER, SimpleType.DATE, SimpleType.STRING});
+        TabularType tableType = new TabularType("Dead Letters", "Table of Karaf Cellar commands which could not be delivered",
+                compositeType, new String[]{"node", "group", "id"});
+        TabularDataSupport table = new TabularDataSupport(tableType);
+
+        for (DeadLetter deadLetter : deadLetters) {
+            CompositeDataSupport data = new CompositeDataSupport(compositeType,
+                    new String[]{"node", "group", "id", "command", "attempts", "failed", "cause"},
+                    new Object[]{deadLetter.getNode().getName(), deadLetter.getGroupName(), deadLetter.getCommand().getId(),
+                        deadLetter.getCommand().getClass().getName(), deadLetter.getAttempts(), new Date(deadLetter.getFailedAt()), deadLetter.getCause()});
+            table.put(data);
+        }
+        return table;
+    }
+
+    @Override
+    public int deadLetterReplay(String nodeName, String groupName) throws Exception {
+        return executionContext.replayDeadLetters(emptyToNull(nodeName), emptyToNull(groupName));
+    }
+
+    @Override
+    public int deadLetterDrain(String nodeName, String groupName) throws Exception {
+        return executionContext.drainDeadLetters(emptyToNull(nodeName), emptyToNull(groupName));
+    }
+
+    private String emptyToNull(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return value;
+    }
+
     private Map<Node, ManageHandlersResult> start(String nodeName, SwitchType switchTyoe) throws Exception {
         NodeConfigurationCommand command = new NodeConfigurationCommand(clusterManager.generateId(), SwitchStatus.ON, switchTyoe);
 
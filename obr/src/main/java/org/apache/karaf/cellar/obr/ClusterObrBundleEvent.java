@@ -13,13 +13,20 @@
  */
 package org.apache.karaf.cellar.obr;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
 
 /**
  * Cluster OBR bundle event.
  */
 public class ClusterObrBundleEvent extends Command<ClusterObrEventResponse> {
 
+    private static final long serialVersionUID = -5316908737349349339L;
+
+    private static final int FIELDS_VERSION = 1;
+
     private String bundleId;
     private int type;
 
@@ -40,4 +47,21 @@ public class ClusterObrBundleEvent extends Command<ClusterObrEventResponse> {
         return this.type;
     }
 
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(bundleId);
+        out.writeInt(type);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        bundleId = in.readString();
+        type = in.readInt();
+        in.endFields();
+    }
 }
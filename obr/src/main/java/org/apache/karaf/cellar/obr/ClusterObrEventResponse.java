@@ -23,6 +23,8 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class ClusterObrEventResponse extends Result {
 
+    private static final long serialVersionUID = 3646117369403586211L;
+
     public ClusterObrEventResponse() {
     }
 
@@ -13,7 +13,11 @@
  */
 package org.apache.karaf.cellar.obr;
 
+import java.io.IOException;
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.serialization.CellarDataInput;
+import org.apache.karaf.cellar.core.serialization.CellarDataOutput;
+import org.apache.karaf.cellar.core.serialization.SerializationSupport;
 import org.apache.karaf.cellar.obr.Constants.UrlEventTypes;
 
 /**
@@ -21,8 +25,15 @@ import org.apache.karaf.cellar.obr.Constants.UrlEventTypes;
  */
 public class ClusterObrUrlEvent extends Command<ClusterObrEventResponse> {
 
-    private final String url;
-    private final UrlEventTypes type;
+    private static final long serialVersionUID = -714405406170346390L;
+
+    private static final int FIELDS_VERSION = 1;
+
+    private String url;
+    private UrlEventTypes type;
+
+    public ClusterObrUrlEvent() {
+    }
 
     public ClusterObrUrlEvent(String url, UrlEventTypes type) {
         this.url = url;
@@ -36,4 +47,22 @@ public class ClusterObrUrlEvent extends Command<ClusterObrEventResponse> {
     public UrlEventTypes getType() {
         return this.type;
     }
+
+    @Override
+    public void writeData(CellarDataOutput out) throws IOException {
+        super.writeData(out);
+        out.startFields(FIELDS_VERSION);
+        out.writeString(url);
+        SerializationSupport.writeEnum(out, type);
+        out.endFields();
+    }
+
+    @Override
+    public void readData(CellarDataInput in) throws IOException {
+        super.readData(in);
+        in.startFields();
+        url = in.readString();
+        type = SerializationSupport.readEnum(in, UrlEventTypes.class);
+        in.endFields();
+    }
 }
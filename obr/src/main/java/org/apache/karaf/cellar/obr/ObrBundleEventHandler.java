@@ -117,14 +117,14 @@ public class ObrBundleEventHandler extends CommandHandler<ClusterObrBundleEvent,
         ClusterObrEventResponse result = new ClusterObrEventResponse();
 
         // check if the handler is ON
-        if (this.getSwitch().getStatus().equals(SwitchStatus.OFF)) {
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
             LOGGER.debug("CELLAR OBR: {} switch is OFF", SWITCH_ID);
             result.setSuccessful(false);
             result.setThrowable(new CommandExecutionException(MessageFormat.format("CELLAR OBR: {0} switch is OFF", SWITCH_ID)));
             return result;
         }
 
-        final String sourceGroupName = event.getSourceGroup().getName();
+        final String sourceGroupName = event.getSourceGroupName();
 
         // check if the node is local
         if (!groupManager.isLocalGroup(sourceGroupName)) {
@@ -139,7 +139,7 @@ public class ObrBundleEventHandler extends CommandHandler<ClusterObrBundleEvent,
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(sourceGroupName);
             Set<String> whitelist = groupConfig.getOutboundBundleWhitelist();
             Set<String> blacklist = groupConfig.getOutboundBundleBlacklist();
-            if (cellarSupport.isAllowed(bundleId, whitelist, blacklist)) {
+            if (cellarSupport.isAllowed(bundleId, groupConfig, whitelist, blacklist)) {
                 Resolver resolver = obrService.resolver();
                 String[] target = getTarget(bundleId);
                 Resource resource = selectNewestVersion(searchRepository(target[0], target[1]));
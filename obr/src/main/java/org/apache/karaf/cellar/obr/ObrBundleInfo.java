@@ -20,6 +20,8 @@ import java.io.Serializable;
  */
 public class ObrBundleInfo implements Serializable {
 
+    private static final long serialVersionUID = -2372922171600517249L;
+
     private String presentationName;
     private String symbolicName;
     private String version;
@@ -51,14 +51,14 @@ public class ObrUrlEventHandler extends CommandHandler<ClusterObrUrlEvent, Clust
     public ClusterObrEventResponse execute(ClusterObrUrlEvent event) {
         ClusterObrEventResponse result = new ClusterObrEventResponse(event.getId());
         // check if the handler is ON
-        if (this.getSwitch().getStatus().equals(SwitchStatus.OFF)) {
+        if (eventSwitch.getStatus().equals(SwitchStatus.OFF)) {
             LOGGER.debug("CELLAR OBR: {} switch is OFF", SWITCH_ID);
             result.setSuccessful(false);
             result.setThrowable(new CommandExecutionException(MessageFormat.format("CELLAR FEATURES: {0} switch is OFF, cluster event is not handled", SWITCH_ID)));
             return result;
         }
 
-        final String sourceGroupName = event.getSourceGroup().getName();
+        final String sourceGroupName = event.getSourceGroupName();
         // check if the node is local
         if (!groupManager.isLocalGroup(sourceGroupName)) {
             result.setThrowable(new CommandExecutionException(MessageFormat.format("Node is not part of thiscluster group {}, commend will be ignored.", sourceGroupName)));
@@ -72,7 +72,7 @@ public class ObrUrlEventHandler extends CommandHandler<ClusterObrUrlEvent, Clust
             GroupConfiguration groupConfig = groupManager.findGroupConfigurationByName(sourceGroupName);
             Set<String> whitelist = groupConfig.getInboundConfigurationWhitelist();
             Set<String> blacklist = groupConfig.getInboundConfigurationBlacklist();
-            if (cellarSupport.isAllowed(url, whitelist, blacklist) || event.getForce()) {
+            if (cellarSupport.isAllowed(url, groupConfig, whitelist, blacklist) || event.getForce()) {
                 if (event.getType() == Constants.UrlEventTypes.URL_ADD_EVENT_TYPE) {
                     LOGGER.debug("CELLAR OBR: adding repository URL {}", url);
                     obrService.addRepository(url);
@@ -97,7 +97,7 @@ public class ObrUrlSynchronizer implements Synchronizer {
             Repository[] repositories = obrService.listRepositories();
             for (Repository repository : repositories) {
 
-                if (cellarSupport.isAllowed(repository.getURI(), whitelist, blacklist)) {
+                if (cellarSupport.isAllowed(repository.getURI(), groupConfig, whitelist, blacklist)) {
                     clusterUrls.add(repository.getURI());
                     // update OBR bundles in the cluster group
                     Set<ObrBundleInfo> clusterBundles = clusterManager.getSet(Constants.BUNDLES_DISTRIBUTED_SET_NAME + Configurations.SEPARATOR + groupName);
@@ -0,0 +1,77 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.shell;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import org.apache.karaf.cellar.core.command.DeadLetter;
+import org.apache.karaf.cellar.core.shell.CellarCommandSupport;
+import org.apache.karaf.shell.commands.Command;
+import org.apache.karaf.shell.commands.Option;
+
+@Command(scope = "cluster", name = "dead-letter", description = "List, replay or drain the commands which could not be delivered to a node")
+public class DeadLetterCommand extends CellarCommandSupport {
+    private static final String HEADER_FORMAT = "   %-20s   %-20s   %-30s   %-8s   %-19s   %s";
+    private static final String OUTPUT_FORMAT = "   %-20s   %-20s   %-30s   %8d   %-19s   %s";
+
+    @Option(name = "-n", aliases = {"--node"}, description = "The node name, all the nodes by default", required = false, multiValued = false)
+    String nodeName;
+
+    @Option(name = "-g", aliases = {"--group"}, description = "The cluster group name, all the cluster groups by default", required = false, multiValued = false)
+    String groupName;
+
+    @Option(name = "-r", aliases = {"--replay"}, description = "Deliver the commands again", required = false, multiValued = false)
+    boolean replay;
+
+    @Option(name = "-d", aliases = {"--drain"}, description = "Remove the commands without delivering them", required = false, multiValued = false)
+    boolean drain;
+
+    @Override
+    protected Object doExecute() throws Exception {
+        if (replay && drain) {
+            System.err.println("The replay and drain options can't be used together");
+            return null;
+        }
+        if (replay) {
+            int replayed = executionContext.replayDeadLetters(nodeName, groupName);
+            System.out.println(replayed + " command(s) delivered again");
+            return null;
+        }
+        if (drain) {
+            int drained = executionContext.drainDeadLetters(nodeName, groupName);
+            System.out.println(drained + " command(s) removed");
+            return null;
+        }
+        List<DeadLetter> deadLetters = executionContext.getDeadLetters();
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        boolean found = false;
+        for (DeadLetter deadLetter : deadLetters) {
+            if (deadLetter.matches(nodeName, groupName)) {
+                if (!found) {
+                    System.out.println(String.format(HEADER_FORMAT, "Node", "Group", "Command", "Attempts", "Failed At", "Cause"));
+                    found = true;
+                }
+                System.out.println(String.format(OUTPUT_FORMAT, deadLetter.getNode().getName(), deadLetter.getGroupName(),
+                        deadLetter.getCommand().getClass().getSimpleName(), deadLetter.getAttempts(),
+                        format.format(new Date(deadLetter.getFailedAt())), deadLetter.getCause()));
+            }
+        }
+        if (!found) {
+            System.err.println("No dead letter found");
+        }
+        return null;
+    }
+
+}
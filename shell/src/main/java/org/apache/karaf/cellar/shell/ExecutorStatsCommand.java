@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.karaf.cellar.shell;
+
+import java.util.Map;
+import org.apache.karaf.cellar.core.shell.CellarCommandSupport;
+import org.apache.karaf.shell.commands.Command;
+
+@Command(scope = "cluster", name = "executor-stats", description = "Display the statistics of the cluster command execution")
+public class ExecutorStatsCommand extends CellarCommandSupport {
+    private static final String HEADER_FORMAT = " %-50s   %-15s";
+    private static final String OUTPUT_FORMAT = " %-50s   %15d";
+
+    @Override
+    protected Object doExecute() throws Exception {
+        Map<String, Long> statistics = executionContext.getStatistics();
+        if (statistics != null && !statistics.isEmpty()) {
+            System.out.println(String.format(HEADER_FORMAT, "Name", "Value"));
+            for (Map.Entry<String, Long> statistic : statistics.entrySet()) {
+                System.out.println(String.format(OUTPUT_FORMAT, statistic.getKey(), statistic.getValue()));
+            }
+        } else {
+            System.err.println("No statistics available");
+        }
+        return null;
+    }
+
+}
@@ -14,16 +14,24 @@
 package org.apache.karaf.cellar.utils.ping;
 
 import org.apache.karaf.cellar.core.command.Command;
+import org.apache.karaf.cellar.core.command.ExecutionLane;
 
 /**
  * Cluster ping event.
  */
 public class Ping extends Command<Pong> {
 
+    private static final long serialVersionUID = -6704037971980633805L;
+
     public Ping() {
     }
 
     public Ping(String id) {
         super(id);
     }
+
+    @Override
+    public ExecutionLane getLane() {
+        return ExecutionLane.CONTROL;
+    }
 }
@@ -20,6 +20,8 @@ import org.apache.karaf.cellar.core.command.Result;
  */
 public class Pong extends Result {
 
+    private static final long serialVersionUID = -1572952141605824765L;
+
     public Pong() {
     }
 